@@ -0,0 +1,56 @@
+package org.mafisher.togetherbackend.chat;
+
+/**
+ * STOMP destinations used by the chat. Clients send to {@code /app/rooms/{roomId}/messages} and
+ * subscribe to {@code /topic/rooms/{roomId}}; errors go to the sender's {@code /user/queue/errors}.
+ * After reconnecting, a client subscribes to {@code /app/rooms/{roomId}/messages/after/{seq}} with the
+ * highest sequence it has seen to get the messages it missed. Typing indicators are sent to
+ * {@code /app/rooms/{roomId}/typing} and broadcast, batched, on {@code /topic/rooms/{roomId}/activity};
+ * "read up to seq" acks go to {@code /app/rooms/{roomId}/read} and come back, batched, on
+ * {@code /topic/rooms/{roomId}/reads};
+ * friends going online or offline are pushed, batched, to {@code /user/queue/presence} and friend request
+ * changes to {@code /user/queue/friend-requests}.
+ */
+public final class ChatDestinations {
+
+    public static final String APPLICATION_PREFIX = "/app";
+    public static final String TOPIC_PREFIX = "/topic";
+    public static final String QUEUE_PREFIX = "/queue";
+    public static final String USER_PREFIX = "/user";
+    public static final String ROOM_TOPIC_PREFIX = TOPIC_PREFIX + "/rooms/";
+    public static final String ERRORS_QUEUE = QUEUE_PREFIX + "/errors";
+    public static final String PRESENCE_QUEUE = QUEUE_PREFIX + "/presence";
+    public static final String FRIEND_REQUESTS_QUEUE = QUEUE_PREFIX + "/friend-requests";
+
+    private ChatDestinations() {
+    }
+
+    public static String roomTopic(Long roomId) {
+        return ROOM_TOPIC_PREFIX + roomId;
+    }
+
+    public static String roomActivityTopic(Long roomId) {
+        return ROOM_TOPIC_PREFIX + roomId + "/activity";
+    }
+
+    public static String roomReadsTopic(Long roomId) {
+        return ROOM_TOPIC_PREFIX + roomId + "/reads";
+    }
+
+    /**
+     * Returns the room id of a {@code /topic/rooms/{roomId}} destination, or {@code null} for any other destination.
+     */
+    public static Long roomIdOf(String destination) {
+        if (destination == null || !destination.startsWith(ROOM_TOPIC_PREFIX))
+            return null;
+        String id = destination.substring(ROOM_TOPIC_PREFIX.length());
+        int end = id.indexOf('/');
+        if (end >= 0)
+            id = id.substring(0, end);
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package org.mafisher.togetherbackend.chat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.mafisher.togetherbackend.dto.ChatMessageDto;
+import org.mafisher.togetherbackend.entity.ChatMessage;
+import org.mafisher.togetherbackend.mappers.Mapper;
+import org.mafisher.togetherbackend.repository.ChatMessageRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves recent room history from memory. A room gets a {@link RoomMessageBuffer} the first time its
+ * history is read, seeded with the latest messages from the database; committed messages are appended
+ * while it stays active. Pages older than the buffer fall back to a keyset query on {@code (room_id, seq)}.
+ * Rooms idle for longer than {@code idleTimeout} are dropped, and the least recently read rooms are
+ * dropped whenever the buffers together exceed {@code memoryBudget} bytes.
+ */
+@Component
+public class ChatHistoryCache {
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final Mapper<ChatMessage, ChatMessageDto> chatMessageMapper;
+    private final int roomCapacity;
+    private final long memoryBudget;
+    private final long idleTimeoutNanos;
+
+    private final Map<Long, RoomMessageBuffer> rooms = new ConcurrentHashMap<>();
+    private final AtomicLong bytes = new AtomicLong();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter evictionCounter;
+
+    public ChatHistoryCache(
+            ChatMessageRepository chatMessageRepository,
+            Mapper<ChatMessage, ChatMessageDto> chatMessageMapper,
+            MeterRegistry meterRegistry,
+            @Value("${application.chat.history.room-capacity:300}") int roomCapacity,
+            @Value("${application.chat.history.memory-budget:67108864}") long memoryBudget,
+            @Value("${application.chat.history.idle-timeout:30m}") Duration idleTimeout) {
+        this.chatMessageRepository = chatMessageRepository;
+        this.chatMessageMapper = chatMessageMapper;
+        this.roomCapacity = roomCapacity;
+        this.memoryBudget = memoryBudget;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+
+        Gauge.builder("chat.history.rooms", rooms, Map::size).register(meterRegistry);
+        Gauge.builder("chat.history.memory", bytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.hitCounter = Counter.builder("chat.history.requests").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("chat.history.requests").tag("result", "miss").register(meterRegistry);
+        this.evictionCounter = Counter.builder("chat.history.evictions").register(meterRegistry);
+    }
+
+    /**
+     * Appends a committed message to its room's buffer if the room is active.
+     */
+    public void append(ChatMessageDto message) {
+        if (message.getSeq() == null)
+            return;
+        rooms.computeIfPresent(message.getRoomId(), (roomId, buffer) -> {
+            bytes.addAndGet(buffer.add(message));
+            return buffer;
+        });
+        enforceBudget();
+    }
+
+    /**
+     * Returns up to {@code limit} messages older than {@code beforeSeq} ({@code null} for the newest), oldest first.
+     * One more message than requested is returned when older messages exist, so callers can tell whether to page on.
+     */
+    public List<ChatMessageDto> before(Long roomId, Long beforeSeq, int limit) {
+        RoomMessageBuffer buffer = activate(roomId);
+        List<ChatMessageDto> cached = buffer.before(beforeSeq, limit + 1);
+        if (cached.size() > limit || !buffer.hasOlder()) {
+            hitCounter.increment();
+            return cached;
+        }
+
+        missCounter.increment();
+        Long boundary = cached.isEmpty() ? lowest(beforeSeq, buffer.oldestSeq()) : cached.get(0).getSeq();
+        int missing = limit + 1 - cached.size();
+        List<ChatMessage> stored = boundary == null
+                ? chatMessageRepository.findLatest(roomId, PageRequest.of(0, missing))
+                : chatMessageRepository.findBefore(roomId, boundary, PageRequest.of(0, missing));
+
+        List<ChatMessageDto> messages = new ArrayList<>(stored.size() + cached.size());
+        for (int i = stored.size() - 1; i >= 0; i--)
+            messages.add(chatMessageMapper.mapTo(stored.get(i)));
+        messages.addAll(cached);
+        return messages;
+    }
+
+    /**
+     * Returns up to {@code limit} messages newer than {@code afterSeq}, oldest first.
+     */
+    public List<ChatMessageDto> after(Long roomId, long afterSeq, int limit) {
+        List<ChatMessageDto> cached = activate(roomId).after(afterSeq, limit);
+        if (cached != null) {
+            hitCounter.increment();
+            return cached;
+        }
+        missCounter.increment();
+        return chatMessageRepository.findAfter(roomId, afterSeq, PageRequest.of(0, limit)).stream()
+                .map(chatMessageMapper::mapTo)
+                .toList();
+    }
+
+    /**
+     * Returns the highest committed sequence of the room, or {@code 0} when it has no messages yet.
+     */
+    public long latestSeq(Long roomId) {
+        Long newest = activate(roomId).newestSeq();
+        return newest == null ? 0 : newest;
+    }
+
+    public void evict(Long roomId) {
+        RoomMessageBuffer removed = rooms.remove(roomId);
+        if (removed != null)
+            bytes.addAndGet(-removed.bytes());
+    }
+
+    @Scheduled(fixedDelayString = "${application.chat.history.eviction-interval:1m}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        rooms.forEach((roomId, buffer) -> {
+            if (now - buffer.lastAccessNanos() > idleTimeoutNanos && rooms.remove(roomId, buffer)) {
+                bytes.addAndGet(-buffer.bytes());
+                evictionCounter.increment();
+            }
+        });
+    }
+
+    private RoomMessageBuffer activate(Long roomId) {
+        RoomMessageBuffer existing = rooms.get(roomId);
+        if (existing != null)
+            return existing;
+
+        // Seeded outside the map: a query inside computeIfAbsent would hold the lock that the writer
+        // thread's append needs for every room in the same bin.
+        List<ChatMessage> latest = chatMessageRepository.findLatest(roomId, PageRequest.of(0, roomCapacity));
+        List<ChatMessageDto> messages = new ArrayList<>(latest.size());
+        for (int i = latest.size() - 1; i >= 0; i--)
+            messages.add(chatMessageMapper.mapTo(latest.get(i)));
+        RoomMessageBuffer seeded = new RoomMessageBuffer(roomCapacity);
+        seeded.seed(messages, latest.size() == roomCapacity);
+        long seededBytes = seeded.bytes();
+
+        RoomMessageBuffer raced = rooms.putIfAbsent(roomId, seeded);
+        if (raced != null)
+            return raced;
+        bytes.addAndGet(seededBytes);
+
+        // Messages committed after the query whose append ran before the buffer was in the map.
+        long newestSeq = latest.isEmpty() ? 0 : latest.get(0).getSeq();
+        for (ChatMessage message : chatMessageRepository.findAfter(roomId, newestSeq, PageRequest.of(0, roomCapacity)))
+            bytes.addAndGet(seeded.add(chatMessageMapper.mapTo(message)));
+        enforceBudget();
+        return seeded;
+    }
+
+    private void enforceBudget() {
+        if (bytes.get() <= memoryBudget)
+            return;
+        List<Map.Entry<Long, RoomMessageBuffer>> byAge = new ArrayList<>(rooms.entrySet());
+        byAge.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccessNanos()));
+        for (Map.Entry<Long, RoomMessageBuffer> entry : byAge) {
+            if (bytes.get() <= memoryBudget)
+                return;
+            if (rooms.remove(entry.getKey(), entry.getValue())) {
+                bytes.addAndGet(-entry.getValue().bytes());
+                evictionCounter.increment();
+            }
+        }
+    }
+
+    private static Long lowest(Long a, Long b) {
+        if (a == null)
+            return b;
+        if (b == null)
+            return a;
+        return Math.min(a, b);
+    }
+}
@@ -0,0 +1,7 @@
+package org.mafisher.togetherbackend.chat;
+
+/**
+ * Generated id and room sequence of a committed chat message.
+ */
+public record ChatMessageAck(Long id, Long seq) {
+}
@@ -0,0 +1,254 @@
+package org.mafisher.togetherbackend.chat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.mafisher.togetherbackend.handler.BusinessErrorCodes;
+import org.mafisher.togetherbackend.handler.CustomException;
+import org.mafisher.togetherbackend.repository.ChatMessageBatchRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind store for chat messages. Senders enqueue messages and get a future back; a single
+ * writer thread groups them into one JDBC batch per transaction, flushing once {@code batchSize}
+ * messages are waiting or {@code flushInterval} has passed since the first one, whichever comes first.
+ * Futures complete only after their batch has committed.
+ * <p>
+ * The writer thread also hands out per-room sequence numbers as it flushes. Counters are confined to
+ * that thread, so they need no locking, follow commit order, and are seeded from the database only the
+ * first time a room is seen (or after its counter has been evicted). If a batch fails, its messages are
+ * written one by one and only the ones that still fail are rejected; each failed write drops the counters
+ * of its rooms, so they are reseeded from the database and neither leave a gap nor keep reusing a stale
+ * sequence.
+ */
+@Slf4j
+@Component
+public class ChatMessageWriter {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final ChatMessageBatchRepository batchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingChatMessage> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Duration enqueueTimeout;
+    private final Map<Long, Long> sequences;
+
+    private final DistributionSummary batchSizeSummary;
+    private final Timer flushTimer;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public ChatMessageWriter(
+            ChatMessageBatchRepository batchRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${application.chat.writer.batch-size:200}") int batchSize,
+            @Value("${application.chat.writer.flush-interval:5ms}") Duration flushInterval,
+            @Value("${application.chat.writer.queue-capacity:10000}") int queueCapacity,
+            @Value("${application.chat.writer.enqueue-timeout:50ms}") Duration enqueueTimeout,
+            @Value("${application.chat.writer.sequence-cache-size:100000}") int sequenceCacheSize) {
+        this.batchRepository = batchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.enqueueTimeout = enqueueTimeout;
+        // Never smaller than a batch, so a room's counter cannot be evicted while its batch is being numbered.
+        int sequenceCapacity = Math.max(sequenceCacheSize, batchSize);
+        this.sequences = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > sequenceCapacity;
+            }
+        };
+
+        Gauge.builder("chat.writer.queue", queue, BlockingQueue::size)
+                .description("Chat messages waiting to be written")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("chat.writer.batch.size")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("chat.writer.flush")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("chat.writer.failed").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::run, "chat-message-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writerThread != null)
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public CompletableFuture<ChatMessageAck> write(Long roomId, Long senderId, String content, Instant createdAt) {
+        if (!running)
+            throw new CustomException(BusinessErrorCodes.CHAT_UNAVAILABLE);
+        PendingChatMessage message = new PendingChatMessage(roomId, senderId, content, createdAt);
+        try {
+            if (!queue.offer(message, enqueueTimeout.toNanos(), TimeUnit.NANOSECONDS))
+                throw new CustomException(BusinessErrorCodes.CHAT_UNAVAILABLE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomException(BusinessErrorCodes.CHAT_UNAVAILABLE);
+        }
+        return message.getAck();
+    }
+
+    private void run() {
+        List<PendingChatMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<PendingChatMessage> batch) throws InterruptedException {
+        PendingChatMessage first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null)
+            return;
+        batch.add(first);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0)
+                return;
+            PendingChatMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null)
+                return;
+            batch.add(next);
+        }
+    }
+
+    void flush(List<PendingChatMessage> batch) {
+        long start = System.nanoTime();
+        List<Long> ids;
+        try {
+            ids = insert(batch);
+        } catch (Exception e) {
+            log.warn("Batched write of {} chat messages failed, retrying one by one", batch.size(), e);
+            flushOneByOne(batch, start);
+            return;
+        }
+        // metrics first, so they are in place by the time a sender sees its ack
+        record(batch, start);
+        for (int i = 0; i < batch.size(); i++)
+            complete(batch.get(i), ids == null || i >= ids.size() ? null : ids.get(i));
+    }
+
+    /**
+     * Writes each message of a failed batch in its own transaction, so one bad row (for example a message
+     * to a room deleted in the meantime) does not reject the others.
+     */
+    private void flushOneByOne(List<PendingChatMessage> batch, long start) {
+        Long[] ids = new Long[batch.size()];
+        Exception[] errors = new Exception[batch.size()];
+        int failed = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                List<Long> written = insert(List.of(batch.get(i)));
+                ids[i] = written == null || written.isEmpty() ? null : written.get(0);
+            } catch (Exception e) {
+                log.debug("Rejecting chat message for room {}", batch.get(i).getRoomId(), e);
+                errors[i] = e;
+                failed++;
+            }
+        }
+        record(batch, start);
+        if (failed > 0) {
+            failedCounter.increment(failed);
+            log.error("Failed to write {} of {} chat messages", failed, batch.size());
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (errors[i] != null)
+                batch.get(i).getAck().completeExceptionally(errors[i]);
+            else
+                complete(batch.get(i), ids[i]);
+        }
+    }
+
+    private List<Long> insert(List<PendingChatMessage> messages) {
+        try {
+            return transactionTemplate.execute(status -> {
+                assignSequences(messages);
+                return batchRepository.insertAll(messages);
+            });
+        } catch (RuntimeException e) {
+            forgetSequences(messages);
+            throw e;
+        }
+    }
+
+    private static void complete(PendingChatMessage message, Long id) {
+        message.getAck().complete(new ChatMessageAck(id, message.getSeq()));
+    }
+
+    private void assignSequences(List<PendingChatMessage> batch) {
+        Set<Long> unseeded = new HashSet<>();
+        for (PendingChatMessage message : batch) {
+            if (!sequences.containsKey(message.getRoomId()))
+                unseeded.add(message.getRoomId());
+        }
+        if (!unseeded.isEmpty())
+            sequences.putAll(batchRepository.findMaxSeqs(unseeded));
+        for (PendingChatMessage message : batch)
+            message.assignSeq(sequences.merge(message.getRoomId(), 1L, Long::sum));
+    }
+
+    /**
+     * Drops the counters of the rooms in {@code batch}: the failure may be a duplicate sequence written
+     * behind this writer's back, so the next write to those rooms re-reads the stored maximum.
+     */
+    private void forgetSequences(List<PendingChatMessage> batch) {
+        for (PendingChatMessage message : batch) {
+            sequences.remove(message.getRoomId());
+            message.assignSeq(null);
+        }
+    }
+
+    private void record(List<PendingChatMessage> batch, long start) {
+        batchSizeSummary.record(batch.size());
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,31 @@
+package org.mafisher.togetherbackend.chat;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Chat message waiting in the {@link ChatMessageWriter} queue. The writer assigns {@link #getSeq()} when
+ * the message is flushed, and {@link #getAck()} completes once the batch holding the message has committed.
+ */
+@Getter
+public class PendingChatMessage {
+    private final Long roomId;
+    private final Long senderId;
+    private final String content;
+    private final Instant createdAt;
+    private final CompletableFuture<ChatMessageAck> ack = new CompletableFuture<>();
+    private Long seq;
+
+    public PendingChatMessage(Long roomId, Long senderId, String content, Instant createdAt) {
+        this.roomId = roomId;
+        this.senderId = senderId;
+        this.content = content;
+        this.createdAt = createdAt;
+    }
+
+    public void assignSeq(Long seq) {
+        this.seq = seq;
+    }
+}
@@ -0,0 +1,7 @@
+package org.mafisher.togetherbackend.chat;
+
+/**
+ * A user's "read up to {@code seq}" position in a room.
+ */
+public record ReadMark(Long userId, Long roomId, Long seq) {
+}
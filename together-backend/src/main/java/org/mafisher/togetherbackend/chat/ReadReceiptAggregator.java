@@ -0,0 +1,144 @@
+package org.mafisher.togetherbackend.chat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.mafisher.togetherbackend.dto.RoomReadsDto;
+import org.mafisher.togetherbackend.repository.RoomReadStateRepository;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects "read up to {@code seq}" acks in memory and writes them once per {@code flush-interval} as one
+ * batch of upserts, so a busy room costs one row per reader and flush instead of one counter update per
+ * recipient and message. Unread counts are not stored at all: they are derived from the room's highest
+ * sequence and the read position, with not-yet-flushed positions laid over the stored ones.
+ * After each flush the new positions are broadcast per room on {@code /topic/rooms/{roomId}/reads}.
+ */
+@Slf4j
+@Component
+public class ReadReceiptAggregator {
+
+    private final RoomReadStateRepository roomReadStateRepository;
+    private final RoomFanout roomFanout;
+    private final SseFanout sseFanout;
+
+    /**
+     * Pending positions by user id, then room id. Updated only through {@code compute} on the user's entry.
+     */
+    private final Map<Long, Map<Long, Long>> pending = new ConcurrentHashMap<>();
+    private final Counter receivedCounter;
+    private final Counter flushedCounter;
+
+    public ReadReceiptAggregator(
+            RoomReadStateRepository roomReadStateRepository,
+            RoomFanout roomFanout,
+            SseFanout sseFanout,
+            MeterRegistry meterRegistry) {
+        this.roomReadStateRepository = roomReadStateRepository;
+        this.roomFanout = roomFanout;
+        this.sseFanout = sseFanout;
+
+        Gauge.builder("chat.reads.pending", pending, Map::size).register(meterRegistry);
+        this.receivedCounter = Counter.builder("chat.reads.acks").tag("stage", "received").register(meterRegistry);
+        this.flushedCounter = Counter.builder("chat.reads.acks").tag("stage", "flushed").register(meterRegistry);
+    }
+
+    public void markRead(Long roomId, Long userId, long seq) {
+        pending.compute(userId, (id, rooms) -> {
+            Map<Long, Long> updated = rooms == null ? new HashMap<>() : rooms;
+            updated.merge(roomId, seq, Math::max);
+            return updated;
+        });
+        receivedCounter.increment();
+    }
+
+    /**
+     * Positions of the user that are not flushed yet, by room id.
+     */
+    public Map<Long, Long> pendingFor(Long userId) {
+        Map<Long, Long> positions = new HashMap<>();
+        pending.computeIfPresent(userId, (id, rooms) -> {
+            positions.putAll(rooms);
+            return rooms;
+        });
+        return positions;
+    }
+
+    public void evictRoom(Long roomId) {
+        for (Long userId : pending.keySet()) {
+            pending.computeIfPresent(userId, (id, rooms) -> {
+                rooms.remove(roomId);
+                return rooms.isEmpty() ? null : rooms;
+            });
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${application.chat.reads.flush-interval:2s}")
+    public void flush() {
+        List<ReadMark> marks = new ArrayList<>();
+        for (Long userId : pending.keySet()) {
+            pending.computeIfPresent(userId, (id, rooms) -> {
+                rooms.forEach((roomId, seq) -> marks.add(new ReadMark(userId, roomId, seq)));
+                return rooms;
+            });
+        }
+        if (marks.isEmpty())
+            return;
+
+        List<ReadMark> written = write(marks);
+        // keep positions that moved on while the batch was written; they go out with the next flush
+        for (ReadMark mark : marks) {
+            pending.computeIfPresent(mark.userId(), (id, rooms) -> {
+                rooms.remove(mark.roomId(), mark.seq());
+                return rooms.isEmpty() ? null : rooms;
+            });
+        }
+        flushedCounter.increment(written.size());
+        broadcast(written);
+    }
+
+    /**
+     * Writes the marks as one batch. If the batch fails, for example because a room was deleted in the
+     * meantime, the marks are written one by one and the ones that still fail are dropped.
+     */
+    private List<ReadMark> write(List<ReadMark> marks) {
+        try {
+            roomReadStateRepository.upsertAll(marks);
+            return marks;
+        } catch (DataAccessException e) {
+            log.warn("Batched write of {} read positions failed, retrying one by one", marks.size(), e);
+        }
+        List<ReadMark> written = new ArrayList<>(marks.size());
+        for (ReadMark mark : marks) {
+            try {
+                roomReadStateRepository.upsertAll(List.of(mark));
+                written.add(mark);
+            } catch (DataAccessException e) {
+                log.debug("Dropping read position {}", mark, e);
+            }
+        }
+        return written;
+    }
+
+    private void broadcast(List<ReadMark> marks) {
+        Map<Long, Map<Long, Long>> rooms = new HashMap<>();
+        for (ReadMark mark : marks)
+            rooms.computeIfAbsent(mark.roomId(), id -> new HashMap<>()).put(mark.userId(), mark.seq());
+        rooms.forEach((roomId, reads) -> {
+            RoomReadsDto frame = RoomReadsDto.builder().roomId(roomId).reads(reads).build();
+            roomFanout.publish(ChatDestinations.roomReadsTopic(roomId), frame, null);
+            sseFanout.publishReads(frame);
+        });
+    }
+}
@@ -0,0 +1,114 @@
+package org.mafisher.togetherbackend.chat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.mafisher.togetherbackend.dto.RoomActivityDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Debounces typing indicators per room and user. Updates only record the latest state of each user;
+ * once per {@code window} every room whose set of typing users changed gets one frame with the whole
+ * set on {@code /topic/rooms/{roomId}/activity}. Because each frame carries the full set, a newer frame
+ * may replace an older one still queued for a slow client. Users who stop refreshing their indicator
+ * drop out after {@code typingTimeout}. Nothing here is persisted.
+ */
+@Component
+public class RoomActivityCoalescer {
+
+    private static final String ACTIVITY_COALESCE_KEY = "activity";
+
+    private final RoomFanout roomFanout;
+    private final SseFanout sseFanout;
+    private final long typingTimeoutNanos;
+    private final Map<Long, RoomActivity> rooms = new ConcurrentHashMap<>();
+    private final Counter receivedCounter;
+    private final Counter publishedCounter;
+
+    public RoomActivityCoalescer(
+            RoomFanout roomFanout,
+            SseFanout sseFanout,
+            MeterRegistry meterRegistry,
+            @Value("${application.chat.activity.typing-timeout:5s}") Duration typingTimeout) {
+        this.roomFanout = roomFanout;
+        this.sseFanout = sseFanout;
+        this.typingTimeoutNanos = typingTimeout.toNanos();
+        this.receivedCounter = Counter.builder("chat.activity.events").tag("stage", "received").register(meterRegistry);
+        this.publishedCounter = Counter.builder("chat.activity.events").tag("stage", "published").register(meterRegistry);
+    }
+
+    public void typing(Long roomId, Long userId, boolean typing) {
+        long now = System.nanoTime();
+        rooms.compute(roomId, (id, activity) -> {
+            RoomActivity current = activity == null ? new RoomActivity() : activity;
+            current.pending.put(userId, typing ? now : null);
+            return current;
+        });
+        receivedCounter.increment();
+    }
+
+    @Scheduled(fixedRateString = "${application.chat.activity.window:250ms}")
+    public void flush() {
+        long now = System.nanoTime();
+        for (Long roomId : rooms.keySet()) {
+            List<Long> typing = new ArrayList<>();
+            boolean[] changed = new boolean[1];
+            rooms.computeIfPresent(roomId, (id, activity) -> {
+                changed[0] = activity.apply(now, typingTimeoutNanos);
+                if (changed[0])
+                    typing.addAll(activity.typers.keySet());
+                return activity.typers.isEmpty() ? null : activity;
+            });
+            if (changed[0]) {
+                RoomActivityDto frame = RoomActivityDto.builder().roomId(roomId).typing(typing).build();
+                roomFanout.publish(ChatDestinations.roomActivityTopic(roomId), frame, ACTIVITY_COALESCE_KEY);
+                sseFanout.publishActivity(frame);
+                publishedCounter.increment();
+            }
+        }
+    }
+
+    /**
+     * Guarded by the {@code rooms} map entry it belongs to.
+     */
+    private static final class RoomActivity {
+
+        /**
+         * Latest update per user since the last flush: when they typed, or {@code null} if they stopped.
+         */
+        private final Map<Long, Long> pending = new HashMap<>();
+        private final Map<Long, Long> typers = new LinkedHashMap<>();
+
+        /**
+         * Folds pending updates and timeouts into {@link #typers}; returns whether the set changed.
+         */
+        private boolean apply(long now, long timeoutNanos) {
+            boolean changed = false;
+            for (Map.Entry<Long, Long> update : pending.entrySet()) {
+                if (update.getValue() == null)
+                    changed |= typers.remove(update.getKey()) != null;
+                else
+                    changed |= typers.put(update.getKey(), update.getValue()) == null;
+            }
+            pending.clear();
+            Iterator<Long> lastTyped = typers.values().iterator();
+            while (lastTyped.hasNext()) {
+                if (now - lastTyped.next() > timeoutNanos) {
+                    lastTyped.remove();
+                    changed = true;
+                }
+            }
+            return changed;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package org.mafisher.togetherbackend.chat;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.mafisher.togetherbackend.enums.SlowConsumerPolicy;
+import org.mafisher.togetherbackend.service.PrincipalService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Delivers broadcasts on room topics ({@code /topic/rooms/{roomId}/...}) to subscribed WebSocket sessions
+ * without going through the simple broker.
+ * A payload is serialized and encoded to bytes once per broadcast; each recipient gets a binary frame
+ * copied from those bytes with only its {@code subscription} header spliced in. Each session has its own
+ * bounded {@link SessionOutbox} drained on the fan-out executor, so the publishing thread never writes to
+ * a socket and a slow client only loses its own frames. Publishing runs on a thread of its own, so
+ * sessions draining on the fan-out threads cannot hold it up.
+ * Room subscriptions are tracked from STOMP subscribe events, which are only published once
+ * {@link RoomSubscriptionInterceptor} has let the frame through, and dropped again when the subscriber
+ * leaves the room.
+ */
+@Slf4j
+@Component
+public class RoomFanout {
+
+    private final ObjectMapper objectMapper;
+    private final PrincipalService principalService;
+    private final ExecutorService executor;
+    private final ExecutorService publishExecutor;
+    private final int queueCapacity;
+    private final SlowConsumerPolicy policy;
+    private final int sendTimeLimitMillis;
+    private final int sendBufferSizeLimit;
+
+    private final Map<String, SessionOutbox> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Set<Subscriber>> destinations = new ConcurrentHashMap<>();
+    private final AtomicLong messageIds = new AtomicLong();
+    private final Counter overflowCounter;
+    private final Counter coalescedCounter;
+    private final Counter disconnectedCounter;
+
+    public RoomFanout(
+            ObjectMapper objectMapper,
+            PrincipalService principalService,
+            MeterRegistry meterRegistry,
+            @Value("${application.chat.fanout.threads:4}") int threads,
+            @Value("${application.chat.fanout.queue-capacity:256}") int queueCapacity,
+            @Value("${application.chat.fanout.slow-consumer-policy:DISCONNECT}") SlowConsumerPolicy policy,
+            @Value("${application.chat.fanout.send-time-limit:10s}") Duration sendTimeLimit,
+            @Value("${application.chat.fanout.send-buffer-size-limit:512KB}") DataSize sendBufferSizeLimit) {
+        this.objectMapper = objectMapper;
+        this.principalService = principalService;
+        this.queueCapacity = queueCapacity;
+        this.policy = policy;
+        this.sendTimeLimitMillis = (int) sendTimeLimit.toMillis();
+        this.sendBufferSizeLimit = (int) sendBufferSizeLimit.toBytes();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "chat-fanout-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.publishExecutor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "chat-publish");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("chat.fanout.sessions", sessions, Map::size).register(meterRegistry);
+        Gauge.builder("chat.fanout.queue", this, RoomFanout::queuedFrames)
+                .description("Frames waiting in per-session outbound queues")
+                .register(meterRegistry);
+        this.overflowCounter = Counter.builder("chat.fanout.dropped").tag("reason", "overflow").register(meterRegistry);
+        this.coalescedCounter = Counter.builder("chat.fanout.dropped").tag("reason", "coalesced").register(meterRegistry);
+        this.disconnectedCounter = Counter.builder("chat.fanout.disconnected").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        publishExecutor.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Wraps the STOMP handler so every WebSocket session gets an outbox for as long as it is open.
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                super.afterConnectionEstablished(register(session));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                unregister(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    /**
+     * Registers a session and returns the thread-safe view of it that every writer must use, so frames
+     * sent by Spring (receipts, errors, heartbeats) and by the outbox never interleave on the socket.
+     */
+    public WebSocketSession register(WebSocketSession session) {
+        WebSocketSession concurrent = new ConcurrentWebSocketSessionDecorator(
+                session, sendTimeLimitMillis, sendBufferSizeLimit);
+        sessions.put(session.getId(), new SessionOutbox(concurrent, queueCapacity, policy, executor));
+        return concurrent;
+    }
+
+    public void unregister(String sessionId) {
+        SessionOutbox outbox = sessions.remove(sessionId);
+        if (outbox == null)
+            return;
+        outbox.discard();
+        outbox.subscriptions().forEach((subscriptionId, destination) -> removeSubscriber(destination, outbox, subscriptionId));
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        SessionOutbox outbox = sessions.get(accessor.getSessionId());
+        String subscriptionId = accessor.getSubscriptionId();
+        if (ChatDestinations.roomIdOf(destination) == null || outbox == null || subscriptionId == null)
+            return;
+
+        Principal user = event.getUser();
+        Long userId = user == null ? null : principalService.userIdOf(user);
+        outbox.subscriptions().put(subscriptionId, destination);
+        Subscriber subscriber = new Subscriber(
+                outbox, subscriptionId, escape(subscriptionId).getBytes(StandardCharsets.UTF_8), userId);
+        destinations.compute(destination, (key, subscribers) -> {
+            Set<Subscriber> updated = subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+            updated.add(subscriber);
+            return updated;
+        });
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        SessionOutbox outbox = sessions.get(accessor.getSessionId());
+        String subscriptionId = accessor.getSubscriptionId();
+        if (outbox == null || subscriptionId == null)
+            return;
+        String destination = outbox.subscriptions().remove(subscriptionId);
+        if (destination != null)
+            removeSubscriber(destination, outbox, subscriptionId);
+    }
+
+    /**
+     * Whether the session holds a subscription to any of the room's topics, which
+     * {@link RoomSubscriptionInterceptor} only grants to members.
+     */
+    public boolean isSubscribed(String sessionId, Long roomId) {
+        SessionOutbox outbox = sessionId == null ? null : sessions.get(sessionId);
+        if (outbox == null)
+            return false;
+        for (String destination : outbox.subscriptions().values()) {
+            if (roomId.equals(ChatDestinations.roomIdOf(destination)))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Runs publishing work on a single thread of its own, so broadcasts handed over in commit order are
+     * also queued to sessions in that order.
+     */
+    public Executor publishExecutor() {
+        return publishExecutor;
+    }
+
+    /**
+     * Drops the users' subscriptions to the room's topics, so they stop receiving its broadcasts and
+     * {@link #isSubscribed} stops vouching for them.
+     */
+    public void unsubscribe(Long roomId, Collection<Long> userIds) {
+        dropSubscribers(roomId, subscriber -> userIds.contains(subscriber.userId()));
+    }
+
+    /**
+     * Drops every subscription to the room's topics.
+     */
+    public void unsubscribeAll(Long roomId) {
+        dropSubscribers(roomId, subscriber -> true);
+    }
+
+    public void publish(Long roomId, Object payload) {
+        publish(ChatDestinations.roomTopic(roomId), payload, null);
+    }
+
+    /**
+     * Queues {@code payload} for every session subscribed to {@code destination}. Frames published with
+     * the same non-null {@code coalesceKey} replace each other while they are still queued.
+     */
+    public void publish(String destination, Object payload, String coalesceKey) {
+        Set<Subscriber> subscribers = destinations.get(destination);
+        if (subscribers == null || subscribers.isEmpty())
+            return;
+
+        EncodedFrame frame;
+        try {
+            frame = encode(destination, payload);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize broadcast for {}", destination, e);
+            return;
+        }
+
+        for (Subscriber subscriber : subscribers) {
+            switch (subscriber.outbox().offer(coalesceKey, frame.forSubscription(subscriber.escapedId()))) {
+                case COALESCED -> coalescedCounter.increment();
+                case DROPPED -> overflowCounter.increment();
+                case DISCONNECTED -> disconnectedCounter.increment();
+                case QUEUED -> {
+                }
+            }
+        }
+    }
+
+    int subscriberCount(String destination) {
+        Set<Subscriber> subscribers = destinations.get(destination);
+        return subscribers == null ? 0 : subscribers.size();
+    }
+
+    private long queuedFrames() {
+        long queued = 0;
+        for (SessionOutbox outbox : sessions.values())
+            queued += outbox.size();
+        return queued;
+    }
+
+    private void removeSubscriber(String destination, SessionOutbox outbox, String subscriptionId) {
+        destinations.computeIfPresent(destination, (key, subscribers) -> {
+            subscribers.removeIf(s -> s.outbox() == outbox && s.subscriptionId().equals(subscriptionId));
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private void dropSubscribers(Long roomId, Predicate<Subscriber> dropped) {
+        for (String destination : destinations.keySet()) {
+            if (!roomId.equals(ChatDestinations.roomIdOf(destination)))
+                continue;
+            destinations.computeIfPresent(destination, (key, subscribers) -> {
+                subscribers.removeIf(subscriber -> {
+                    if (!dropped.test(subscriber))
+                        return false;
+                    subscriber.outbox().subscriptions().remove(subscriber.subscriptionId(), destination);
+                    return true;
+                });
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+    }
+
+    private EncodedFrame encode(String destination, Object payload) throws JsonProcessingException {
+        byte[] body = objectMapper.writeValueAsBytes(payload);
+        byte[] head = ("MESSAGE\n"
+                + "destination:" + escape(destination) + "\n"
+                + "content-type:application/json\n"
+                + "message-id:" + messageIds.incrementAndGet() + "\n"
+                + "content-length:" + body.length + "\n"
+                + "subscription:").getBytes(StandardCharsets.UTF_8);
+        byte[] tail = new byte[body.length + 3];
+        tail[0] = '\n';
+        tail[1] = '\n';
+        System.arraycopy(body, 0, tail, 2, body.length);
+        return new EncodedFrame(head, tail);
+    }
+
+    /**
+     * Escapes a STOMP header value.
+     */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("\r", "\\r")
+                .replace("\n", "\\n")
+                .replace(":", "\\c");
+    }
+
+    private record Subscriber(SessionOutbox outbox, String subscriptionId, byte[] escapedId, Long userId) {
+    }
+
+    /**
+     * A frame up to and after its {@code subscription} header value, with the NUL terminator at the end
+     * of {@code tail}.
+     */
+    private record EncodedFrame(byte[] head, byte[] tail) {
+
+        BinaryMessage forSubscription(byte[] escapedSubscriptionId) {
+            byte[] frame = new byte[head.length + escapedSubscriptionId.length + tail.length];
+            System.arraycopy(head, 0, frame, 0, head.length);
+            System.arraycopy(escapedSubscriptionId, 0, frame, head.length, escapedSubscriptionId.length);
+            System.arraycopy(tail, 0, frame, head.length + escapedSubscriptionId.length, tail.length);
+            return new BinaryMessage(frame);
+        }
+    }
+}
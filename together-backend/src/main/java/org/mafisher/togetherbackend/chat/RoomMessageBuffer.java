@@ -0,0 +1,154 @@
+package org.mafisher.togetherbackend.chat;
+
+import org.mafisher.togetherbackend.dto.ChatMessageDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded ring of the most recent committed messages of one room, ordered by sequence. Once the ring
+ * has dropped a message, or was seeded from a full page, {@link #hasOlder()} tells callers that
+ * anything older than {@link #oldestSeq()} has to come from the database.
+ */
+final class RoomMessageBuffer {
+
+    private static final int MESSAGE_OVERHEAD_BYTES = 160;
+
+    private final ChatMessageDto[] ring;
+    private int head;
+    private int size;
+    private boolean older;
+    private long bytes;
+    private volatile long lastAccessNanos = System.nanoTime();
+
+    RoomMessageBuffer(int capacity) {
+        this.ring = new ChatMessageDto[capacity];
+    }
+
+    /**
+     * Seeds the buffer with messages in ascending sequence order; {@code hasOlder} marks that the database holds more.
+     */
+    synchronized void seed(List<ChatMessageDto> messages, boolean hasOlder) {
+        messages.forEach(this::add);
+        older |= hasOlder;
+    }
+
+    /**
+     * @return the change in estimated bytes
+     */
+    synchronized long add(ChatMessageDto message) {
+        long before = bytes;
+        int position = search(message.getSeq());
+        if (position >= 0)
+            return 0;
+        position = -position - 1;
+
+        if (size == ring.length) {
+            if (position == 0) {
+                older = true;
+                return 0;
+            }
+            bytes -= sizeOf(get(0));
+            ring[head] = null;
+            head = (head + 1) % ring.length;
+            size--;
+            position--;
+            older = true;
+        }
+
+        for (int i = size; i > position; i--)
+            ring[index(i)] = ring[index(i - 1)];
+        ring[index(position)] = message;
+        size++;
+        bytes += sizeOf(message);
+        return bytes - before;
+    }
+
+    /**
+     * Returns up to {@code limit} messages with a sequence below {@code beforeSeq} ({@code null} for the newest), oldest first.
+     */
+    synchronized List<ChatMessageDto> before(Long beforeSeq, int limit) {
+        touch();
+        int end = beforeSeq == null ? size : insertionPoint(beforeSeq);
+        int start = Math.max(0, end - limit);
+        List<ChatMessageDto> messages = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++)
+            messages.add(get(i));
+        return messages;
+    }
+
+    /**
+     * Returns up to {@code limit} messages with a sequence above {@code afterSeq}, oldest first, or {@code null}
+     * when the buffer cannot prove it holds every such message.
+     */
+    synchronized List<ChatMessageDto> after(long afterSeq, int limit) {
+        touch();
+        if (older && (size == 0 || afterSeq < get(0).getSeq() - 1))
+            return null;
+        int start = insertionPoint(afterSeq + 1);
+        int end = Math.min(size, start + limit);
+        List<ChatMessageDto> messages = new ArrayList<>(Math.max(0, end - start));
+        for (int i = start; i < end; i++)
+            messages.add(get(i));
+        return messages;
+    }
+
+    synchronized boolean hasOlder() {
+        return older;
+    }
+
+    synchronized Long oldestSeq() {
+        return size == 0 ? null : get(0).getSeq();
+    }
+
+    synchronized Long newestSeq() {
+        return size == 0 ? null : get(size - 1).getSeq();
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    long lastAccessNanos() {
+        return lastAccessNanos;
+    }
+
+    private void touch() {
+        lastAccessNanos = System.nanoTime();
+    }
+
+    private int insertionPoint(long seq) {
+        int position = search(seq);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    private int search(long seq) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midSeq = get(mid).getSeq();
+            if (midSeq < seq)
+                low = mid + 1;
+            else if (midSeq > seq)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -(low + 1);
+    }
+
+    private ChatMessageDto get(int position) {
+        return ring[index(position)];
+    }
+
+    private int index(int position) {
+        return (head + position) % ring.length;
+    }
+
+    private static long sizeOf(ChatMessageDto message) {
+        long text = message.getContent() == null ? 0 : message.getContent().length();
+        long nick = message.getSenderNickName() == null ? 0 : message.getSenderNickName().length();
+        return MESSAGE_OVERHEAD_BYTES + 2 * (text + nick);
+    }
+}
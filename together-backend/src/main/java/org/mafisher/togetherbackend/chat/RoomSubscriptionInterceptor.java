@@ -0,0 +1,62 @@
+package org.mafisher.togetherbackend.chat;
+
+import lombok.RequiredArgsConstructor;
+import org.mafisher.togetherbackend.entity.User;
+import org.mafisher.togetherbackend.handler.BusinessErrorCodes;
+import org.mafisher.togetherbackend.handler.CustomException;
+import org.mafisher.togetherbackend.service.PrincipalService;
+import org.mafisher.togetherbackend.service.RoomMembershipService;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Guards inbound STOMP frames. Every frame needs the user authenticated at handshake time,
+ * room topics can only be subscribed to by members of the room, and clients may only send to
+ * application destinations so they cannot publish straight into a broker topic.
+ */
+@Component
+@RequiredArgsConstructor
+public class RoomSubscriptionInterceptor implements ChannelInterceptor {
+
+    private final PrincipalService principalService;
+    private final RoomMembershipService roomMembershipService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null)
+            return message;
+
+        StompCommand command = accessor.getCommand();
+        if (command != StompCommand.SUBSCRIBE && command != StompCommand.SEND)
+            return message;
+
+        Principal principal = accessor.getUser();
+        if (principal == null)
+            throw new CustomException(BusinessErrorCodes.BAD_CREDENTIALS);
+
+        String destination = accessor.getDestination();
+        if (command == StompCommand.SEND) {
+            if (destination == null || !destination.startsWith(ChatDestinations.APPLICATION_PREFIX + "/"))
+                throw new CustomException(BusinessErrorCodes.NOT_PERMISSION);
+            return message;
+        }
+
+        if (destination != null && destination.startsWith(ChatDestinations.TOPIC_PREFIX + "/")) {
+            Long roomId = ChatDestinations.roomIdOf(destination);
+            if (roomId == null)
+                throw new CustomException(BusinessErrorCodes.NOT_PERMISSION);
+            User user = principalService.checkUserPrincipal(principal);
+            if (!roomMembershipService.isMember(roomId, user.getId()))
+                throw new CustomException(BusinessErrorCodes.USER_NOT_IN_ROOM);
+        }
+        return message;
+    }
+}
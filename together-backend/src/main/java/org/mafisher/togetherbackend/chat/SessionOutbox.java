@@ -0,0 +1,166 @@
+package org.mafisher.togetherbackend.chat;
+
+import lombok.extern.slf4j.Slf4j;
+import org.mafisher.togetherbackend.enums.SlowConsumerPolicy;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Bounded outbound queue of one WebSocket session. Frames are written by a drain task on the fan-out
+ * executor, so a slow socket only ever holds up its own queue. A frame offered with a coalesce key
+ * replaces a queued frame with the same key. What happens when the queue is full depends on the
+ * {@link SlowConsumerPolicy}: {@code DROP} discards the new frame, {@code COALESCE} discards the oldest
+ * queued frame so the client ends up with the latest state, and {@code DISCONNECT} closes the session
+ * so the client reconnects and catches up from history.
+ */
+@Slf4j
+final class SessionOutbox {
+
+    enum Outcome {
+        QUEUED,
+        COALESCED,
+        DROPPED,
+        DISCONNECTED
+    }
+
+    private static final int DRAIN_BATCH = 32;
+
+    private final WebSocketSession session;
+    private final int capacity;
+    private final SlowConsumerPolicy policy;
+    private final Executor executor;
+    private final Deque<Pending> pending = new ArrayDeque<>();
+    private final Map<String, String> subscriptions = new ConcurrentHashMap<>();
+
+    private boolean scheduled;
+    private boolean closed;
+
+    SessionOutbox(WebSocketSession session, int capacity, SlowConsumerPolicy policy, Executor executor) {
+        this.session = session;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.executor = executor;
+    }
+
+    String getId() {
+        return session.getId();
+    }
+
+    /**
+     * Room topic destinations by STOMP subscription id.
+     */
+    Map<String, String> subscriptions() {
+        return subscriptions;
+    }
+
+    Outcome offer(String coalesceKey, WebSocketMessage<?> frame) {
+        Outcome outcome = Outcome.QUEUED;
+        synchronized (this) {
+            if (closed)
+                return Outcome.DROPPED;
+
+            if (coalesceKey != null) {
+                for (Pending queued : pending) {
+                    if (coalesceKey.equals(queued.key)) {
+                        queued.frame = frame;
+                        return Outcome.COALESCED;
+                    }
+                }
+            }
+
+            if (pending.size() >= capacity) {
+                switch (policy) {
+                    case DROP -> {
+                        return Outcome.DROPPED;
+                    }
+                    case COALESCE -> {
+                        pending.pollFirst();
+                        outcome = Outcome.DROPPED;
+                    }
+                    case DISCONNECT -> {
+                        closed = true;
+                        pending.clear();
+                        schedule(() -> close(CloseStatus.SESSION_NOT_RELIABLE));
+                        return Outcome.DISCONNECTED;
+                    }
+                }
+            }
+
+            pending.addLast(new Pending(coalesceKey, frame));
+            if (!scheduled) {
+                scheduled = true;
+                schedule(this::drain);
+            }
+        }
+        return outcome;
+    }
+
+    synchronized int size() {
+        return pending.size();
+    }
+
+    synchronized void discard() {
+        closed = true;
+        pending.clear();
+    }
+
+    private void drain() {
+        for (int sent = 0; sent < DRAIN_BATCH; sent++) {
+            WebSocketMessage<?> frame;
+            synchronized (this) {
+                Pending next = pending.pollFirst();
+                if (next == null || closed) {
+                    scheduled = false;
+                    return;
+                }
+                frame = next.frame;
+            }
+            try {
+                session.sendMessage(frame);
+            } catch (IOException | RuntimeException e) {
+                log.debug("Closing WebSocket session {} after failed send", session.getId(), e);
+                discard();
+                close(CloseStatus.SESSION_NOT_RELIABLE);
+                return;
+            }
+        }
+        // Give other sessions a turn before sending the rest.
+        schedule(this::drain);
+    }
+
+    private void schedule(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            discard();
+        }
+    }
+
+    private void close(CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            log.debug("Failed to close WebSocket session {}", session.getId(), e);
+        }
+    }
+
+    private static final class Pending {
+
+        private final String key;
+        private WebSocketMessage<?> frame;
+
+        private Pending(String key, WebSocketMessage<?> frame) {
+            this.key = key;
+            this.frame = frame;
+        }
+    }
+}
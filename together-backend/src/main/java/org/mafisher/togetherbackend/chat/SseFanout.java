@@ -0,0 +1,259 @@
+package org.mafisher.togetherbackend.chat;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.mafisher.togetherbackend.dto.ChatMessageDto;
+import org.mafisher.togetherbackend.dto.RoomActivityDto;
+import org.mafisher.togetherbackend.dto.RoomReadsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Server-Sent Events fallback for clients that cannot keep a WebSocket open. Room streams carry the same
+ * messages, activity and read frames as {@code /topic/rooms/{roomId}}, with each message's {@code seq} as the
+ * event id, so a reconnecting browser resumes from {@code Last-Event-ID}. Notification streams carry the
+ * per-user events otherwise sent to {@code /user/queue/...}.
+ * Emitters run on async servlet requests and hold no thread while idle; events are encoded once per
+ * publish and written from a small executor through each stream's bounded {@link SseStream} queue.
+ * A comment line goes out every {@code keepalive} so proxies keep idle streams open and dead ones are noticed.
+ */
+@Component
+public class SseFanout {
+
+    public static final String MESSAGE_EVENT = "message";
+    public static final String ACTIVITY_EVENT = "activity";
+    public static final String READS_EVENT = "reads";
+    public static final String RESYNC_EVENT = "resync";
+    public static final String FRIEND_REQUEST_EVENT = "friend-request";
+
+    private static final String ACTIVITY_COALESCE_KEY = "activity";
+    private static final String KEEPALIVE_COALESCE_KEY = "keepalive";
+    private static final int REPLAY_PAGE_SIZE = 100;
+
+    private final ChatHistoryCache chatHistoryCache;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+    private final int replayLimit;
+
+    private final Map<Long, Set<SseStream>> rooms = new ConcurrentHashMap<>();
+    private final Map<Long, Set<SseStream>> users = new ConcurrentHashMap<>();
+    private final AtomicInteger streamCount = new AtomicInteger();
+    private final Counter disconnectedCounter;
+    private final Counter resyncCounter;
+
+    public SseFanout(
+            ChatHistoryCache chatHistoryCache,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${application.stream.threads:2}") int threads,
+            @Value("${application.stream.queue-capacity:256}") int queueCapacity,
+            @Value("${application.stream.timeout:30m}") Duration timeout,
+            @Value("${application.stream.replay-limit:1000}") int replayLimit) {
+        this.chatHistoryCache = chatHistoryCache;
+        this.objectMapper = objectMapper;
+        this.queueCapacity = queueCapacity;
+        this.timeoutMillis = timeout.toMillis();
+        this.replayLimit = replayLimit;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "sse-fanout-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("stream.subscribers", streamCount, AtomicInteger::get).register(meterRegistry);
+        this.disconnectedCounter = Counter.builder("stream.disconnected").register(meterRegistry);
+        this.resyncCounter = Counter.builder("stream.resync").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Opens a room stream. With {@code afterSeq} set, the messages the client missed are sent first, oldest
+     * first; if more than {@code replayLimit} are missing a {@code resync} event tells the client to reload
+     * history over REST instead.
+     */
+    public SseEmitter openRoom(Long roomId, Long userId, Long afterSeq) {
+        SseStream stream = open(rooms, roomId, userId, afterSeq != null);
+        if (afterSeq == null)
+            return stream.emitter();
+
+        List<SseStream.Event> replay = new ArrayList<>();
+        long replayedSeq = afterSeq;
+        try {
+            while (true) {
+                List<ChatMessageDto> page = chatHistoryCache.after(roomId, replayedSeq, REPLAY_PAGE_SIZE);
+                if (replay.size() + page.size() > replayLimit) {
+                    resyncCounter.increment();
+                    replay.clear();
+                    replay.add(new SseStream.Event(null, null,
+                            SseEmitter.event().name(RESYNC_EVENT).data(encode(Map.of("roomId", roomId))).build()));
+                    replayedSeq = Long.MAX_VALUE;
+                    break;
+                }
+                for (ChatMessageDto message : page)
+                    replay.add(messageEvent(message));
+                if (!page.isEmpty())
+                    replayedSeq = page.get(page.size() - 1).getSeq();
+                if (page.size() < REPLAY_PAGE_SIZE)
+                    break;
+            }
+        } catch (RuntimeException e) {
+            stream.emitter().completeWithError(e);
+            throw e;
+        }
+        // a resync drops every queued message; the client fetches them together with the gap
+        stream.resume(replay, replayedSeq);
+        return stream.emitter();
+    }
+
+    /**
+     * Closes the users' streams of the room, for example after they were removed from it; a reconnect is
+     * checked for membership again.
+     */
+    public void closeRoom(Long roomId, Collection<Long> userIds) {
+        closeRoomStreams(roomId, stream -> userIds.contains(stream.userId()));
+    }
+
+    public void closeRoom(Long roomId) {
+        closeRoomStreams(roomId, stream -> true);
+    }
+
+    public SseEmitter openNotifications(Long userId) {
+        return open(users, userId, userId, false).emitter();
+    }
+
+    public boolean hasNotificationStream(Long userId) {
+        Set<SseStream> streams = users.get(userId);
+        return streams != null && !streams.isEmpty();
+    }
+
+    public void publishMessage(ChatMessageDto message) {
+        Set<SseStream> streams = rooms.get(message.getRoomId());
+        if (streams == null || streams.isEmpty())
+            return;
+        offer(streams, messageEvent(message));
+    }
+
+    public void publishActivity(RoomActivityDto activity) {
+        Set<SseStream> streams = rooms.get(activity.getRoomId());
+        if (streams == null || streams.isEmpty())
+            return;
+        offer(streams, new SseStream.Event(null, ACTIVITY_COALESCE_KEY,
+                SseEmitter.event().name(ACTIVITY_EVENT).data(encode(activity)).build()));
+    }
+
+    public void publishReads(RoomReadsDto reads) {
+        Set<SseStream> streams = rooms.get(reads.getRoomId());
+        if (streams == null || streams.isEmpty())
+            return;
+        offer(streams, new SseStream.Event(null, null, SseEmitter.event().name(READS_EVENT).data(encode(reads)).build()));
+    }
+
+    public void publishToUser(Long userId, String eventName, Object payload) {
+        Set<SseStream> streams = users.get(userId);
+        if (streams == null || streams.isEmpty())
+            return;
+        offer(streams, new SseStream.Event(null, null, SseEmitter.event().name(eventName).data(encode(payload)).build()));
+    }
+
+    @Scheduled(fixedRateString = "${application.stream.keepalive:15s}")
+    public void keepAlive() {
+        SseStream.Event keepalive = new SseStream.Event(null, KEEPALIVE_COALESCE_KEY,
+                SseEmitter.event().comment("").build());
+        rooms.values().forEach(streams -> offer(streams, keepalive));
+        users.values().forEach(streams -> offer(streams, keepalive));
+    }
+
+    int streamCount() {
+        return streamCount.get();
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private SseStream open(Map<Long, Set<SseStream>> index, Long key, Long userId, boolean paused) {
+        SseEmitter emitter = newEmitter();
+        SseStream stream = new SseStream(emitter, userId, queueCapacity, executor, paused);
+        Runnable remove = () -> {
+            stream.discard();
+            index.computeIfPresent(key, (id, streams) -> {
+                if (streams.remove(stream))
+                    streamCount.decrementAndGet();
+                return streams.isEmpty() ? null : streams;
+            });
+        };
+        emitter.onCompletion(remove);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> remove.run());
+
+        index.compute(key, (id, streams) -> {
+            Set<SseStream> updated = streams == null ? ConcurrentHashMap.newKeySet() : streams;
+            updated.add(stream);
+            return updated;
+        });
+        streamCount.incrementAndGet();
+        return stream;
+    }
+
+    private void closeRoomStreams(Long roomId, Predicate<SseStream> closed) {
+        rooms.computeIfPresent(roomId, (id, streams) -> {
+            streams.removeIf(stream -> {
+                if (!closed.test(stream))
+                    return false;
+                stream.close();
+                streamCount.decrementAndGet();
+                return true;
+            });
+            return streams.isEmpty() ? null : streams;
+        });
+    }
+
+    private void offer(Set<SseStream> streams, SseStream.Event event) {
+        for (SseStream stream : streams) {
+            if (!stream.offer(event))
+                disconnectedCounter.increment();
+        }
+    }
+
+    private SseStream.Event messageEvent(ChatMessageDto message) {
+        return new SseStream.Event(message.getSeq(), null, SseEmitter.event()
+                .id(String.valueOf(message.getSeq()))
+                .name(MESSAGE_EVENT)
+                .data(encode(message))
+                .build());
+    }
+
+    private String encode(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize event " + payload.getClass().getSimpleName(), e);
+        }
+    }
+}
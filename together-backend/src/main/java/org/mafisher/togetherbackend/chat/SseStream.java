@@ -0,0 +1,164 @@
+package org.mafisher.togetherbackend.chat;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Bounded outbound queue of one Server-Sent Events subscriber, the SSE counterpart of {@link SessionOutbox}.
+ * The emitter holds no thread while idle; queued events are written by a drain task on the SSE executor.
+ * An event offered with a coalesce key replaces a queued event with the same key. A full queue always
+ * ends the stream: the browser reconnects on its own with {@code Last-Event-ID} and catches up from history.
+ * A stream opened for resume starts paused, so live events queue up behind the replayed ones. Replayed
+ * events do not count against the capacity, which bounds only what arrives live.
+ */
+@Slf4j
+final class SseStream {
+
+    private static final int DRAIN_BATCH = 32;
+
+    private final SseEmitter emitter;
+    private final Long userId;
+    private final int capacity;
+    private final Executor executor;
+    private final Deque<Event> pending = new ArrayDeque<>();
+
+    private int replayed;
+    private boolean paused;
+    private boolean scheduled;
+    private boolean closed;
+
+    SseStream(SseEmitter emitter, Long userId, int capacity, Executor executor, boolean paused) {
+        this.emitter = emitter;
+        this.userId = userId;
+        this.capacity = capacity;
+        this.executor = executor;
+        this.paused = paused;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    Long userId() {
+        return userId;
+    }
+
+    /**
+     * Returns {@code false} if the event overflowed the queue and the stream is being closed.
+     */
+    boolean offer(Event event) {
+        synchronized (this) {
+            if (closed)
+                return true;
+
+            if (event.coalesceKey() != null) {
+                for (Event queued : pending) {
+                    if (event.coalesceKey().equals(queued.coalesceKey())) {
+                        pending.remove(queued);
+                        pending.addLast(event);
+                        return true;
+                    }
+                }
+            }
+
+            if (pending.size() - replayed >= capacity) {
+                closed = true;
+                pending.clear();
+                schedule(emitter::complete);
+                return false;
+            }
+
+            pending.addLast(event);
+            scheduleDrain();
+        }
+        return true;
+    }
+
+    /**
+     * Puts the replayed events in front of what arrived live in the meantime, dropping live messages
+     * the replay already covered, and starts sending.
+     */
+    synchronized void resume(List<Event> replay, long replayedSeq) {
+        pending.removeIf(event -> event.seq() != null && event.seq() <= replayedSeq);
+        for (int i = replay.size() - 1; i >= 0; i--)
+            pending.addFirst(replay.get(i));
+        replayed = replay.size();
+        paused = false;
+        scheduleDrain();
+    }
+
+    synchronized int size() {
+        return pending.size();
+    }
+
+    synchronized void discard() {
+        closed = true;
+        pending.clear();
+        replayed = 0;
+    }
+
+    /**
+     * Drops what is queued and completes the emitter from the executor.
+     */
+    synchronized void close() {
+        if (closed)
+            return;
+        discard();
+        schedule(emitter::complete);
+    }
+
+    private void scheduleDrain() {
+        if (!paused && !scheduled && !closed && !pending.isEmpty()) {
+            scheduled = true;
+            schedule(this::drain);
+        }
+    }
+
+    private void drain() {
+        for (int sent = 0; sent < DRAIN_BATCH; sent++) {
+            Event next;
+            synchronized (this) {
+                next = pending.pollFirst();
+                if (next == null || closed) {
+                    scheduled = false;
+                    return;
+                }
+                if (replayed > 0)
+                    replayed--;
+            }
+            try {
+                emitter.send(next.data());
+            } catch (IOException | RuntimeException e) {
+                log.debug("Closing event stream of user {} after failed send", userId, e);
+                discard();
+                emitter.completeWithError(e);
+                return;
+            }
+        }
+        // Give other streams a turn before sending the rest.
+        schedule(this::drain);
+    }
+
+    private void schedule(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            discard();
+        }
+    }
+
+    /**
+     * An encoded event, shared by every stream it is sent to. {@code seq} is set for chat messages only.
+     */
+    record Event(Long seq, String coalesceKey, Set<ResponseBodyEmitter.DataWithMediaType> data) {
+    }
+}
@@ -8,25 +8,27 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
-import org.mafisher.togetherbackend.service.impl.UserDetailsService;
+import org.mafisher.togetherbackend.security.JwtClaims;
+import org.mafisher.togetherbackend.security.JwtPrincipal;
 import org.mafisher.togetherbackend.service.JwtService;
+import org.mafisher.togetherbackend.service.TokenVersionService;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @AllArgsConstructor
 public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final TokenVersionService tokenVersionService;
 
     @Override
     protected void doFilterInternal(
@@ -37,7 +39,6 @@ public class JwtFilter extends OncePerRequestFilter {
 
         String path = request.getRequestURI();
         String jwt = getJwtFromCookie(request);
-        String username;
 
         if (path.startsWith("/api/auth")) {
             filterChain.doFilter(request, response);
@@ -49,25 +50,26 @@ public class JwtFilter extends OncePerRequestFilter {
             return;
         }
 
-        if(!jwtService.validateJwtToken(jwt)){
+        Optional<JwtClaims> claims = jwtService.verify(jwt);
+        if(claims.isEmpty() || !claims.get().hasIdentity()){
             response.setStatus(HttpStatus.BAD_REQUEST.value());
             response.setContentType("application/json");
             response.getWriter().write("{\"error\":\"Invalid JWT\"}");
             return;
         }
 
-        username = jwtService.extractUserName(jwt);
-
-        if(username == null) {
-            filterChain.doFilter(request, response);
+        if(!tokenVersionService.isCurrent(claims.get().getUserId(), claims.get().getTokenVersion())) {
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            response.setContentType("application/json");
+            response.getWriter().write("{\"error\":\"Token revoked\"}");
             return;
         }
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        JwtPrincipal principal = JwtPrincipal.from(claims.get());
         UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                userDetails,
+                principal,
                 null,
-                userDetails.getAuthorities()
+                principal.getAuthorities()
         );
 
         authToken.setDetails(new WebAuthenticationDetailsSource()
@@ -1,5 +1,6 @@
 package org.mafisher.togetherbackend.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,7 +15,6 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -23,6 +23,12 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SecurityConfig implements WebMvcConfigurer {
 
+    static final List<String> ALLOWED_ORIGINS = List.of(
+            "http://localhost:3000",
+            "http://localhost:5173",
+            "http://localhost:5174"
+    );
+
     private final JwtFilter jwtFilter;
     private final AuthenticationProvider authenticationProvider;
 
@@ -37,12 +43,21 @@ public class SecurityConfig implements WebMvcConfigurer {
                                     "/auth/**"
                             ).permitAll();
 
+                            // event streams end on an async dispatch that no longer carries the JWT authentication
+                            auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll();
+
                             auth.requestMatchers(
                                     "/friends/**",
                                     "/ws/**",
-                                    "/room/**"
+                                    "/room/**",
+                                    "/stream/**"
                             ).hasAuthority("USER");
 
+                            auth.requestMatchers(
+                                    "/actuator/metrics",
+                                    "/actuator/metrics/**"
+                            ).hasAuthority("ADMIN");
+
                             auth.anyRequest().authenticated();
                         }
                 )
@@ -56,11 +71,7 @@ public class SecurityConfig implements WebMvcConfigurer {
     private CorsConfigurationSource corsConfigurationSource() {
         return request -> {
             CorsConfiguration cfg = new CorsConfiguration();
-            cfg.setAllowedOrigins(Arrays.asList(
-                    "http://localhost:3000",
-                    "http://localhost:5173",
-                    "http://localhost:5174"
-            ));
+            cfg.setAllowedOrigins(ALLOWED_ORIGINS);
             cfg.setAllowedMethods(Collections.singletonList("*"));
             cfg.setAllowCredentials(true);
             cfg.setAllowedHeaders(Collections.singletonList("*"));
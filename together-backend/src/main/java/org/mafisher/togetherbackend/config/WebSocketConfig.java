@@ -0,0 +1,72 @@
+package org.mafisher.togetherbackend.config;
+
+import lombok.RequiredArgsConstructor;
+import org.mafisher.togetherbackend.chat.ChatDestinations;
+import org.mafisher.togetherbackend.chat.RoomFanout;
+import org.mafisher.togetherbackend.chat.RoomSubscriptionInterceptor;
+import org.mafisher.togetherbackend.presence.PresenceInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.time.Duration;
+
+/**
+ * STOMP over WebSocket at {@code /ws}. The handshake is an ordinary HTTP request, so {@link JwtFilter}
+ * authenticates it from the {@code jwt} cookie and the resulting principal is bound to the session.
+ * Room topics are subscribed through the broker but delivered by {@link RoomFanout}. Heartbeats are
+ * exchanged every {@code heartbeat} in both directions and keep the user's presence alive.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final RoomSubscriptionInterceptor roomSubscriptionInterceptor;
+    private final RoomFanout roomFanout;
+    private final PresenceInterceptor presenceInterceptor;
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    @Value("${application.presence.heartbeat:10s}")
+    private Duration heartbeat = Duration.ofSeconds(10);
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(
+            @Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler messageBrokerTaskScheduler) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws")
+                .setAllowedOrigins(SecurityConfig.ALLOWED_ORIGINS.toArray(String[]::new));
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker(ChatDestinations.TOPIC_PREFIX, ChatDestinations.QUEUE_PREFIX)
+                .setHeartbeatValue(new long[]{heartbeat.toMillis(), heartbeat.toMillis()})
+                .setTaskScheduler(messageBrokerTaskScheduler);
+        registry.setApplicationDestinationPrefixes(ChatDestinations.APPLICATION_PREFIX);
+        registry.setUserDestinationPrefix(ChatDestinations.USER_PREFIX);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(presenceInterceptor, roomSubscriptionInterceptor);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.addDecoratorFactory(roomFanout::decorate);
+    }
+}
@@ -0,0 +1,79 @@
+package org.mafisher.togetherbackend.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.mafisher.togetherbackend.chat.ChatDestinations;
+import org.mafisher.togetherbackend.dto.ChatMessageDto;
+import org.mafisher.togetherbackend.dto.request.ReadRequest;
+import org.mafisher.togetherbackend.dto.request.SendMessageRequest;
+import org.mafisher.togetherbackend.dto.request.TypingRequest;
+import org.mafisher.togetherbackend.handler.CustomException;
+import org.mafisher.togetherbackend.handler.ExceptionResponse;
+import org.mafisher.togetherbackend.service.ChatService;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.util.List;
+
+@Controller
+@RequiredArgsConstructor
+public class ChatMessageController {
+
+    private static final int RESUME_PAGE_SIZE = 100;
+
+    private final ChatService chatService;
+
+    @MessageMapping("/rooms/{roomId}/messages")
+    public void sendMessage(
+            @DestinationVariable Long roomId,
+            @Payload SendMessageRequest request,
+            Principal principal) {
+        chatService.sendMessage(roomId, request, principal);
+    }
+
+    @MessageMapping("/rooms/{roomId}/typing")
+    public void setTyping(
+            @DestinationVariable Long roomId,
+            @Payload TypingRequest request,
+            @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId,
+            Principal principal) {
+        chatService.setTyping(roomId, request, sessionId, principal);
+    }
+
+    @MessageMapping("/rooms/{roomId}/read")
+    public void markRead(
+            @DestinationVariable Long roomId,
+            @Payload ReadRequest request,
+            Principal principal) {
+        chatService.markRead(roomId, request, principal);
+    }
+
+    /**
+     * Resume after a reconnect: subscribing to {@code /app/rooms/{roomId}/messages/after/{seq}} replies once
+     * with the messages the client missed, oldest first. A full page means the client should ask again.
+     */
+    @SubscribeMapping("/rooms/{roomId}/messages/after/{seq}")
+    public List<ChatMessageDto> resume(
+            @DestinationVariable Long roomId,
+            @DestinationVariable Long seq,
+            Principal principal) {
+        return chatService.getMessagesAfter(roomId, seq, RESUME_PAGE_SIZE, principal);
+    }
+
+    @MessageExceptionHandler(CustomException.class)
+    @SendToUser(destinations = ChatDestinations.ERRORS_QUEUE, broadcast = false)
+    public ExceptionResponse handleException(CustomException exp) {
+        return ExceptionResponse.builder()
+                .businessErrorCode(exp.getErrorCode().getCode())
+                .businessErrornDescription(exp.getErrorCode().getDescription())
+                .error(exp.getErrorCode().getDescription())
+                .build();
+    }
+}
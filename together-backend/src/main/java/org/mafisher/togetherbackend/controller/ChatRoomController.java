@@ -1,9 +1,19 @@
 package org.mafisher.togetherbackend.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.mafisher.togetherbackend.dto.ChatMessageDto;
+import org.mafisher.togetherbackend.dto.CursorPage;
+import org.mafisher.togetherbackend.dto.ParticipantChangeDto;
+import org.mafisher.togetherbackend.dto.ParticipantDto;
 import org.mafisher.togetherbackend.dto.RoomDto;
+import org.mafisher.togetherbackend.dto.RoomSummaryDto;
+import org.mafisher.togetherbackend.dto.UnreadCountDto;
+import org.mafisher.togetherbackend.dto.request.ParticipantsRequest;
+import org.mafisher.togetherbackend.dto.request.ReadRequest;
+import org.mafisher.togetherbackend.enums.RoomView;
 import org.mafisher.togetherbackend.dto.request.CreateRoomRequest;
 import org.mafisher.togetherbackend.service.AuthService;
+import org.mafisher.togetherbackend.service.ChatService;
 import org.mafisher.togetherbackend.service.RoomService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +28,7 @@ import java.util.List;
 public class ChatRoomController {
 
     private final RoomService roomService;
+    private final ChatService chatService;
 
     @PostMapping("/create")
     public ResponseEntity<RoomDto> createRoom(@RequestBody CreateRoomRequest request, Principal principal) {
@@ -36,25 +47,84 @@ public class ChatRoomController {
     public ResponseEntity<RoomDto> addParticipant(
             @PathVariable Long roomId,
             @PathVariable String username,
+            @RequestParam(defaultValue = "FULL") RoomView view,
             Principal principal) {
-        return new ResponseEntity<>(roomService.addParticipant(roomId, username, principal), HttpStatus.OK);
+        return new ResponseEntity<>(roomService.addParticipant(roomId, username, view, principal), HttpStatus.OK);
     }
 
     @PostMapping("/remove-participant/{roomId}/{username}")
     public ResponseEntity<RoomDto> removeParticipant(
             @PathVariable Long roomId,
             @PathVariable String username,
+            @RequestParam(defaultValue = "FULL") RoomView view,
             Principal principal) {
-        return new ResponseEntity<>(roomService.removeParticipant(roomId, username, principal), HttpStatus.OK);
+        return new ResponseEntity<>(roomService.removeParticipant(roomId, username, view, principal), HttpStatus.OK);
+    }
+
+    @PostMapping("/add-participants/{roomId}")
+    public ResponseEntity<List<ParticipantChangeDto>> addParticipants(
+            @PathVariable Long roomId,
+            @RequestBody ParticipantsRequest request,
+            Principal principal) {
+        return new ResponseEntity<>(roomService.addParticipants(roomId, request, principal), HttpStatus.OK);
+    }
+
+    @PostMapping("/remove-participants/{roomId}")
+    public ResponseEntity<List<ParticipantChangeDto>> removeParticipants(
+            @PathVariable Long roomId,
+            @RequestBody ParticipantsRequest request,
+            Principal principal) {
+        return new ResponseEntity<>(roomService.removeParticipants(roomId, request, principal), HttpStatus.OK);
     }
 
     @GetMapping("/get-owned-rooms")
-    public ResponseEntity<List<RoomDto>> getOwnedRooms(Principal principal) {
+    public ResponseEntity<List<RoomSummaryDto>> getOwnedRooms(Principal principal) {
         return new ResponseEntity<>(roomService.getOwnedRooms(principal), HttpStatus.OK);
     }
 
     @GetMapping("/get-belongs-rooms")
-    public ResponseEntity<List<RoomDto>> getBelongsRooms(Principal principal) {
+    public ResponseEntity<List<RoomSummaryDto>> getBelongsRooms(Principal principal) {
         return new ResponseEntity<>(roomService.getBelongsRooms(principal), HttpStatus.OK);
     }
+
+    @GetMapping("/{roomId}/participants")
+    public ResponseEntity<CursorPage<ParticipantDto>> getParticipants(
+            @PathVariable Long roomId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            Principal principal) {
+        return new ResponseEntity<>(roomService.getParticipants(roomId, cursor, limit, principal), HttpStatus.OK);
+    }
+
+    @GetMapping("/unread")
+    public ResponseEntity<List<UnreadCountDto>> getUnreadCounts(Principal principal) {
+        return new ResponseEntity<>(chatService.getUnreadCounts(principal), HttpStatus.OK);
+    }
+
+    @PostMapping("/{roomId}/read")
+    public ResponseEntity<?> markRead(
+            @PathVariable Long roomId,
+            @RequestBody ReadRequest request,
+            Principal principal) {
+        chatService.markRead(roomId, request, principal);
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping("/{roomId}/messages")
+    public ResponseEntity<CursorPage<ChatMessageDto>> getMessages(
+            @PathVariable Long roomId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int limit,
+            Principal principal) {
+        return new ResponseEntity<>(chatService.getHistory(roomId, before, limit, principal), HttpStatus.OK);
+    }
+
+    @GetMapping("/{roomId}/messages/after/{seq}")
+    public ResponseEntity<List<ChatMessageDto>> getMessagesAfter(
+            @PathVariable Long roomId,
+            @PathVariable Long seq,
+            @RequestParam(defaultValue = "100") int limit,
+            Principal principal) {
+        return new ResponseEntity<>(chatService.getMessagesAfter(roomId, seq, limit, principal), HttpStatus.OK);
+    }
 }
@@ -0,0 +1,39 @@
+package org.mafisher.togetherbackend.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.mafisher.togetherbackend.service.EventStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.security.Principal;
+
+/**
+ * Server-Sent Events for clients whose network will not keep a WebSocket open. {@code EventSource} sends
+ * the {@code jwt} cookie and, when it reconnects, the {@code Last-Event-ID} header on its own; the
+ * {@code after} parameter gives the starting sequence on the first connect, since a browser cannot set
+ * that header itself.
+ */
+@RestController
+@RequestMapping("/stream")
+@RequiredArgsConstructor
+public class EventStreamController {
+    private final EventStreamService eventStreamService;
+
+    @GetMapping(path = "/rooms/{roomId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public SseEmitter streamRoom(
+            @PathVariable Long roomId,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(required = false) String after,
+            Principal principal) {
+        return eventStreamService.streamRoom(roomId, lastEventId != null ? lastEventId : after, principal);
+    }
+
+    @GetMapping(path = "/notifications", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public SseEmitter streamNotifications(Principal principal) {
+        return eventStreamService.streamNotifications(principal);
+    }
+}
@@ -1,10 +1,12 @@
 package org.mafisher.togetherbackend.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.mafisher.togetherbackend.dto.CursorPage;
 import org.mafisher.togetherbackend.dto.UserDto;
+import org.mafisher.togetherbackend.dto.UserSuggestionDto;
 import org.mafisher.togetherbackend.service.FriendService;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -53,12 +55,42 @@ public class FriendController {
         return new ResponseEntity<>(friendService.getReceivedRequests(principal, pageable), HttpStatus.OK);
     }
 
+    @GetMapping("/requests/received/cursor")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<CursorPage<UserDto>> getReceivedRequests(
+            Principal principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return new ResponseEntity<>(friendService.getReceivedRequests(principal, cursor, limit), HttpStatus.OK);
+    }
+
+    @GetMapping("/requests/received/count")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Long> countReceivedRequests(Principal principal) {
+        return new ResponseEntity<>(friendService.countReceivedRequests(principal), HttpStatus.OK);
+    }
+
     @GetMapping("/search")
     @PreAuthorize("isAuthenticated()")
-    public Page<UserDto> searchUsers(
+    public Slice<UserDto> searchUsers(
             @RequestParam(required = false) String query,
             @PageableDefault(size = 10, sort = "nickName") Pageable pageable,
             Principal principal) {
         return friendService.searchUsers(query, pageable, principal);
     }
+
+    @GetMapping("/search/suggest")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<UserSuggestionDto>> suggestUsers(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit,
+            Principal principal) {
+        return new ResponseEntity<>(friendService.suggestUsers(prefix, limit, principal), HttpStatus.OK);
+    }
+
+    @GetMapping("/online")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<Long>> getOnlineFriends(Principal principal) {
+        return new ResponseEntity<>(friendService.getOnlineFriends(principal), HttpStatus.OK);
+    }
 }
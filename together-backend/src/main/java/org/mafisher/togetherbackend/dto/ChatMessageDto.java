@@ -0,0 +1,22 @@
+package org.mafisher.togetherbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChatMessageDto {
+    private Long id;
+    private Long roomId;
+    private Long seq;
+    private Long senderId;
+    private String senderNickName;
+    private String content;
+    private Instant createdAt;
+}
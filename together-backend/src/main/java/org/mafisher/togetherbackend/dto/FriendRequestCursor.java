@@ -0,0 +1,46 @@
+package org.mafisher.togetherbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.mafisher.togetherbackend.handler.BusinessErrorCodes;
+import org.mafisher.togetherbackend.handler.CustomException;
+import org.mafisher.togetherbackend.repository.FriendRequestRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position for received friend requests: the {@code (createdAt, id)} of the last row returned.
+ */
+@Getter
+@AllArgsConstructor
+public class FriendRequestCursor {
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public static FriendRequestCursor of(FriendRequestRepository.ReceivedRequest request) {
+        return new FriendRequestCursor(request.getCreatedAt(), request.getId());
+    }
+
+    public static FriendRequestCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            if (separator < 0)
+                throw new CustomException(BusinessErrorCodes.INVALID_CURSOR);
+            return new FriendRequestCursor(
+                    LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new CustomException(BusinessErrorCodes.INVALID_CURSOR);
+        }
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
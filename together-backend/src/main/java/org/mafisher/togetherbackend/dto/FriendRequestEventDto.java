@@ -0,0 +1,18 @@
+package org.mafisher.togetherbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.mafisher.togetherbackend.enums.FriendRequestEventType;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FriendRequestEventDto {
+    private FriendRequestEventType type;
+    private Long userId;
+    private String nickName;
+    private long unread;
+}
@@ -0,0 +1,17 @@
+package org.mafisher.togetherbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.mafisher.togetherbackend.enums.ParticipantChangeStatus;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ParticipantChangeDto {
+    private String nickName;
+    private Long userId;
+    private ParticipantChangeStatus status;
+}
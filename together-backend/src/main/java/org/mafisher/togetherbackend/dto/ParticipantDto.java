@@ -0,0 +1,17 @@
+package org.mafisher.togetherbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ParticipantDto {
+    private Long id;
+    private String nickName;
+    private String firstName;
+    private String lastName;
+}
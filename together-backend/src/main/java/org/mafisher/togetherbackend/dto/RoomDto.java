@@ -1,5 +1,6 @@
 package org.mafisher.togetherbackend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -7,13 +8,22 @@ import lombok.NoArgsConstructor;
 
 import java.util.List;
 
+/**
+ * A room as returned by the room endpoints. In the {@code COMPACT} view only the ids are filled in:
+ * {@code owner} and {@code participants} are left out, and members are listed through
+ * {@code /room/{roomId}/participants}.
+ */
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class RoomDto {
     private Long id;
     private String name;
+    private Long ownerId;
     private UserDto owner;
     private List<UserDto> participants;
+    private List<Long> participantIds;
+    private Long participantCount;
 }
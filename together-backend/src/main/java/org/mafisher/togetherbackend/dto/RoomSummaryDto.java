@@ -0,0 +1,18 @@
+package org.mafisher.togetherbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomSummaryDto {
+    private Long id;
+    private String name;
+    private Long ownerId;
+    private String ownerNickName;
+    private Long participantCount;
+}
@@ -0,0 +1,16 @@
+package org.mafisher.togetherbackend.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ParticipantsRequest {
+    private List<String> nicknames;
+}
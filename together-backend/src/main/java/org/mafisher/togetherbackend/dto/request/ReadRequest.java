@@ -0,0 +1,14 @@
+package org.mafisher.togetherbackend.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ReadRequest {
+    private Long seq;
+}
@@ -0,0 +1,212 @@
+package org.mafisher.togetherbackend.email;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.mafisher.togetherbackend.entity.EmailOutboxMessage;
+import org.mafisher.togetherbackend.enums.EmailOutboxStatus;
+import org.mafisher.togetherbackend.repository.EmailOutboxRepository;
+import org.mafisher.togetherbackend.service.EmailService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the e-mail outbox written by {@link EmailService#queueEmail}. Each batch is claimed with
+ * {@code SKIP LOCKED} row locks and leased by pushing {@code next_attempt_at} past the lease, in a
+ * transaction that commits before any mail goes out. The batch is then rendered and handed to the mail
+ * sender in a single call, so it goes over one SMTP connection without holding a connection or row locks,
+ * and the outcome is recorded in a second, short transaction. Rows of a crashed run become due again
+ * once their lease runs out.
+ */
+@Slf4j
+@Component
+public class EmailOutboxDispatcher {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailService emailService;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+
+    public EmailOutboxDispatcher(
+            EmailOutboxRepository emailOutboxRepository,
+            EmailService emailService,
+            JavaMailSender mailSender,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${application.mail.outbox.batch-size:50}") int batchSize,
+            @Value("${application.mail.outbox.max-batches-per-run:10}") int maxBatchesPerRun,
+            @Value("${application.mail.outbox.lease:5m}") Duration lease,
+            @Value("${application.mail.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${application.mail.outbox.initial-backoff:30s}") Duration initialBackoff,
+            @Value("${application.mail.outbox.max-backoff:1h}") Duration maxBackoff) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailService = emailService;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+
+        Gauge.builder("email.outbox.depth", queueDepth, AtomicLong::get)
+                .description("Pending messages in the e-mail outbox")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("email.outbox.sent").register(meterRegistry);
+        this.retriedCounter = Counter.builder("email.outbox.retried").register(meterRegistry);
+        this.failedCounter = Counter.builder("email.outbox.failed").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${application.mail.outbox.poll-interval:2s}")
+    public void dispatch() {
+        int batches = 0;
+        int claimed;
+        do {
+            claimed = dispatchBatch();
+        } while (claimed == batchSize && ++batches < maxBatchesPerRun);
+        queueDepth.set(emailOutboxRepository.countByStatus(EmailOutboxStatus.PENDING));
+    }
+
+    public long getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    int dispatchBatch() {
+        List<EmailOutboxMessage> batch = claim();
+        if (batch.isEmpty())
+            return 0;
+
+        Instant now = Instant.now();
+        Map<MimeMessage, EmailOutboxMessage> prepared = new LinkedHashMap<>();
+        for (EmailOutboxMessage message : batch) {
+            try {
+                prepared.put(render(message), message);
+            } catch (Exception e) {
+                scheduleRetry(message, e, now);
+            }
+        }
+
+        Map<Object, Exception> failures = send(prepared);
+        prepared.forEach((mimeMessage, message) -> {
+            Exception failure = failures.get(mimeMessage);
+            if (failure == null)
+                markSent(message, now);
+            else
+                scheduleRetry(message, failure, now);
+        });
+
+        transactionTemplate.executeWithoutResult(status -> emailOutboxRepository.saveAll(batch));
+        return batch.size();
+    }
+
+    private List<EmailOutboxMessage> claim() {
+        List<EmailOutboxMessage> batch = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<EmailOutboxMessage> due = emailOutboxRepository.findDueForUpdate(
+                    EmailOutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+            if (due.isEmpty())
+                return due;
+
+            Instant leasedUntil = now.plus(lease);
+            due.forEach(message -> message.setNextAttemptAt(leasedUntil));
+            emailOutboxRepository.saveAll(due);
+            return due;
+        });
+        return batch == null ? List.of() : batch;
+    }
+
+    private MimeMessage render(EmailOutboxMessage message) throws Exception {
+        return emailService.createEmail(
+                message.getRecipient(),
+                message.getUsername(),
+                message.getTemplate(),
+                message.getConfirmationUrl(),
+                message.getSubject()
+        );
+    }
+
+    private Map<Object, Exception> send(Map<MimeMessage, EmailOutboxMessage> prepared) {
+        if (prepared.isEmpty())
+            return Map.of();
+        try {
+            mailSender.send(prepared.keySet().toArray(new MimeMessage[0]));
+            return Map.of();
+        } catch (MailSendException e) {
+            if (!e.getFailedMessages().isEmpty())
+                return e.getFailedMessages();
+            return failAll(prepared, e);
+        } catch (MailException e) {
+            return failAll(prepared, e);
+        }
+    }
+
+    private Map<Object, Exception> failAll(Map<MimeMessage, EmailOutboxMessage> prepared, Exception e) {
+        Map<Object, Exception> failures = new LinkedHashMap<>();
+        prepared.keySet().forEach(mimeMessage -> failures.put(mimeMessage, e));
+        return failures;
+    }
+
+    private void markSent(EmailOutboxMessage message, Instant now) {
+        message.setStatus(EmailOutboxStatus.SENT);
+        message.setAttempts(message.getAttempts() + 1);
+        message.setSentAt(now);
+        message.setLastError(null);
+        sentCounter.increment();
+    }
+
+    private void scheduleRetry(EmailOutboxMessage message, Exception e, Instant now) {
+        int attempts = message.getAttempts() + 1;
+        message.setAttempts(attempts);
+        message.setLastError(truncate(e.getMessage()));
+        if (attempts >= maxAttempts) {
+            message.setStatus(EmailOutboxStatus.FAILED);
+            failedCounter.increment();
+            log.error("Giving up on outbox e-mail {} to {} after {} attempts: {}",
+                    message.getId(), message.getRecipient(), attempts, e.getMessage());
+            return;
+        }
+        message.setNextAttemptAt(now.plus(backoff(attempts)));
+        retriedCounter.increment();
+        log.warn("Outbox e-mail {} failed (attempt {}), retrying: {}", message.getId(), attempts, e.getMessage());
+    }
+
+    private Duration backoff(int attempts) {
+        long factor = 1L << Math.min(attempts - 1, 20);
+        Duration delay = initialBackoff.multipliedBy(factor);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static String truncate(String error) {
+        if (error == null)
+            return null;
+        return error.length() <= 1000 ? error : error.substring(0, 1000);
+    }
+}
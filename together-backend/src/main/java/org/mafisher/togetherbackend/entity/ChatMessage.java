@@ -0,0 +1,40 @@
+package org.mafisher.togetherbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "chat_message", indexes = {
+        @Index(name = "uk_chat_message_room_seq", columnList = "room_id, seq", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatMessage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private Room room;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private User sender;
+
+    /**
+     * Position of the message within its room, starting at 1. Assigned by the chat writer.
+     */
+    private Long seq;
+
+    @Column(nullable = false, length = 2000)
+    private String content;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+}
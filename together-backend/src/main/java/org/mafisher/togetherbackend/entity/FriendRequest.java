@@ -10,6 +10,9 @@ import org.mafisher.togetherbackend.enums.FriendRequestStatus;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_friend_request_receiver_status_created", columnList = "receiver_id, status, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
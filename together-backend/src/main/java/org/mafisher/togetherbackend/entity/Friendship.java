@@ -8,7 +8,18 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
+/**
+ * Undirected friendship stored once per pair, with the smaller user id in {@code user1}.
+ */
 @Entity
+@Table(
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_friendship_pair", columnNames = {"user1_id", "user2_id"})
+        },
+        indexes = {
+                @Index(name = "idx_friendship_user2_user1", columnList = "user2_id, user1_id")
+        }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,4 +36,23 @@ public class Friendship {
     private User user2;
 
     private LocalDateTime createdAt;
+
+    public static Friendship of(User a, User b) {
+        boolean ordered = a.getId() <= b.getId();
+        return Friendship.builder()
+                .user1(ordered ? a : b)
+                .user2(ordered ? b : a)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @PrePersist
+    void canonicalize() {
+        if (user1 != null && user2 != null && user1.getId() != null && user2.getId() != null
+                && user1.getId() > user2.getId()) {
+            User swap = user1;
+            user1 = user2;
+            user2 = swap;
+        }
+    }
 }
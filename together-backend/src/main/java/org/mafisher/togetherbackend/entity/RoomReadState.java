@@ -0,0 +1,35 @@
+package org.mafisher.togetherbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * How far a user has read a room. Written in batches by the read receipt aggregator; the unread count of
+ * a room is its highest message {@code seq} minus {@code lastReadSeq}.
+ */
+@Entity
+@Table(name = "room_read_state", indexes = {
+        @Index(name = "uk_room_read_state_user_room", columnList = "user_id, room_id", unique = true),
+        @Index(name = "idx_room_read_state_room", columnList = "room_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RoomReadState {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private Room room;
+
+    @Column(nullable = false)
+    private Long lastReadSeq;
+}
@@ -2,6 +2,7 @@ package org.mafisher.togetherbackend.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -54,6 +55,10 @@ public class User implements UserDetails, Principal {
 
     private boolean enable;
 
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int tokenVersion;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createDate;
@@ -0,0 +1,7 @@
+package org.mafisher.togetherbackend.enums;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -0,0 +1,12 @@
+package org.mafisher.togetherbackend.enums;
+
+public enum ParticipantChangeStatus {
+    ADDED,
+    REMOVED,
+    USER_NOT_FOUND,
+    USERS_ARE_THE_SAME,
+    USERS_NOT_FRIENDS,
+    USER_ALREADY_IN_ROOM,
+    USER_NOT_IN_ROOM,
+    PARTICIPANT_IS_OWNER
+}
@@ -0,0 +1,6 @@
+package org.mafisher.togetherbackend.enums;
+
+public enum RoomView {
+    FULL,
+    COMPACT
+}
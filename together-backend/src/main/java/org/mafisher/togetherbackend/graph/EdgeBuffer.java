@@ -0,0 +1,42 @@
+package org.mafisher.togetherbackend.graph;
+
+import java.util.Arrays;
+
+/**
+ * Growable pair of parallel {@code long} arrays used to collect edges before building a {@link FriendGraph}.
+ */
+public final class EdgeBuffer {
+
+    private long[] left;
+    private long[] right;
+    private int size;
+
+    public EdgeBuffer(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        this.left = new long[capacity];
+        this.right = new long[capacity];
+    }
+
+    public void add(long a, long b) {
+        if (size == left.length) {
+            int capacity = left.length + (left.length >> 1);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+        }
+        left[size] = a;
+        right[size] = b;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    long[] left() {
+        return left;
+    }
+
+    long[] right() {
+        return right;
+    }
+}
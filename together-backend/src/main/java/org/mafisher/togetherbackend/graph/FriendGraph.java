@@ -0,0 +1,121 @@
+package org.mafisher.togetherbackend.graph;
+
+import java.util.Arrays;
+
+/**
+ * Immutable friendship adjacency in compressed sparse row form: {@code userIds} is sorted, and the
+ * friends of {@code userIds[i]} are {@code neighbors[offsets[i] .. offsets[i + 1])}, also sorted.
+ * Every edge is stored in both directions so lookups and friend lists need a single range.
+ */
+public final class FriendGraph {
+
+    public static final FriendGraph EMPTY = new FriendGraph(new long[0], new int[]{0}, new long[0]);
+
+    private final long[] userIds;
+    private final int[] offsets;
+    private final long[] neighbors;
+
+    private FriendGraph(long[] userIds, int[] offsets, long[] neighbors) {
+        this.userIds = userIds;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+    }
+
+    public boolean contains(long userId, long friendId) {
+        int index = Arrays.binarySearch(userIds, userId);
+        if (index < 0)
+            return false;
+        return Arrays.binarySearch(neighbors, offsets[index], offsets[index + 1], friendId) >= 0;
+    }
+
+    public long[] friendsOf(long userId) {
+        int index = Arrays.binarySearch(userIds, userId);
+        if (index < 0)
+            return new long[0];
+        return Arrays.copyOfRange(neighbors, offsets[index], offsets[index + 1]);
+    }
+
+    public int userCount() {
+        return userIds.length;
+    }
+
+    public long edgeCount() {
+        return neighbors.length / 2;
+    }
+
+    public long estimatedBytes() {
+        return arrayBytes(8L, userIds.length) + arrayBytes(4L, offsets.length) + arrayBytes(8L, neighbors.length);
+    }
+
+    /**
+     * Appends every undirected edge of this graph once (smaller id first) to {@code edges}.
+     */
+    public void copyEdgesTo(EdgeBuffer edges) {
+        for (int i = 0; i < userIds.length; i++) {
+            long userId = userIds[i];
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                if (userId < neighbors[j])
+                    edges.add(userId, neighbors[j]);
+            }
+        }
+    }
+
+    public static FriendGraph build(EdgeBuffer edges) {
+        int size = edges.size();
+        if (size == 0)
+            return EMPTY;
+
+        long[] endpoints = new long[size * 2];
+        System.arraycopy(edges.left(), 0, endpoints, 0, size);
+        System.arraycopy(edges.right(), 0, endpoints, size, size);
+        Arrays.sort(endpoints);
+        long[] userIds = distinct(endpoints);
+
+        int[] degrees = new int[userIds.length + 1];
+        for (int i = 0; i < size; i++) {
+            degrees[Arrays.binarySearch(userIds, edges.left()[i]) + 1]++;
+            degrees[Arrays.binarySearch(userIds, edges.right()[i]) + 1]++;
+        }
+        for (int i = 1; i < degrees.length; i++)
+            degrees[i] += degrees[i - 1];
+
+        long[] adjacency = new long[size * 2];
+        int[] cursor = Arrays.copyOf(degrees, userIds.length);
+        for (int i = 0; i < size; i++) {
+            long left = edges.left()[i];
+            long right = edges.right()[i];
+            adjacency[cursor[Arrays.binarySearch(userIds, left)]++] = right;
+            adjacency[cursor[Arrays.binarySearch(userIds, right)]++] = left;
+        }
+
+        int[] offsets = new int[userIds.length + 1];
+        int written = 0;
+        for (int i = 0; i < userIds.length; i++) {
+            Arrays.sort(adjacency, degrees[i], degrees[i + 1]);
+            offsets[i] = written;
+            long previous = Long.MIN_VALUE;
+            for (int j = degrees[i]; j < degrees[i + 1]; j++) {
+                long neighbor = adjacency[j];
+                if (neighbor != previous && neighbor != userIds[i])
+                    adjacency[written++] = neighbor;
+                previous = neighbor;
+            }
+        }
+        offsets[userIds.length] = written;
+
+        return new FriendGraph(userIds, offsets, written == adjacency.length ? adjacency : Arrays.copyOf(adjacency, written));
+    }
+
+    private static long[] distinct(long[] sorted) {
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1])
+                sorted[count++] = sorted[i];
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+
+    private static long arrayBytes(long elementBytes, long length) {
+        return 16 + elementBytes * length;
+    }
+}
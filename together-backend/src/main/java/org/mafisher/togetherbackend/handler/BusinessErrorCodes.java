@@ -31,6 +31,11 @@ public enum BusinessErrorCodes{
     USER_ALREADY_IN_ROOM(324, "User is already in room", HttpStatus.BAD_REQUEST),
     PARTICIPANT_IS_OWNER(325, "Participant is owner of room", HttpStatus.BAD_REQUEST),
     USER_NOT_IN_ROOM(326, "User is not in room", HttpStatus.BAD_REQUEST),
+    INVALID_CURSOR(327, "Invalid page cursor", HttpStatus.BAD_REQUEST),
+    INVALID_MESSAGE(328, "Message must have between 1 and 2000 characters", HttpStatus.BAD_REQUEST),
+    CHAT_UNAVAILABLE(329, "Chat is temporarily unavailable, try again", HttpStatus.SERVICE_UNAVAILABLE),
+    INVALID_READ_POSITION(330, "Read position must be a message sequence", HttpStatus.BAD_REQUEST),
+    TOO_MANY_PARTICIPANTS(331, "Too many participants in one request", HttpStatus.BAD_REQUEST),
     ;
     @Getter
     private final int code;
@@ -0,0 +1,120 @@
+package org.mafisher.togetherbackend.index;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An immutable snapshot of type {@code S} plus a mutable delta of type {@code D} holding the writes made
+ * since it was built, shared by the in-memory indexes. {@link #publish(Function)} starts a fresh delta and
+ * replaces the snapshot with one that includes the pending writes; until it does, readers find those writes
+ * in {@link #frozenDelta()}. Readers consult {@link #delta()}, then {@link #frozenDelta()}, then
+ * {@link #snapshot()}, so no write is ever invisible. Callers serialize {@code publish} among themselves.
+ */
+@Slf4j
+public final class DeltaSnapshot<S, D> {
+
+    private final String name;
+    private final Supplier<D> emptyDelta;
+    private final Counter inconsistencyCounter;
+
+    private final Object writeLock = new Object();
+    private volatile S snapshot;
+    private volatile D delta;
+    private volatile D frozenDelta;
+
+    /**
+     * @param name metric prefix and log label, e.g. {@code friend.graph}
+     */
+    public DeltaSnapshot(String name, Supplier<D> emptyDelta, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.emptyDelta = emptyDelta;
+        this.delta = emptyDelta.get();
+        this.frozenDelta = emptyDelta.get();
+        this.inconsistencyCounter = Counter.builder(name + ".inconsistencies").register(meterRegistry);
+    }
+
+    /**
+     * Returns the current snapshot, or {@code null} until the first {@link #publish(Function)}.
+     */
+    public S snapshot() {
+        return snapshot;
+    }
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    public D delta() {
+        return delta;
+    }
+
+    public D frozenDelta() {
+        return frozenDelta;
+    }
+
+    /**
+     * Applies {@code change} to the delta; writers are serialized with each other and with the delta swap.
+     */
+    public void write(Consumer<D> change) {
+        synchronized (writeLock) {
+            change.accept(delta);
+        }
+    }
+
+    /**
+     * Like {@link #write(Consumer)}, deferred until the surrounding transaction commits, if there is one.
+     */
+    public void writeAfterCommit(Consumer<D> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write(change);
+                }
+            });
+            return;
+        }
+        write(change);
+    }
+
+    /**
+     * Swaps in an empty delta and publishes {@code build} applied to the pending one as the new snapshot.
+     */
+    public void publish(Function<D, S> build) {
+        D pending;
+        synchronized (writeLock) {
+            pending = delta;
+            frozenDelta = pending;
+            delta = emptyDelta.get();
+        }
+        snapshot = build.apply(pending);
+        frozenDelta = emptyDelta.get();
+    }
+
+    /**
+     * Returns whether the indexed and stored counts agree; a mismatch is counted and logged, and the caller
+     * is expected to reload.
+     */
+    public boolean verify(long indexed, long stored) {
+        if (indexed == stored)
+            return true;
+
+        mismatch(indexed + " indexed, " + stored + " stored");
+        return false;
+    }
+
+    /**
+     * Counts and logs a mismatch the caller detected itself; the caller is expected to reload.
+     */
+    public void mismatch(String detail) {
+        inconsistencyCounter.increment();
+        log.warn("{} out of sync ({}), reloading", name, detail);
+    }
+}
@@ -0,0 +1,41 @@
+package org.mafisher.togetherbackend.mappers.impl;
+
+import org.mafisher.togetherbackend.dto.ChatMessageDto;
+import org.mafisher.togetherbackend.entity.ChatMessage;
+import org.mafisher.togetherbackend.entity.Room;
+import org.mafisher.togetherbackend.entity.User;
+import org.mafisher.togetherbackend.mappers.Mapper;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ChatMessageMapper implements Mapper<ChatMessage, ChatMessageDto> {
+
+    @Override
+    public ChatMessageDto mapTo(ChatMessage message) {
+        if (message == null)
+            return null;
+        return ChatMessageDto.builder()
+                .id(message.getId())
+                .roomId(message.getRoom().getId())
+                .seq(message.getSeq())
+                .senderId(message.getSender().getId())
+                .senderNickName(message.getSender().getNickName())
+                .content(message.getContent())
+                .createdAt(message.getCreatedAt())
+                .build();
+    }
+
+    @Override
+    public ChatMessage mapFrom(ChatMessageDto dto) {
+        if (dto == null)
+            return null;
+        return ChatMessage.builder()
+                .id(dto.getId())
+                .room(Room.builder().id(dto.getRoomId()).build())
+                .seq(dto.getSeq())
+                .sender(User.builder().id(dto.getSenderId()).nickName(dto.getSenderNickName()).build())
+                .content(dto.getContent())
+                .createdAt(dto.getCreatedAt())
+                .build();
+    }
+}
@@ -1,25 +1,57 @@
 package org.mafisher.togetherbackend.mappers.impl;
 
 import lombok.AllArgsConstructor;
-import lombok.RequiredArgsConstructor;
 import org.mafisher.togetherbackend.dto.RoomDto;
+import org.mafisher.togetherbackend.dto.UserDto;
 import org.mafisher.togetherbackend.entity.Room;
+import org.mafisher.togetherbackend.entity.User;
 import org.mafisher.togetherbackend.mappers.Mapper;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 @Component
 @AllArgsConstructor
 public class RoomMapper implements Mapper<Room, RoomDto> {
-    private ModelMapper modelMapper;
+    private Mapper<User, UserDto> userMapper;
 
     @Override
     public RoomDto mapTo(Room room) {
-        return modelMapper.map(room, RoomDto.class);
+        if (room == null)
+            return null;
+        List<UserDto> participants = null;
+        if (room.getParticipants() != null) {
+            participants = new ArrayList<>(room.getParticipants().size());
+            for (User participant : room.getParticipants())
+                participants.add(userMapper.mapTo(participant));
+        }
+        return RoomDto.builder()
+                .id(room.getId())
+                .name(room.getName())
+                .ownerId(room.getOwner() == null ? null : room.getOwner().getId())
+                .owner(userMapper.mapTo(room.getOwner()))
+                .participants(participants)
+                .participantCount(participants == null ? null : (long) participants.size())
+                .build();
     }
 
     @Override
     public Room mapFrom(RoomDto roomDto) {
-        return modelMapper.map(roomDto, Room.class);
+        if (roomDto == null)
+            return null;
+        Set<User> participants = new HashSet<>();
+        if (roomDto.getParticipants() != null) {
+            for (UserDto participant : roomDto.getParticipants())
+                participants.add(userMapper.mapFrom(participant));
+        }
+        return Room.builder()
+                .id(roomDto.getId())
+                .name(roomDto.getName())
+                .owner(userMapper.mapFrom(roomDto.getOwner()))
+                .participants(participants)
+                .build();
     }
 }
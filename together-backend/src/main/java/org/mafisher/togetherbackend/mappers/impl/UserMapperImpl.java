@@ -1,26 +1,42 @@
 package org.mafisher.togetherbackend.mappers.impl;
 
-import lombok.AllArgsConstructor;
 import org.mafisher.togetherbackend.dto.UserDto;
 import org.mafisher.togetherbackend.entity.User;
 import org.mafisher.togetherbackend.mappers.Mapper;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
+import java.util.HashSet;
+
 @Component
-@AllArgsConstructor
 public class UserMapperImpl implements Mapper<User, UserDto> {
 
-    private ModelMapper modelMapper;
-
     @Override
     public UserDto mapTo(User userEntity) {
-        return modelMapper.map(userEntity, UserDto.class);
+        if (userEntity == null)
+            return null;
+        return UserDto.builder()
+                .id(userEntity.getId())
+                .firstName(userEntity.getFirstName())
+                .lastName(userEntity.getLastName())
+                .nickName(userEntity.getNickName())
+                .email(userEntity.getEmail())
+                .roles(userEntity.getRoles() == null ? null : new HashSet<>(userEntity.getRoles()))
+                .build();
     }
 
 
     @Override
     public User mapFrom(UserDto userDto) {
-        return modelMapper.map(userDto, User.class);
+        if (userDto == null)
+            return null;
+        User user = new User();
+        user.setId(userDto.getId());
+        user.setFirstName(userDto.getFirstName());
+        user.setLastName(userDto.getLastName());
+        user.setNickName(userDto.getNickName());
+        user.setEmail(userDto.getEmail());
+        if (userDto.getRoles() != null)
+            user.setRoles(new HashSet<>(userDto.getRoles()));
+        return user;
     }
 }
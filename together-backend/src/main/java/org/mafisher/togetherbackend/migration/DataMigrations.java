@@ -0,0 +1,106 @@
+package org.mafisher.togetherbackend.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One-off data migrations for existing Postgres databases. They run after Hibernate has updated the schema,
+ * each in its own transaction, and are recorded in {@code data_migration}, so later startups skip them
+ * instead of rescanning whole tables. An optional migration, such as enabling {@code pg_trgm}, only logs a
+ * warning when it fails (for example because the role may not create extensions) and is tried again on the
+ * next startup. Other databases, such as the H2 used by tests, are left alone.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class DataMigrations implements InitializingBean {
+
+    static final List<Migration> MIGRATIONS = List.of(
+            new Migration("friendship-canonical-pairs", false, List.of(
+                    "DELETE FROM friendship f " +
+                    "WHERE EXISTS (SELECT 1 FROM friendship d " +
+                    "WHERE d.user1_id = f.user1_id AND d.user2_id = f.user2_id AND d.id < f.id)",
+                    "DELETE FROM friendship f " +
+                    "WHERE f.user1_id > f.user2_id " +
+                    "AND EXISTS (SELECT 1 FROM friendship c WHERE c.user1_id = f.user2_id AND c.user2_id = f.user1_id)",
+                    "UPDATE friendship SET user1_id = user2_id, user2_id = user1_id WHERE user1_id > user2_id",
+                    "CREATE UNIQUE INDEX IF NOT EXISTS uk_friendship_pair ON friendship (user1_id, user2_id)",
+                    "CREATE INDEX IF NOT EXISTS idx_friendship_user2_user1 ON friendship (user2_id, user1_id)")),
+            new Migration("user-nick-name-trigram", true, List.of(
+                    "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+                    "CREATE INDEX IF NOT EXISTS idx_user_nick_name_trgm ON \"user\" USING gin (lower(nick_name) gin_trgm_ops)")),
+            new Migration("chat-message-seq", false, List.of(
+                    "UPDATE chat_message m SET seq = s.seq " +
+                    "FROM (SELECT id, row_number() OVER (PARTITION BY room_id ORDER BY id) AS seq " +
+                    "FROM chat_message " +
+                    "WHERE room_id IN (SELECT room_id FROM chat_message WHERE seq IS NULL)) s " +
+                    "WHERE m.id = s.id AND m.seq IS NULL",
+                    "DROP INDEX IF EXISTS idx_chat_message_room_id"))
+    );
+
+    private static final String CREATE_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS \"data_migration\" (\"id\" VARCHAR(100) PRIMARY KEY, \"applied_at\" TIMESTAMP NOT NULL)";
+    private static final String APPLIED_SQL = "SELECT \"id\" FROM \"data_migration\"";
+    // a second instance starting at the same time waits on the first one's row, then finds it taken
+    private static final String CLAIM_SQL =
+            "INSERT INTO \"data_migration\" (\"id\", \"applied_at\") VALUES (?, ?) ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public DataMigrations(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            log.info("Skipping data migrations on {}", database);
+            return;
+        }
+        migrate(MIGRATIONS);
+    }
+
+    void migrate(List<Migration> migrations) {
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+        Set<String> applied = new HashSet<>(jdbcTemplate.queryForList(APPLIED_SQL, String.class));
+        for (Migration migration : migrations) {
+            if (applied.contains(migration.id()))
+                continue;
+            try {
+                Boolean ran = transactionTemplate.execute(status -> {
+                    if (jdbcTemplate.update(CLAIM_SQL, migration.id(), Timestamp.from(Instant.now())) == 0)
+                        return false;
+                    migration.statements().forEach(jdbcTemplate::execute);
+                    return true;
+                });
+                if (Boolean.TRUE.equals(ran))
+                    log.info("Applied data migration {}", migration.id());
+            } catch (DataAccessException e) {
+                if (!migration.optional())
+                    throw e;
+                log.warn("Skipping optional data migration {}, retrying on next startup: {}",
+                        migration.id(), e.getMessage());
+            }
+        }
+    }
+
+    record Migration(String id, boolean optional, List<String> statements) {
+    }
+}
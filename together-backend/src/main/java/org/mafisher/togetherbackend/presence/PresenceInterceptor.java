@@ -0,0 +1,27 @@
+package org.mafisher.togetherbackend.presence;
+
+import lombok.RequiredArgsConstructor;
+import org.mafisher.togetherbackend.service.PresenceService;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts every inbound frame, STOMP heartbeats included, as a sign of life for the sending session.
+ */
+@Component
+@RequiredArgsConstructor
+public class PresenceInterceptor implements ChannelInterceptor {
+
+    private final PresenceService presenceService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId != null)
+            presenceService.touch(sessionId);
+        return message;
+    }
+}
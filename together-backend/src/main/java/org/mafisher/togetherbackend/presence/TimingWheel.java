@@ -0,0 +1,74 @@
+package org.mafisher.togetherbackend.presence;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timing wheel: deadlines are rounded up to whole ticks and hashed into {@code slotCount} slots,
+ * so adding an item and advancing the wheel cost O(1) per item regardless of how many are pending.
+ * Deadlines further away than one revolution stay in their slot until the matching round comes up.
+ * Not thread-safe.
+ */
+public final class TimingWheel<T> {
+
+    private final long tickNanos;
+    private final long originNanos;
+    private final List<Entry<T>>[] slots;
+    private long nextTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(int slotCount, long tickNanos, long nowNanos) {
+        this.tickNanos = tickNanos;
+        this.originNanos = nowNanos;
+        this.slots = new List[slotCount];
+        for (int i = 0; i < slotCount; i++)
+            slots[i] = new ArrayList<>();
+        this.nextTick = 1;
+    }
+
+    public void add(T item, long deadlineNanos) {
+        long elapsed = deadlineNanos - originNanos;
+        long tick = Math.max(nextTick, elapsed <= 0 ? 0 : (elapsed + tickNanos - 1) / tickNanos);
+        slots[slot(tick)].add(new Entry<>(item, tick));
+        size++;
+    }
+
+    /**
+     * Removes and returns every item whose deadline is at or before {@code nowNanos}.
+     */
+    public List<T> advance(long nowNanos) {
+        long lastTick = (nowNanos - originNanos) / tickNanos;
+        if (lastTick < nextTick)
+            return List.of();
+
+        List<T> due = new ArrayList<>();
+        // After a long pause one revolution already visits every slot.
+        long firstTick = Math.max(nextTick, lastTick - slots.length + 1);
+        for (long tick = firstTick; tick <= lastTick; tick++) {
+            Iterator<Entry<T>> entries = slots[slot(tick)].iterator();
+            while (entries.hasNext()) {
+                Entry<T> entry = entries.next();
+                if (entry.tick <= lastTick) {
+                    entries.remove();
+                    due.add(entry.item);
+                }
+            }
+        }
+        size -= due.size();
+        nextTick = lastTick + 1;
+        return due;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slot(long tick) {
+        return (int) (tick % slots.length);
+    }
+
+    private record Entry<T>(T item, long tick) {
+    }
+}
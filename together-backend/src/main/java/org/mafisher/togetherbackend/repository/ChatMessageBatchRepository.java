@@ -0,0 +1,80 @@
+package org.mafisher.togetherbackend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.mafisher.togetherbackend.chat.PendingChatMessage;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserts chat messages with a single JDBC batch, bypassing the persistence context.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ChatMessageBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO \"chat_message\" (\"room_id\", \"seq\", \"sender_id\", \"content\", \"created_at\") VALUES (?, ?, ?, ?, ?)";
+    private static final String MAX_SEQ_SQL =
+            "SELECT \"room_id\", MAX(\"seq\") FROM \"chat_message\" WHERE \"room_id\" IN (:roomIds) GROUP BY \"room_id\"";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the generated ids in the order of {@code messages}.
+     */
+    public List<Long> insertAll(List<PendingChatMessage> messages) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        PendingChatMessage message = messages.get(i);
+                        ps.setLong(1, message.getRoomId());
+                        ps.setLong(2, message.getSeq());
+                        ps.setLong(3, message.getSenderId());
+                        ps.setString(4, message.getContent());
+                        ps.setTimestamp(5, Timestamp.from(message.getCreatedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return messages.size();
+                    }
+                },
+                keys);
+        return keys.getKeyList().stream()
+                .map(ChatMessageBatchRepository::generatedId)
+                .toList();
+    }
+
+    /**
+     * Returns the highest sequence of each room, with 0 for rooms without messages.
+     */
+    public Map<Long, Long> findMaxSeqs(Collection<Long> roomIds) {
+        Map<Long, Long> maxSeqs = new HashMap<>();
+        roomIds.forEach(roomId -> maxSeqs.put(roomId, 0L));
+        new NamedParameterJdbcTemplate(jdbcTemplate).query(MAX_SEQ_SQL, Map.of("roomIds", roomIds), rs -> {
+            long maxSeq = rs.getLong(2);
+            if (!rs.wasNull())
+                maxSeqs.put(rs.getLong(1), maxSeq);
+        });
+        return maxSeqs;
+    }
+
+    private static Long generatedId(Map<String, Object> key) {
+        return ((Number) key.values().iterator().next()).longValue();
+    }
+}
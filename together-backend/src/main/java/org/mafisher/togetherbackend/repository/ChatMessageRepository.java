@@ -0,0 +1,28 @@
+package org.mafisher.togetherbackend.repository;
+
+import org.mafisher.togetherbackend.entity.ChatMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender " +
+            "WHERE m.room.id = :roomId ORDER BY m.seq DESC")
+    List<ChatMessage> findLatest(@Param("roomId") Long roomId, Pageable pageable);
+
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender " +
+            "WHERE m.room.id = :roomId AND m.seq < :beforeSeq ORDER BY m.seq DESC")
+    List<ChatMessage> findBefore(@Param("roomId") Long roomId, @Param("beforeSeq") Long beforeSeq, Pageable pageable);
+
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender " +
+            "WHERE m.room.id = :roomId AND m.seq > :afterSeq ORDER BY m.seq ASC")
+    List<ChatMessage> findAfter(@Param("roomId") Long roomId, @Param("afterSeq") Long afterSeq, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM ChatMessage m WHERE m.room.id = :roomId")
+    int deleteByRoomId(@Param("roomId") Long roomId);
+}
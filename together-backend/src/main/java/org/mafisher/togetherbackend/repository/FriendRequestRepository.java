@@ -6,11 +6,52 @@ import org.mafisher.togetherbackend.enums.FriendRequestStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface FriendRequestRepository extends JpaRepository<FriendRequest, Long> {
+    /**
+     * Selects only the columns the received list shows, so no sender entity (and none of its EAGER roles)
+     * is loaded per row.
+     */
+    String RECEIVED_SELECT = "SELECT fr.id AS id, fr.createdAt AS createdAt, s.id AS senderId, " +
+            "s.firstName AS senderFirstName, s.lastName AS senderLastName, s.nickName AS senderNickName, " +
+            "s.email AS senderEmail FROM FriendRequest fr JOIN fr.sender s ";
+
     Page<FriendRequest> findByReceiverAndStatus(User receiver, FriendRequestStatus status, Pageable pageable);
     Optional<FriendRequest> findBySenderAndReceiver(User sender, User receiver);
-}
+    long countByReceiverIdAndStatus(Long receiverId, FriendRequestStatus status);
+
+    @Query(RECEIVED_SELECT +
+            "WHERE fr.receiver.id = :receiverId AND fr.status = :status " +
+            "ORDER BY fr.createdAt DESC, fr.id DESC")
+    List<ReceivedRequest> findReceived(
+            @Param("receiverId") Long receiverId,
+            @Param("status") FriendRequestStatus status,
+            Pageable pageable);
 
+    @Query(RECEIVED_SELECT +
+            "WHERE fr.receiver.id = :receiverId AND fr.status = :status " +
+            "AND (fr.createdAt < :createdAt OR (fr.createdAt = :createdAt AND fr.id < :id)) " +
+            "ORDER BY fr.createdAt DESC, fr.id DESC")
+    List<ReceivedRequest> findReceivedBefore(
+            @Param("receiverId") Long receiverId,
+            @Param("status") FriendRequestStatus status,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    interface ReceivedRequest {
+        Long getId();
+        LocalDateTime getCreatedAt();
+        Long getSenderId();
+        String getSenderFirstName();
+        String getSenderLastName();
+        String getSenderNickName();
+        String getSenderEmail();
+    }
+}
@@ -8,16 +8,39 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
+
 public interface FriendshipRepository extends JpaRepository<Friendship, Long> {
     @Query("SELECT f FROM Friendship f WHERE f.user1 = :user OR f.user2 = :user")
     Page<Friendship> findByUser(@Param("user") User user, Pageable pageable);
 
-    @Query("SELECT f.user2 FROM Friendship f WHERE f.user1 = :user " +
-            "UNION " +
-            "SELECT f.user1 FROM Friendship f WHERE f.user2 = :user")
+    @Query(value = "SELECT f.user2 FROM Friendship f WHERE f.user1 = :user " +
+            "UNION ALL " +
+            "SELECT f.user1 FROM Friendship f WHERE f.user2 = :user",
+            countQuery = "SELECT COUNT(f) FROM Friendship f WHERE f.user1 = :user OR f.user2 = :user")
     Page<User> findFriendsByUser(@Param("user") User user, Pageable pageable);
 
-    @Query("SELECT CASE WHEN COUNT(f) > 0 THEN TRUE ELSE FALSE END FROM Friendship f" +
-            " WHERE (f.user1 = :u1 AND f.user2 = :u2) OR (f.user1 = :u2 AND f.user2 = :u1)")
-    boolean existsBetweenUsers(@Param("u1") User u1, @Param("u2") User u2);
+    @Query("SELECT COUNT(f) > 0 FROM Friendship f WHERE f.user1.id = :user1Id AND f.user2.id = :user2Id")
+    boolean existsPair(@Param("user1Id") Long user1Id, @Param("user2Id") Long user2Id);
+
+    @Query("SELECT f.id AS id, f.user1.id AS user1Id, f.user2.id AS user2Id FROM Friendship f " +
+            "WHERE f.id > :afterId ORDER BY f.id")
+    List<FriendshipEdge> findEdgesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT f.user2.id FROM Friendship f WHERE f.user1.id = :userId " +
+            "UNION ALL " +
+            "SELECT f.user1.id FROM Friendship f WHERE f.user2.id = :userId")
+    List<Long> findFriendIds(@Param("userId") Long userId);
+
+    default boolean existsBetweenUsers(User u1, User u2) {
+        long a = u1.getId();
+        long b = u2.getId();
+        return a <= b ? existsPair(a, b) : existsPair(b, a);
+    }
+
+    interface FriendshipEdge {
+        Long getId();
+        Long getUser1Id();
+        Long getUser2Id();
+    }
 }
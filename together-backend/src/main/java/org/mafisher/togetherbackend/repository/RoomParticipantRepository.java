@@ -0,0 +1,92 @@
+package org.mafisher.togetherbackend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Writes room membership straight to the {@code room_participants} join table, so adding or removing one
+ * member is a single statement on its primary key instead of loading and diffing {@code Room.participants}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RoomParticipantRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO \"room_participants\" (\"room_id\", \"participants_id\") VALUES (?, ?)";
+    private static final String DELETE_SQL =
+            "DELETE FROM \"room_participants\" WHERE \"room_id\" = ? AND \"participants_id\" = ?";
+
+    private static final String MEMBERSHIPS_SQL =
+            "SELECT \"room_id\", \"participants_id\" FROM \"room_participants\" " +
+            "UNION SELECT \"id\", \"owner_id\" FROM \"room\" WHERE \"owner_id\" IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Throws {@link org.springframework.dao.DuplicateKeyException} if the user is already a member.
+     */
+    public void insert(Long roomId, Long userId) {
+        jdbcTemplate.update(INSERT_SQL, roomId, userId);
+    }
+
+    /**
+     * Adds all users in one batch, or none of them: throws {@link org.springframework.dao.DuplicateKeyException}
+     * if any of them is already a member.
+     */
+    @Transactional
+    public void insertAll(Long roomId, List<Long> userIds) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, userIds, userIds.size(), (ps, userId) -> {
+            ps.setLong(1, roomId);
+            ps.setLong(2, userId);
+        });
+    }
+
+    /**
+     * Removes all users in one batch.
+     */
+    public void deleteAll(Long roomId, List<Long> userIds) {
+        jdbcTemplate.batchUpdate(DELETE_SQL, userIds, userIds.size(), (ps, userId) -> {
+            ps.setLong(1, roomId);
+            ps.setLong(2, userId);
+        });
+    }
+
+    /**
+     * Returns whether the user was a member.
+     */
+    public boolean delete(Long roomId, Long userId) {
+        return jdbcTemplate.update(DELETE_SQL, roomId, userId) > 0;
+    }
+
+    /**
+     * Streams every (room, member) pair, owners included, ordered by room and then user.
+     */
+    public void forEachMembership(MembershipHandler handler) {
+        jdbcTemplate.query(MEMBERSHIPS_SQL + " ORDER BY 1, 2",
+                (RowCallbackHandler) rs -> handler.accept(rs.getLong(1), rs.getLong(2)));
+    }
+
+    /**
+     * Streams the member count and the sum of the member ids of every room with members, owners included.
+     */
+    public void forEachRoomDigest(RoomDigestHandler handler) {
+        jdbcTemplate.query("SELECT \"room_id\", COUNT(*), SUM(\"participants_id\") FROM (" + MEMBERSHIPS_SQL + ") m "
+                        + "GROUP BY \"room_id\"",
+                (RowCallbackHandler) rs -> handler.accept(rs.getLong(1), rs.getLong(2), rs.getLong(3)));
+    }
+
+    @FunctionalInterface
+    public interface MembershipHandler {
+        void accept(long roomId, long userId);
+    }
+
+    @FunctionalInterface
+    public interface RoomDigestHandler {
+        void accept(long roomId, long members, long memberIdSum);
+    }
+}
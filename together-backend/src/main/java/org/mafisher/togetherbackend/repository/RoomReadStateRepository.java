@@ -0,0 +1,74 @@
+package org.mafisher.togetherbackend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.mafisher.togetherbackend.chat.ReadMark;
+import org.mafisher.togetherbackend.dto.UnreadCountDto;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Read positions, written and read with plain JDBC so a flush is one batch of upserts.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RoomReadStateRepository {
+
+    // positions only ever move forward, so a late or repeated flush cannot rewind a newer one
+    private static final String UPSERT_SQL =
+            "MERGE INTO \"room_read_state\" t " +
+            "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT))) AS s (\"user_id\", \"room_id\", \"last_read_seq\") " +
+            "ON t.\"user_id\" = s.\"user_id\" AND t.\"room_id\" = s.\"room_id\" " +
+            "WHEN MATCHED AND t.\"last_read_seq\" < s.\"last_read_seq\" THEN " +
+            "UPDATE SET \"last_read_seq\" = s.\"last_read_seq\" " +
+            "WHEN NOT MATCHED THEN " +
+            "INSERT (\"user_id\", \"room_id\", \"last_read_seq\") VALUES (s.\"user_id\", s.\"room_id\", s.\"last_read_seq\")";
+
+    private static final String UNREAD_SQL =
+            "SELECT r.\"id\", COALESCE(rs.\"last_read_seq\", 0), " +
+            "(SELECT COALESCE(MAX(m.\"seq\"), 0) FROM \"chat_message\" m WHERE m.\"room_id\" = r.\"id\") " +
+            "FROM \"room\" r " +
+            "LEFT JOIN \"room_read_state\" rs ON rs.\"room_id\" = r.\"id\" AND rs.\"user_id\" = ? " +
+            "WHERE r.\"owner_id\" = ? " +
+            "OR EXISTS (SELECT 1 FROM \"room_participants\" p WHERE p.\"room_id\" = r.\"id\" AND p.\"participants_id\" = ?)";
+
+    private static final String DELETE_ROOM_SQL = "DELETE FROM \"room_read_state\" WHERE \"room_id\" = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void upsertAll(List<ReadMark> marks) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ReadMark mark = marks.get(i);
+                ps.setLong(1, mark.userId());
+                ps.setLong(2, mark.roomId());
+                ps.setLong(3, mark.seq());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return marks.size();
+            }
+        });
+    }
+
+    /**
+     * Returns the read position and highest message sequence of every room the user belongs to.
+     */
+    public List<UnreadCountDto> findReadPositions(Long userId) {
+        return jdbcTemplate.query(UNREAD_SQL, (rs, rowNum) -> UnreadCountDto.builder()
+                .roomId(rs.getLong(1))
+                .lastReadSeq(rs.getLong(2))
+                .lastSeq(rs.getLong(3))
+                .build(), userId, userId, userId);
+    }
+
+    public void deleteByRoomId(Long roomId) {
+        jdbcTemplate.update(DELETE_ROOM_SQL, roomId);
+    }
+}
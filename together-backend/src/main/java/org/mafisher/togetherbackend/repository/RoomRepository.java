@@ -1,22 +1,49 @@
 package org.mafisher.togetherbackend.repository;
 
+import org.mafisher.togetherbackend.dto.ParticipantDto;
+import org.mafisher.togetherbackend.dto.RoomSummaryDto;
 import org.mafisher.togetherbackend.entity.Room;
 import org.mafisher.togetherbackend.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface RoomRepository extends JpaRepository<Room, Long> {
     Optional<Room> findByOwnerAndName(User owner, String name);
-    List<Room> findByOwner(User owner);
 
-    @Query("SELECT r FROM Room r WHERE r.owner = :user OR :user MEMBER OF r.participants")
-    List<Room> findRoomsByUser(@Param("user") User user);
+    @Query("SELECT new org.mafisher.togetherbackend.dto.RoomSummaryDto(" +
+            "r.id, r.name, o.id, o.nickName, (SELECT COUNT(p) FROM Room c JOIN c.participants p WHERE c.id = r.id)) " +
+            "FROM Room r JOIN r.owner o WHERE o.id = :userId ORDER BY r.id")
+    List<RoomSummaryDto> findSummariesByOwnerId(@Param("userId") Long userId);
+
+    @Query("SELECT new org.mafisher.togetherbackend.dto.RoomSummaryDto(" +
+            "r.id, r.name, o.id, o.nickName, (SELECT COUNT(p) FROM Room c JOIN c.participants p WHERE c.id = r.id)) " +
+            "FROM Room r JOIN r.owner o " +
+            "WHERE o.id = :userId " +
+            "OR EXISTS (SELECT 1 FROM Room m JOIN m.participants p WHERE m.id = r.id AND p.id = :userId) " +
+            "ORDER BY r.id")
+    List<RoomSummaryDto> findSummariesByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT new org.mafisher.togetherbackend.dto.ParticipantDto(p.id, p.nickName, p.firstName, p.lastName) " +
+            "FROM Room r JOIN r.participants p WHERE r.id = :roomId AND p.id > :afterId ORDER BY p.id")
+    List<ParticipantDto> findParticipantsAfter(
+            @Param("roomId") Long roomId,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    @Query("SELECT p.id FROM Room r JOIN r.participants p WHERE r.id = :roomId ORDER BY p.id")
+    List<Long> findParticipantIds(@Param("roomId") Long roomId);
+
+    @Query("SELECT p.id FROM Room r JOIN r.participants p WHERE r.id = :roomId AND p.id IN :userIds")
+    List<Long> findParticipantIdsAmong(@Param("roomId") Long roomId, @Param("userIds") Collection<Long> userIds);
 
     @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END " +
-            "FROM Room r WHERE r = :room AND (r.owner = :user OR :user MEMBER OF r.participants)")
-    boolean isUserInRoom(@Param("room") Room room, @Param("user") User user);
+            "FROM Room r WHERE r.id = :roomId AND (r.owner.id = :userId " +
+            "OR EXISTS (SELECT 1 FROM Room m JOIN m.participants p WHERE m.id = :roomId AND p.id = :userId))")
+    boolean isUserInRoom(@Param("roomId") Long roomId, @Param("userId") Long userId);
 }
@@ -1,21 +1,47 @@
 package org.mafisher.togetherbackend.repository;
 
 import org.mafisher.togetherbackend.entity.User;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByNickName(String username);
     Optional<User> findByEmail(String email);
 
+    @Query("SELECT u.tokenVersion FROM user u WHERE u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE user u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id);
+
     @Query("SELECT u FROM user u WHERE " +
             "LOWER(u.nickName) LIKE LOWER(CONCAT('%', :query, '%')) AND u <> :currentUser " +
-            "AND NOT EXISTS (SELECT f FROM Friendship f WHERE " +
-            "(f.user1 = :currentUser AND f.user2 = u) OR (f.user2 = :currentUser AND f.user1 = u))")
-    Page<User> findPotentialFriends(@Param("query") String query, @Param("currentUser") User currentUser, Pageable pageable);
+            "AND NOT EXISTS (SELECT 1 FROM Friendship f WHERE f.user1 = :currentUser AND f.user2 = u) " +
+            "AND NOT EXISTS (SELECT 1 FROM Friendship f WHERE f.user1 = u AND f.user2 = :currentUser)")
+    Slice<User> findPotentialFriends(@Param("query") String query, @Param("currentUser") User currentUser, Pageable pageable);
+
+    @Query("SELECT u.id AS id, u.nickName AS nickName FROM user u " +
+            "WHERE u.id > :afterId AND u.nickName IS NOT NULL ORDER BY u.id")
+    List<UserNickname> findNicknamesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT u.id AS id, u.nickName AS nickName FROM user u " +
+            "WHERE LOWER(u.nickName) LIKE :pattern ESCAPE '\\' ORDER BY LOWER(u.nickName), u.id")
+    List<UserNickname> findNicknamesLike(@Param("pattern") String pattern, Pageable pageable);
+
+    @Query("SELECT u.id AS id, u.nickName AS nickName FROM user u WHERE u.nickName IN :nicknames")
+    List<UserNickname> findNicknamesIn(@Param("nicknames") Collection<String> nicknames);
+
+    interface UserNickname {
+        Long getId();
+        String getNickName();
+    }
 }
@@ -0,0 +1,42 @@
+package org.mafisher.togetherbackend.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable pair of parallel arrays used to collect users before building a {@link NicknameIndex}.
+ */
+public final class NicknameBuffer {
+
+    private long[] ids;
+    private String[] nickNames;
+    private int size;
+
+    public NicknameBuffer(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        this.ids = new long[capacity];
+        this.nickNames = new String[capacity];
+    }
+
+    public void add(long id, String nickName) {
+        if (size == ids.length) {
+            int capacity = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            nickNames = Arrays.copyOf(nickNames, capacity);
+        }
+        ids[size] = id;
+        nickNames[size] = nickName;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    long[] ids() {
+        return ids;
+    }
+
+    String[] nickNames() {
+        return nickNames;
+    }
+}
@@ -0,0 +1,115 @@
+package org.mafisher.togetherbackend.search;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.LongPredicate;
+
+/**
+ * Immutable prefix index over nicknames: {@code keys} holds the lower-cased nicknames in sorted order and
+ * {@code ids} / {@code nickNames} are parallel to it. A prefix query is one binary search for the first key
+ * that is not smaller than the prefix followed by a forward scan while keys still start with it.
+ */
+public final class NicknameIndex {
+
+    public static final NicknameIndex EMPTY = new NicknameIndex(new String[0], new long[0], new String[0]);
+
+    private final String[] keys;
+    private final long[] ids;
+    private final String[] nickNames;
+
+    private NicknameIndex(String[] keys, long[] ids, String[] nickNames) {
+        this.keys = keys;
+        this.ids = ids;
+        this.nickNames = nickNames;
+    }
+
+    /**
+     * Calls {@code consumer} for up to {@code limit} entries whose nickname starts with {@code prefix},
+     * ignoring case, in key order. Entries rejected by {@code exclude} do not count towards the limit.
+     *
+     * @return the number of entries passed to {@code consumer}
+     */
+    public int prefix(String prefix, int limit, LongPredicate exclude, Entry consumer) {
+        String key = normalize(prefix);
+        int index = lowerBound(key);
+        int found = 0;
+        for (int i = index; i < keys.length && found < limit && keys[i].startsWith(key); i++) {
+            if (exclude.test(ids[i]))
+                continue;
+            consumer.accept(ids[i], nickNames[i]);
+            found++;
+        }
+        return found;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public static String normalize(String nickName) {
+        return nickName.toLowerCase(Locale.ROOT);
+    }
+
+    public static NicknameIndex build(NicknameBuffer entries) {
+        int size = entries.size();
+        if (size == 0)
+            return EMPTY;
+
+        String[] keys = new String[size];
+        for (int i = 0; i < size; i++)
+            keys[i] = normalize(entries.nickNames()[i]);
+
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> {
+            int byKey = keys[a].compareTo(keys[b]);
+            return byKey != 0 ? byKey : Long.compare(entries.ids()[a], entries.ids()[b]);
+        });
+
+        String[] sortedKeys = new String[size];
+        long[] sortedIds = new long[size];
+        String[] sortedNickNames = new String[size];
+        int written = 0;
+        for (int position : order) {
+            long id = entries.ids()[position];
+            if (written > 0 && sortedIds[written - 1] == id && sortedKeys[written - 1].equals(keys[position]))
+                continue;
+            sortedKeys[written] = keys[position];
+            sortedIds[written] = id;
+            sortedNickNames[written] = entries.nickNames()[position];
+            written++;
+        }
+
+        if (written < size)
+            return new NicknameIndex(Arrays.copyOf(sortedKeys, written), Arrays.copyOf(sortedIds, written),
+                    Arrays.copyOf(sortedNickNames, written));
+        return new NicknameIndex(sortedKeys, sortedIds, sortedNickNames);
+    }
+
+    /**
+     * Appends every entry of this index to {@code entries}.
+     */
+    public void copyEntriesTo(NicknameBuffer entries) {
+        for (int i = 0; i < keys.length; i++)
+            entries.add(ids[i], nickNames[i]);
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    @FunctionalInterface
+    public interface Entry {
+        void accept(long id, String nickName);
+    }
+}
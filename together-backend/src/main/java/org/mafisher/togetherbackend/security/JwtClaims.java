@@ -0,0 +1,35 @@
+package org.mafisher.togetherbackend.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+@Builder
+@AllArgsConstructor
+public class JwtClaims {
+    public static final String USER_ID = "uid";
+    public static final String NICKNAME = "nick";
+    public static final String ROLES = "roles";
+    public static final String TOKEN_VERSION = "ver";
+
+    private final String subject;
+    private final Long userId;
+    private final String nickname;
+    @Builder.Default
+    private final List<String> roles = List.of();
+    private final int tokenVersion;
+    private final Instant issuedAt;
+    private final Instant expiration;
+
+    public boolean isExpired(Instant now) {
+        return expiration != null && !expiration.isAfter(now);
+    }
+
+    public boolean hasIdentity() {
+        return subject != null && userId != null;
+    }
+}
@@ -0,0 +1,66 @@
+package org.mafisher.togetherbackend.security;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated user rebuilt from verified token claims, so the filter chain does not have to
+ * load the {@code User} entity. {@link #getName()} stays the e-mail address, like {@code User}.
+ */
+@Getter
+@EqualsAndHashCode(of = "id")
+public class JwtPrincipal implements UserDetails, Principal {
+
+    private final Long id;
+    private final String email;
+    private final String nickname;
+    private final int tokenVersion;
+    private final List<GrantedAuthority> authorities;
+
+    public JwtPrincipal(Long id, String email, String nickname, int tokenVersion, List<String> roles) {
+        this.id = id;
+        this.email = email;
+        this.nickname = nickname;
+        this.tokenVersion = tokenVersion;
+        this.authorities = roles.stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+
+    public static JwtPrincipal from(JwtClaims claims) {
+        return new JwtPrincipal(
+                claims.getUserId(),
+                claims.getSubject(),
+                claims.getNickname(),
+                claims.getTokenVersion(),
+                claims.getRoles()
+        );
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
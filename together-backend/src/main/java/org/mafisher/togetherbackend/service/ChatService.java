@@ -0,0 +1,20 @@
+package org.mafisher.togetherbackend.service;
+
+import org.mafisher.togetherbackend.dto.ChatMessageDto;
+import org.mafisher.togetherbackend.dto.CursorPage;
+import org.mafisher.togetherbackend.dto.UnreadCountDto;
+import org.mafisher.togetherbackend.dto.request.ReadRequest;
+import org.mafisher.togetherbackend.dto.request.SendMessageRequest;
+import org.mafisher.togetherbackend.dto.request.TypingRequest;
+
+import java.security.Principal;
+import java.util.List;
+
+public interface ChatService {
+    ChatMessageDto sendMessage(Long roomId, SendMessageRequest request, Principal principal);
+    CursorPage<ChatMessageDto> getHistory(Long roomId, Long beforeSeq, int limit, Principal principal);
+    List<ChatMessageDto> getMessagesAfter(Long roomId, Long afterSeq, int limit, Principal principal);
+    void setTyping(Long roomId, TypingRequest request, String sessionId, Principal principal);
+    void markRead(Long roomId, ReadRequest request, Principal principal);
+    List<UnreadCountDto> getUnreadCounts(Principal principal);
+}
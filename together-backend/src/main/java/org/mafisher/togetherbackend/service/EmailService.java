@@ -2,6 +2,7 @@ package org.mafisher.togetherbackend.service;
 
 
 import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
 import org.mafisher.togetherbackend.email.EmailTemplateName;
 
 public interface EmailService {
@@ -14,4 +15,20 @@ public interface EmailService {
             String subject
     ) throws MessagingException;
 
+    void queueEmail(
+            String to,
+            String username,
+            EmailTemplateName emailTemplate,
+            String confirmationURL,
+            String subject
+    );
+
+    MimeMessage createEmail(
+            String to,
+            String username,
+            EmailTemplateName emailTemplate,
+            String confirmationURL,
+            String subject
+    ) throws MessagingException;
+
 }
@@ -0,0 +1,10 @@
+package org.mafisher.togetherbackend.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.security.Principal;
+
+public interface EventStreamService {
+    SseEmitter streamRoom(Long roomId, String lastEventId, Principal principal);
+    SseEmitter streamNotifications(Principal principal);
+}
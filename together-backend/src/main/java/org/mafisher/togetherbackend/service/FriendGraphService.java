@@ -0,0 +1,10 @@
+package org.mafisher.togetherbackend.service;
+
+public interface FriendGraphService {
+    boolean areFriends(Long userId1, Long userId2);
+    long[] getFriendIds(Long userId);
+    void addFriendship(Long userId1, Long userId2);
+    boolean isLoaded();
+    void reload();
+    boolean verifyConsistency();
+}
@@ -0,0 +1,9 @@
+package org.mafisher.togetherbackend.service;
+
+import org.mafisher.togetherbackend.entity.User;
+import org.mafisher.togetherbackend.enums.FriendRequestEventType;
+
+public interface FriendNotificationService {
+    void notify(User recipient, FriendRequestEventType type, User counterpart);
+    long unreadCount(Long userId);
+}
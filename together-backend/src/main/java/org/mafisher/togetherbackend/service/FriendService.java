@@ -1,8 +1,10 @@
 package org.mafisher.togetherbackend.service;
 
+import org.mafisher.togetherbackend.dto.CursorPage;
 import org.mafisher.togetherbackend.dto.UserDto;
-import org.springframework.data.domain.Page;
+import org.mafisher.togetherbackend.dto.UserSuggestionDto;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.security.Principal;
 import java.util.List;
@@ -13,5 +15,9 @@ public interface FriendService {
     void rejectRequest(String nickname, Principal principal);
     List<UserDto> getFriends(Principal principal, Pageable pageable);
     List<UserDto> getReceivedRequests(Principal principal, Pageable pageable);
-    Page<UserDto> searchUsers(String query, Pageable pageable, Principal principal);
+    CursorPage<UserDto> getReceivedRequests(Principal principal, String cursor, int limit);
+    long countReceivedRequests(Principal principal);
+    Slice<UserDto> searchUsers(String query, Pageable pageable, Principal principal);
+    List<UserSuggestionDto> suggestUsers(String prefix, int limit, Principal principal);
+    List<Long> getOnlineFriends(Principal principal);
 }
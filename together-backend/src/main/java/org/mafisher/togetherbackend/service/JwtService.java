@@ -1,10 +1,14 @@
 package org.mafisher.togetherbackend.service;
 
+import org.mafisher.togetherbackend.entity.User;
 import org.mafisher.togetherbackend.handler.CustomException;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.mafisher.togetherbackend.security.JwtClaims;
+
+import java.util.Optional;
 
 public interface JwtService {
-    String generateToken(String username);
+    String generateToken(User user);
     String extractUserName(String token);
     boolean validateJwtToken(String authToken) throws CustomException;
+    Optional<JwtClaims> verify(String token);
 }
@@ -0,0 +1,11 @@
+package org.mafisher.togetherbackend.service;
+
+import java.security.Principal;
+
+public interface PresenceService {
+    void connect(String sessionId, Principal principal);
+    void touch(String sessionId);
+    void disconnect(String sessionId);
+    boolean isOnline(Long userId);
+    long[] onlineAmong(long[] userIds);
+}
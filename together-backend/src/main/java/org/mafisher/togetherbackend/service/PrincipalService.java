@@ -6,6 +6,9 @@ import java.security.Principal;
 
 public interface PrincipalService {
     User checkUserPrincipal(Principal principal);
+    Long userIdOf(Principal principal);
     User checkUserExist(String nickname);
     boolean isUsersDifferent(User user1, User user2);
+    void invalidate(User user);
+    void invalidate(Long userId);
 }
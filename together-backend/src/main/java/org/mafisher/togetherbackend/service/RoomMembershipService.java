@@ -0,0 +1,14 @@
+package org.mafisher.togetherbackend.service;
+
+import java.util.Collection;
+
+public interface RoomMembershipService {
+    boolean isMember(Long roomId, Long userId);
+    void roomCreated(Long roomId, Long ownerId);
+    void roomDeleted(Long roomId);
+    void membersAdded(Long roomId, Collection<Long> userIds);
+    void membersRemoved(Long roomId, Collection<Long> userIds);
+    boolean isLoaded();
+    void reload();
+    boolean verifyConsistency();
+}
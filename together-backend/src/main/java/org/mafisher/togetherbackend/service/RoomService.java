@@ -1,8 +1,14 @@
 package org.mafisher.togetherbackend.service;
 
 
+import org.mafisher.togetherbackend.dto.CursorPage;
+import org.mafisher.togetherbackend.dto.ParticipantChangeDto;
+import org.mafisher.togetherbackend.dto.ParticipantDto;
 import org.mafisher.togetherbackend.dto.RoomDto;
+import org.mafisher.togetherbackend.dto.RoomSummaryDto;
 import org.mafisher.togetherbackend.dto.request.CreateRoomRequest;
+import org.mafisher.togetherbackend.dto.request.ParticipantsRequest;
+import org.mafisher.togetherbackend.enums.RoomView;
 
 import java.security.Principal;
 import java.util.List;
@@ -10,8 +16,11 @@ import java.util.List;
 public interface RoomService {
     RoomDto createRoom(CreateRoomRequest createRoomRequest, Principal principal);
     void deleteRoom(Long roomId, Principal principal);
-    RoomDto addParticipant(Long roomId, String username, Principal principal);
-    RoomDto removeParticipant(Long roomId, String username, Principal principal);
-    List<RoomDto> getOwnedRooms(Principal principal);
-    List<RoomDto> getBelongsRooms(Principal principal);
+    RoomDto addParticipant(Long roomId, String username, RoomView view, Principal principal);
+    RoomDto removeParticipant(Long roomId, String username, RoomView view, Principal principal);
+    List<RoomSummaryDto> getOwnedRooms(Principal principal);
+    List<RoomSummaryDto> getBelongsRooms(Principal principal);
+    List<ParticipantChangeDto> addParticipants(Long roomId, ParticipantsRequest request, Principal principal);
+    List<ParticipantChangeDto> removeParticipants(Long roomId, ParticipantsRequest request, Principal principal);
+    CursorPage<ParticipantDto> getParticipants(Long roomId, String cursor, int limit, Principal principal);
 }
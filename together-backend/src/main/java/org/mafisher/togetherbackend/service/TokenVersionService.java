@@ -0,0 +1,6 @@
+package org.mafisher.togetherbackend.service;
+
+public interface TokenVersionService {
+    boolean isCurrent(Long userId, int tokenVersion);
+    void revokeTokens(Long userId);
+}
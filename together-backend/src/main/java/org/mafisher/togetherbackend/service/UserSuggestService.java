@@ -0,0 +1,12 @@
+package org.mafisher.togetherbackend.service;
+
+import org.mafisher.togetherbackend.dto.UserSuggestionDto;
+
+import java.util.List;
+
+public interface UserSuggestService {
+    List<UserSuggestionDto> suggest(String prefix, int limit, Long excludedUserId);
+    void addUser(Long userId, String nickName);
+    boolean isLoaded();
+    void reload();
+}
@@ -13,11 +13,15 @@ import org.mafisher.togetherbackend.handler.BusinessErrorCodes;
 import org.mafisher.togetherbackend.handler.CustomException;
 import org.mafisher.togetherbackend.mappers.Mapper;
 import org.mafisher.togetherbackend.repository.RolesRepository;
+import org.mafisher.togetherbackend.security.JwtClaims;
 import org.mafisher.togetherbackend.repository.UserRepository;
 import org.mafisher.togetherbackend.service.ActivationTokenService;
 import org.mafisher.togetherbackend.service.AuthService;
 import org.mafisher.togetherbackend.service.EmailService;
 import org.mafisher.togetherbackend.service.JwtService;
+import org.mafisher.togetherbackend.service.PrincipalService;
+import org.mafisher.togetherbackend.service.TokenVersionService;
+import org.mafisher.togetherbackend.service.UserSuggestService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -25,6 +29,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Set;
 
@@ -40,11 +45,15 @@ public class AuthServiceImpl implements AuthService {
     private final RolesRepository rolesRepository;
     private final EmailService emailService;
     private final ActivationTokenService activationTokenService;
+    private final UserSuggestService userSuggestService;
+    private final TokenVersionService tokenVersionService;
+    private final PrincipalService principalService;
 
     @Value("${mailing.backend.activation-url}")
     private String activationUrl;
 
     @Override
+    @Transactional
     public UserDto createUser(RegisterRequest registerRequest) throws MessagingException {
         userRepository.findByEmail(registerRequest.getEmail())
                 .ifPresent(email -> {
@@ -72,6 +81,7 @@ public class AuthServiceImpl implements AuthService {
         User savedUser = userRepository.save(user);
         activationTokenService.createActivationToken(savedUser);
         sendValidationEmail(savedUser);
+        userSuggestService.addUser(savedUser.getId(), savedUser.getNickName());
         return mapper.mapTo(savedUser);
     }
 
@@ -89,13 +99,13 @@ public class AuthServiceImpl implements AuthService {
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
         if (authentication.isAuthenticated()) {
-            String email = loginRequest.getEmail();
-            return jwtService.generateToken(email);
+            return jwtService.generateToken(user);
         }
         throw new CustomException(BusinessErrorCodes.BAD_CREDENTIALS);
     }
 
     @Override
+    @Transactional(noRollbackFor = CustomException.class)
     public void activateUser(Long id, String token) throws MessagingException {
         User userEntity = userRepository.findById(id)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
@@ -114,16 +124,18 @@ public class AuthServiceImpl implements AuthService {
         else{
             userEntity.setEnable(true);
             userRepository.save(userEntity);
+            principalService.invalidate(userEntity.getId());
             activationTokenService.deleteActivationToken(activationToken);
         }
     }
 
     @Override
     public UserDto verifyToken(String token) {
-        if(!jwtService.validateJwtToken(token)){
-            throw new CustomException(BusinessErrorCodes.INVALID_TOKEN);
-        }
-        String userName = jwtService.extractUserName(token);
+        String userName = jwtService.verify(token)
+                .filter(JwtClaims::hasIdentity)
+                .filter(claims -> tokenVersionService.isCurrent(claims.getUserId(), claims.getTokenVersion()))
+                .map(JwtClaims::getSubject)
+                .orElseThrow(() -> new CustomException(BusinessErrorCodes.INVALID_TOKEN));
 
         User user = userRepository.findByEmail(userName).orElseThrow(
                 () -> new RuntimeException("User not found")
@@ -149,9 +161,9 @@ public class AuthServiceImpl implements AuthService {
                 () -> new UsernameNotFoundException("User not found")));
     }
 
-    private void sendValidationEmail(User user) throws MessagingException {
+    private void sendValidationEmail(User user) {
         ActivationToken activationToken = activationTokenService.getActivationTokenByUser(user);
-        emailService.sendEmail(
+        emailService.queueEmail(
                 user.getEmail(),
                 user.getFirstName(),
                 EmailTemplateName.ACTIVATE_ACCOUNT,
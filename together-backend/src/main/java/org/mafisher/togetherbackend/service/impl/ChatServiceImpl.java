@@ -0,0 +1,168 @@
+package org.mafisher.togetherbackend.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.mafisher.togetherbackend.chat.ChatHistoryCache;
+import org.mafisher.togetherbackend.chat.ChatMessageWriter;
+import org.mafisher.togetherbackend.chat.ReadReceiptAggregator;
+import org.mafisher.togetherbackend.chat.RoomActivityCoalescer;
+import org.mafisher.togetherbackend.chat.RoomFanout;
+import org.mafisher.togetherbackend.chat.SseFanout;
+import org.mafisher.togetherbackend.dto.ChatMessageDto;
+import org.mafisher.togetherbackend.dto.CursorPage;
+import org.mafisher.togetherbackend.dto.UnreadCountDto;
+import org.mafisher.togetherbackend.dto.request.ReadRequest;
+import org.mafisher.togetherbackend.dto.request.SendMessageRequest;
+import org.mafisher.togetherbackend.dto.request.TypingRequest;
+import org.mafisher.togetherbackend.entity.User;
+import org.mafisher.togetherbackend.enums.ChatDurability;
+import org.mafisher.togetherbackend.handler.BusinessErrorCodes;
+import org.mafisher.togetherbackend.handler.CustomException;
+import org.mafisher.togetherbackend.repository.RoomReadStateRepository;
+import org.mafisher.togetherbackend.service.ChatService;
+import org.mafisher.togetherbackend.service.PrincipalService;
+import org.mafisher.togetherbackend.service.RoomMembershipService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+@RequiredArgsConstructor
+public class ChatServiceImpl implements ChatService {
+
+    private static final int MAX_MESSAGE_LENGTH = 2000;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
+    private final ChatMessageWriter chatMessageWriter;
+    private final ChatHistoryCache chatHistoryCache;
+    private final RoomMembershipService roomMembershipService;
+    private final PrincipalService principalService;
+    private final RoomFanout roomFanout;
+    private final SseFanout sseFanout;
+    private final RoomActivityCoalescer roomActivityCoalescer;
+    private final ReadReceiptAggregator readReceiptAggregator;
+    private final RoomReadStateRepository roomReadStateRepository;
+
+    @Value("${application.chat.durability:SYNC}")
+    private ChatDurability durability = ChatDurability.SYNC;
+
+    @Value("${application.chat.ack-timeout:2s}")
+    private Duration ackTimeout = Duration.ofSeconds(2);
+
+    @Override
+    public ChatMessageDto sendMessage(Long roomId, SendMessageRequest request, Principal principal) {
+        User sender = principalService.checkUserPrincipal(principal);
+        String content = request == null ? null : request.getContent();
+        if (content == null || content.isBlank() || content.length() > MAX_MESSAGE_LENGTH)
+            throw new CustomException(BusinessErrorCodes.INVALID_MESSAGE);
+
+        checkRoomMember(roomId, sender);
+
+        Instant createdAt = Instant.now();
+        ChatMessageDto dto = ChatMessageDto.builder()
+                .roomId(roomId)
+                .senderId(sender.getId())
+                .senderNickName(sender.getNickName())
+                .content(content)
+                .createdAt(createdAt)
+                .build();
+
+        // Broadcast on commit so members only ever see messages with a sequence they can resume from,
+        // and off the writer thread so it only ever does database work.
+        CompletableFuture<ChatMessageDto> committed = chatMessageWriter.write(roomId, sender.getId(), content, createdAt)
+                .thenApply(ack -> dto.toBuilder().id(ack.id()).seq(ack.seq()).build());
+        committed.thenAcceptAsync(message -> {
+            chatHistoryCache.append(message);
+            roomFanout.publish(roomId, message);
+            sseFanout.publishMessage(message);
+            readReceiptAggregator.markRead(roomId, sender.getId(), message.getSeq());
+        }, roomFanout.publishExecutor());
+        roomActivityCoalescer.typing(roomId, sender.getId(), false);
+        return durability == ChatDurability.SYNC ? awaitCommit(committed) : dto;
+    }
+
+    @Override
+    public CursorPage<ChatMessageDto> getHistory(Long roomId, Long beforeSeq, int limit, Principal principal) {
+        checkRoomMember(roomId, principalService.checkUserPrincipal(principal));
+        int size = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+
+        List<ChatMessageDto> messages = chatHistoryCache.before(roomId, beforeSeq, size);
+        boolean hasMore = messages.size() > size;
+        List<ChatMessageDto> content = hasMore ? messages.subList(1, messages.size()) : messages;
+        return CursorPage.<ChatMessageDto>builder()
+                .items(content)
+                .nextCursor(hasMore ? String.valueOf(content.get(0).getSeq()) : null)
+                .build();
+    }
+
+    @Override
+    public List<ChatMessageDto> getMessagesAfter(Long roomId, Long afterSeq, int limit, Principal principal) {
+        checkRoomMember(roomId, principalService.checkUserPrincipal(principal));
+        int size = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        return chatHistoryCache.after(roomId, afterSeq == null ? 0 : afterSeq, size);
+    }
+
+    /**
+     * Typing indicators are far more frequent than messages, so membership is taken from the session's
+     * room subscription instead of the database.
+     */
+    @Override
+    public void setTyping(Long roomId, TypingRequest request, String sessionId, Principal principal) {
+        if (!roomFanout.isSubscribed(sessionId, roomId))
+            throw new CustomException(BusinessErrorCodes.USER_NOT_IN_ROOM);
+        roomActivityCoalescer.typing(roomId, principalService.userIdOf(principal), request != null && request.isTyping());
+    }
+
+    @Override
+    public void markRead(Long roomId, ReadRequest request, Principal principal) {
+        if (request == null || request.getSeq() == null || request.getSeq() < 0)
+            throw new CustomException(BusinessErrorCodes.INVALID_READ_POSITION);
+        User user = principalService.checkUserPrincipal(principal);
+        checkRoomMember(roomId, user);
+        // a position past the newest message would hide messages that have not been sent yet
+        long seq = Math.min(request.getSeq(), chatHistoryCache.latestSeq(roomId));
+        readReceiptAggregator.markRead(roomId, user.getId(), seq);
+    }
+
+    /**
+     * One query for the stored positions and every room's highest sequence; acks that are still waiting
+     * for the next flush are laid over it.
+     */
+    @Override
+    public List<UnreadCountDto> getUnreadCounts(Principal principal) {
+        User user = principalService.checkUserPrincipal(principal);
+        Map<Long, Long> pending = readReceiptAggregator.pendingFor(user.getId());
+        List<UnreadCountDto> counts = roomReadStateRepository.findReadPositions(user.getId());
+        for (UnreadCountDto count : counts) {
+            long lastRead = Math.min(count.getLastSeq(),
+                    Math.max(count.getLastReadSeq(), pending.getOrDefault(count.getRoomId(), 0L)));
+            count.setLastReadSeq(lastRead);
+            count.setUnread(count.getLastSeq() - lastRead);
+        }
+        return counts;
+    }
+
+    private void checkRoomMember(Long roomId, User user) {
+        if (!roomMembershipService.isMember(roomId, user.getId()))
+            throw new CustomException(BusinessErrorCodes.USER_NOT_IN_ROOM);
+    }
+
+    private ChatMessageDto awaitCommit(CompletableFuture<ChatMessageDto> committed) {
+        try {
+            return committed.get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomException(BusinessErrorCodes.CHAT_UNAVAILABLE);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new CustomException(BusinessErrorCodes.CHAT_UNAVAILABLE);
+        }
+    }
+}
@@ -4,14 +4,20 @@ import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import org.mafisher.togetherbackend.email.EmailTemplateName;
+import org.mafisher.togetherbackend.entity.EmailOutboxMessage;
+import org.mafisher.togetherbackend.enums.EmailOutboxStatus;
+import org.mafisher.togetherbackend.repository.EmailOutboxRepository;
 import org.mafisher.togetherbackend.service.EmailService;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -21,6 +27,7 @@ public class EmailServiceImpl implements EmailService {
 
     private final JavaMailSender mailSender;
     private final SpringTemplateEngine templateEngine;
+    private final EmailOutboxRepository emailOutboxRepository;
 
     @Override
     public void sendEmail(String to,
@@ -28,7 +35,36 @@ public class EmailServiceImpl implements EmailService {
                           EmailTemplateName emailTemplate,
                           String confirmationURL,
                           String subject) throws MessagingException {
-        String templateName = emailTemplate == null ? "confirm-email" : emailTemplate.name();
+        mailSender.send(createEmail(to, username, emailTemplate, confirmationURL, subject));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void queueEmail(String to,
+                           String username,
+                           EmailTemplateName emailTemplate,
+                           String confirmationURL,
+                           String subject) {
+        Instant now = Instant.now();
+        emailOutboxRepository.save(EmailOutboxMessage.builder()
+                .recipient(to)
+                .username(username)
+                .template(emailTemplate)
+                .confirmationUrl(confirmationURL)
+                .subject(subject)
+                .status(EmailOutboxStatus.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+    }
+
+    @Override
+    public MimeMessage createEmail(String to,
+                                   String username,
+                                   EmailTemplateName emailTemplate,
+                                   String confirmationURL,
+                                   String subject) throws MessagingException {
+        String templateName = emailTemplate == null ? "confirm-email" : emailTemplate.getName();
         MimeMessage mimeMessage = mailSender.createMimeMessage();
         MimeMessageHelper mimeMessageHelper = new MimeMessageHelper(
                 mimeMessage,
@@ -49,6 +85,6 @@ public class EmailServiceImpl implements EmailService {
         String template = templateEngine.process(templateName, context);
 
         mimeMessageHelper.setText(template, true);
-        mailSender.send(mimeMessage);
+        return mimeMessage;
     }
 }
@@ -0,0 +1,50 @@
+package org.mafisher.togetherbackend.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.mafisher.togetherbackend.chat.SseFanout;
+import org.mafisher.togetherbackend.handler.BusinessErrorCodes;
+import org.mafisher.togetherbackend.handler.CustomException;
+import org.mafisher.togetherbackend.service.EventStreamService;
+import org.mafisher.togetherbackend.service.PrincipalService;
+import org.mafisher.togetherbackend.service.RoomMembershipService;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.security.Principal;
+
+@Service
+@RequiredArgsConstructor
+public class EventStreamServiceImpl implements EventStreamService {
+
+    private final SseFanout sseFanout;
+    private final RoomMembershipService roomMembershipService;
+    private final PrincipalService principalService;
+
+    /**
+     * {@code lastEventId} is the {@code seq} of the last message the client has; anything that is not a
+     * sequence number is treated as a fresh subscription.
+     */
+    @Override
+    public SseEmitter streamRoom(Long roomId, String lastEventId, Principal principal) {
+        Long userId = principalService.userIdOf(principal);
+        if (!roomMembershipService.isMember(roomId, userId))
+            throw new CustomException(BusinessErrorCodes.USER_NOT_IN_ROOM);
+        return sseFanout.openRoom(roomId, userId, parseSeq(lastEventId));
+    }
+
+    @Override
+    public SseEmitter streamNotifications(Principal principal) {
+        return sseFanout.openNotifications(principalService.userIdOf(principal));
+    }
+
+    private static Long parseSeq(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank())
+            return null;
+        try {
+            long seq = Long.parseLong(lastEventId.trim());
+            return seq < 0 ? null : seq;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package org.mafisher.togetherbackend.service.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.mafisher.togetherbackend.graph.EdgeBuffer;
+import org.mafisher.togetherbackend.graph.FriendGraph;
+import org.mafisher.togetherbackend.index.DeltaSnapshot;
+import org.mafisher.togetherbackend.repository.FriendshipRepository;
+import org.mafisher.togetherbackend.repository.FriendshipRepository.FriendshipEdge;
+import org.mafisher.togetherbackend.service.FriendGraphService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps every friendship in memory so friendship checks do not hit the database. The bulk of the
+ * graph is an immutable {@link FriendGraph}; friendships created since the last build go to a small
+ * copy-on-write delta of a {@link DeltaSnapshot} that is periodically folded into a new snapshot by
+ * {@link #compact()}.
+ */
+@Slf4j
+@Service
+public class FriendGraphServiceImpl implements FriendGraphService {
+
+    private final FriendshipRepository friendshipRepository;
+    private final int loadBatchSize;
+    private final DeltaSnapshot<FriendGraph, Map<Long, long[]>> graph;
+
+    public FriendGraphServiceImpl(
+            FriendshipRepository friendshipRepository,
+            MeterRegistry meterRegistry,
+            @Value("${application.friend-graph.load-batch-size:10000}") int loadBatchSize) {
+        this.friendshipRepository = friendshipRepository;
+        this.loadBatchSize = loadBatchSize;
+        this.graph = new DeltaSnapshot<>("friend.graph", ConcurrentHashMap::new, meterRegistry);
+
+        Gauge.builder("friend.graph.users", this, service -> service.snapshot().userCount())
+                .register(meterRegistry);
+        Gauge.builder("friend.graph.edges", this, service -> service.snapshot().edgeCount() + service.deltaEdges())
+                .register(meterRegistry);
+        Gauge.builder("friend.graph.memory", this, FriendGraphServiceImpl::estimatedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean areFriends(Long userId1, Long userId2) {
+        if (userId1 == null || userId2 == null || userId1.equals(userId2))
+            return false;
+        if (contains(graph.delta(), userId1, userId2) || contains(graph.frozenDelta(), userId1, userId2))
+            return true;
+        FriendGraph current = graph.snapshot();
+        if (current == null)
+            return friendshipRepository.existsPair(Math.min(userId1, userId2), Math.max(userId1, userId2));
+        return current.contains(userId1, userId2);
+    }
+
+    @Override
+    public long[] getFriendIds(Long userId) {
+        long[] pending = merge(graph.delta().get(userId), graph.frozenDelta().get(userId));
+        FriendGraph current = graph.snapshot();
+        if (current == null) {
+            long[] stored = friendshipRepository.findFriendIds(userId).stream()
+                    .mapToLong(Long::longValue)
+                    .sorted()
+                    .toArray();
+            return merge(stored, pending);
+        }
+        return merge(current.friendsOf(userId), pending);
+    }
+
+    @Override
+    public void addFriendship(Long userId1, Long userId2) {
+        if (userId1.equals(userId2))
+            return;
+        graph.write(delta -> {
+            insert(delta, userId1, userId2);
+            insert(delta, userId2, userId1);
+        });
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return graph.isLoaded();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @Override
+    public synchronized void reload() {
+        long start = System.nanoTime();
+        EdgeBuffer edges = new EdgeBuffer(loadBatchSize);
+        long afterId = 0;
+        List<FriendshipEdge> batch;
+        do {
+            batch = friendshipRepository.findEdgesAfter(afterId, PageRequest.of(0, loadBatchSize));
+            for (FriendshipEdge edge : batch)
+                edges.add(edge.getUser1Id(), edge.getUser2Id());
+            if (!batch.isEmpty())
+                afterId = batch.get(batch.size() - 1).getId();
+        } while (batch.size() == loadBatchSize);
+
+        graph.publish(pending -> build(edges, pending));
+        FriendGraph loaded = graph.snapshot();
+        log.info("Loaded friend graph: {} users, {} friendships, ~{} KiB in {} ms",
+                loaded.userCount(), loaded.edgeCount(), loaded.estimatedBytes() / 1024,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Scheduled(fixedDelayString = "${application.friend-graph.verify-interval:1h}",
+            initialDelayString = "${application.friend-graph.verify-interval:1h}")
+    public void scheduledVerify() {
+        if (isLoaded())
+            verifyConsistency();
+    }
+
+    @Override
+    public synchronized boolean verifyConsistency() {
+        compact();
+        if (graph.verify(graph.snapshot().edgeCount(), friendshipRepository.count()))
+            return true;
+
+        reload();
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${application.friend-graph.compact-interval:1m}")
+    public synchronized void compact() {
+        FriendGraph base = graph.snapshot();
+        if (base == null || graph.delta().isEmpty())
+            return;
+        EdgeBuffer edges = new EdgeBuffer((int) Math.min(Integer.MAX_VALUE - 8, base.edgeCount() + deltaEdges()));
+        base.copyEdgesTo(edges);
+        graph.publish(pending -> build(edges, pending));
+    }
+
+    private static FriendGraph build(EdgeBuffer edges, Map<Long, long[]> pending) {
+        pending.forEach((userId, friends) -> {
+            for (long friendId : friends) {
+                if (userId < friendId)
+                    edges.add(userId, friendId);
+            }
+        });
+        return FriendGraph.build(edges);
+    }
+
+    private FriendGraph snapshot() {
+        FriendGraph current = graph.snapshot();
+        return current == null ? FriendGraph.EMPTY : current;
+    }
+
+    private long deltaEdges() {
+        long entries = 0;
+        for (long[] friends : graph.delta().values())
+            entries += friends.length;
+        return entries / 2;
+    }
+
+    private long estimatedBytes() {
+        long bytes = snapshot().estimatedBytes();
+        // ConcurrentHashMap node + boxed key + array header for each delta entry
+        bytes += deltaEdges() * 2 * (32 + 16 + 16 + 8);
+        return bytes;
+    }
+
+    private static boolean contains(Map<Long, long[]> edges, Long userId, Long friendId) {
+        long[] friends = edges.get(userId);
+        return friends != null && Arrays.binarySearch(friends, friendId) >= 0;
+    }
+
+    private static void insert(Map<Long, long[]> edges, long userId, long friendId) {
+        long[] friends = edges.getOrDefault(userId, new long[0]);
+        int index = Arrays.binarySearch(friends, friendId);
+        if (index >= 0)
+            return;
+        int insertAt = -index - 1;
+        long[] updated = new long[friends.length + 1];
+        System.arraycopy(friends, 0, updated, 0, insertAt);
+        updated[insertAt] = friendId;
+        System.arraycopy(friends, insertAt, updated, insertAt + 1, friends.length - insertAt);
+        edges.put(userId, updated);
+    }
+
+    private static long[] merge(long[] a, long[] b) {
+        if (a == null || a.length == 0)
+            return b == null ? new long[0] : b.clone();
+        if (b == null || b.length == 0)
+            return a.clone();
+        long[] merged = new long[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length || j < b.length) {
+            long next;
+            if (j >= b.length || (i < a.length && a[i] <= b[j]))
+                next = a[i++];
+            else
+                next = b[j++];
+            if (k == 0 || merged[k - 1] != next)
+                merged[k++] = next;
+        }
+        return Arrays.copyOf(merged, k);
+    }
+}
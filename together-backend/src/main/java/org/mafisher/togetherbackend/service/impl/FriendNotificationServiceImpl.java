@@ -0,0 +1,86 @@
+package org.mafisher.togetherbackend.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.mafisher.togetherbackend.chat.ChatDestinations;
+import org.mafisher.togetherbackend.chat.SseFanout;
+import org.mafisher.togetherbackend.dto.FriendRequestEventDto;
+import org.mafisher.togetherbackend.entity.User;
+import org.mafisher.togetherbackend.enums.FriendRequestEventType;
+import org.mafisher.togetherbackend.repository.FriendRequestRepository;
+import org.mafisher.togetherbackend.service.FriendNotificationService;
+import org.mafisher.togetherbackend.service.PresenceService;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.mafisher.togetherbackend.enums.FriendRequestStatus.PENDING;
+
+/**
+ * Pushes friend request changes to the affected user's {@code /user/queue/friend-requests}, so clients
+ * refetch the received list only when something changed instead of polling it. Every event carries the
+ * recipient's pending request count, read after the change has committed. Users with an open
+ * {@code /stream/notifications} get the same event over SSE. Users without a live connection are
+ * skipped and pick the count up from {@code /friends/requests/received/count} on their next visit.
+ */
+@Service
+public class FriendNotificationServiceImpl implements FriendNotificationService {
+
+    private final FriendRequestRepository friendRequestRepository;
+    private final PresenceService presenceService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SseFanout sseFanout;
+    private final Counter sentCounter;
+
+    public FriendNotificationServiceImpl(
+            FriendRequestRepository friendRequestRepository,
+            PresenceService presenceService,
+            @Lazy SimpMessagingTemplate messagingTemplate,
+            SseFanout sseFanout,
+            MeterRegistry meterRegistry) {
+        this.friendRequestRepository = friendRequestRepository;
+        this.presenceService = presenceService;
+        this.messagingTemplate = messagingTemplate;
+        this.sseFanout = sseFanout;
+        this.sentCounter = Counter.builder("friends.notifications.sent").register(meterRegistry);
+    }
+
+    @Override
+    public void notify(User recipient, FriendRequestEventType type, User counterpart) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(recipient, type, counterpart);
+                }
+            });
+            return;
+        }
+        send(recipient, type, counterpart);
+    }
+
+    @Override
+    public long unreadCount(Long userId) {
+        return friendRequestRepository.countByReceiverIdAndStatus(userId, PENDING);
+    }
+
+    private void send(User recipient, FriendRequestEventType type, User counterpart) {
+        boolean online = presenceService.isOnline(recipient.getId());
+        boolean streaming = sseFanout.hasNotificationStream(recipient.getId());
+        if (!online && !streaming)
+            return;
+        FriendRequestEventDto event = FriendRequestEventDto.builder()
+                .type(type)
+                .userId(counterpart.getId())
+                .nickName(counterpart.getNickName())
+                .unread(unreadCount(recipient.getId()))
+                .build();
+        if (online)
+            messagingTemplate.convertAndSendToUser(recipient.getEmail(), ChatDestinations.FRIEND_REQUESTS_QUEUE, event);
+        if (streaming)
+            sseFanout.publishToUser(recipient.getId(), SseFanout.FRIEND_REQUEST_EVENT, event);
+        sentCounter.increment();
+    }
+}
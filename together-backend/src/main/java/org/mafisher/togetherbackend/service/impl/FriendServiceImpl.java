@@ -1,7 +1,10 @@
 package org.mafisher.togetherbackend.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.mafisher.togetherbackend.dto.CursorPage;
+import org.mafisher.togetherbackend.dto.FriendRequestCursor;
 import org.mafisher.togetherbackend.dto.UserDto;
+import org.mafisher.togetherbackend.dto.UserSuggestionDto;
 import org.mafisher.togetherbackend.entity.FriendRequest;
 import org.mafisher.togetherbackend.entity.Friendship;
 import org.mafisher.togetherbackend.entity.User;
@@ -9,29 +12,48 @@ import org.mafisher.togetherbackend.handler.BusinessErrorCodes;
 import org.mafisher.togetherbackend.handler.CustomException;
 import org.mafisher.togetherbackend.mappers.Mapper;
 import org.mafisher.togetherbackend.repository.FriendRequestRepository;
+import org.mafisher.togetherbackend.repository.FriendRequestRepository.ReceivedRequest;
 import org.mafisher.togetherbackend.repository.FriendshipRepository;
 import org.mafisher.togetherbackend.repository.UserRepository;
+import org.mafisher.togetherbackend.service.FriendGraphService;
+import org.mafisher.togetherbackend.service.FriendNotificationService;
 import org.mafisher.togetherbackend.service.FriendService;
+import org.mafisher.togetherbackend.service.PresenceService;
 import org.mafisher.togetherbackend.service.PrincipalService;
-import org.springframework.data.domain.Page;
+import org.mafisher.togetherbackend.service.UserSuggestService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 
 import java.security.Principal;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
+import static org.mafisher.togetherbackend.enums.FriendRequestEventType.ACCEPTED;
+import static org.mafisher.togetherbackend.enums.FriendRequestEventType.RECEIVED;
+import static org.mafisher.togetherbackend.enums.FriendRequestEventType.REJECTED;
 import static org.mafisher.togetherbackend.enums.FriendRequestStatus.*;
 
 @Service
 @RequiredArgsConstructor
 public class FriendServiceImpl implements FriendService {
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+
     private final FriendRequestRepository friendRequestRepository;
     private final FriendshipRepository friendshipRepository;
     private final UserRepository userRepository;
     private final Mapper<User, UserDto> mapper;
     private final PrincipalService principalService;
+    private final FriendGraphService friendGraphService;
+    private final UserSuggestService userSuggestService;
+    private final PresenceService presenceService;
+    private final FriendNotificationService friendNotificationService;
 
     @Override
     public void sendRequest(String nickname, Principal principal) {
@@ -53,12 +75,9 @@ public class FriendServiceImpl implements FriendService {
             friendRequest.get().setStatus(ACCEPT);
             friendRequestRepository.save(friendRequest.get());
 
-            Friendship friendship = Friendship.builder()
-                    .user1(sender)
-                    .user2(receiver)
-                    .createdAt(LocalDateTime.now())
-                    .build();
-            friendshipRepository.save(friendship);
+            saveFriendship(sender, receiver);
+            friendNotificationService.notify(receiver, ACCEPTED, sender);
+            friendNotificationService.notify(sender, ACCEPTED, receiver);
             return;
         }
 
@@ -69,6 +88,7 @@ public class FriendServiceImpl implements FriendService {
                 .status(PENDING)
                 .build();
         friendRequestRepository.save(request);
+        friendNotificationService.notify(receiver, RECEIVED, sender);
     }
 
     @Override
@@ -87,11 +107,9 @@ public class FriendServiceImpl implements FriendService {
         friendRequest.setStatus(ACCEPT);
         friendRequestRepository.save(friendRequest);
 
-        Friendship friendship = new Friendship();
-        friendship.setUser1(sender);
-        friendship.setUser2(acceptedUser);
-        friendship.setCreatedAt(LocalDateTime.now());
-        friendshipRepository.save(friendship);
+        saveFriendship(sender, acceptedUser);
+        friendNotificationService.notify(acceptedUser, ACCEPTED, sender);
+        friendNotificationService.notify(sender, ACCEPTED, acceptedUser);
     }
 
     @Override
@@ -109,6 +127,8 @@ public class FriendServiceImpl implements FriendService {
 
         friendRequest.setStatus(REJECT);
         friendRequestRepository.save(friendRequest);
+        // only the rejecting user's other sessions hear about it; the sender is not told
+        friendNotificationService.notify(sender, REJECTED, rejectedUser);
     }
 
     @Override
@@ -120,23 +140,86 @@ public class FriendServiceImpl implements FriendService {
 
     @Override
     public List<UserDto> getReceivedRequests(Principal principal, Pageable pageable) {
-        User sender = principalService.checkUserPrincipal(principal);
-        return sender.getReceivedRequests().stream()
-                .filter((request)-> request.getStatus() == PENDING)
-                .map((request)-> mapper.mapTo(request.getSender()))
+        User receiver = principalService.checkUserPrincipal(principal);
+        Pageable page = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        return friendRequestRepository.findReceived(receiver.getId(), PENDING, page).stream()
+                .map(FriendServiceImpl::toSenderDto)
                 .toList();
     }
 
     @Override
-    public Page<UserDto> searchUsers(String query, Pageable pageable, Principal principal) {
+    public CursorPage<UserDto> getReceivedRequests(Principal principal, String cursor, int limit) {
+        User receiver = principalService.checkUserPrincipal(principal);
+        int size = Math.max(1, Math.min(limit, MAX_CURSOR_PAGE_SIZE));
+        Pageable page = PageRequest.of(0, size + 1);
+
+        List<ReceivedRequest> requests;
+        if (cursor == null || cursor.isBlank()) {
+            requests = friendRequestRepository.findReceived(receiver.getId(), PENDING, page);
+        } else {
+            FriendRequestCursor position = FriendRequestCursor.decode(cursor);
+            requests = friendRequestRepository.findReceivedBefore(
+                    receiver.getId(), PENDING, position.getCreatedAt(), position.getId(), page);
+        }
+
+        boolean hasMore = requests.size() > size;
+        List<ReceivedRequest> content = hasMore ? requests.subList(0, size) : requests;
+        return CursorPage.<UserDto>builder()
+                .items(content.stream().map(FriendServiceImpl::toSenderDto).toList())
+                .nextCursor(hasMore ? FriendRequestCursor.of(content.get(size - 1)).encode() : null)
+                .build();
+    }
+
+    @Override
+    public long countReceivedRequests(Principal principal) {
+        User receiver = principalService.checkUserPrincipal(principal);
+        return friendNotificationService.unreadCount(receiver.getId());
+    }
+
+    /**
+     * Matches nicknames containing {@code query}, in the order {@code pageable} asks for. The result is a
+     * {@link Slice}: it only tells whether a next page exists, so no count of all matches is run, which for
+     * one- or two-character queries (too short for the trigram index) would scan the whole user table.
+     */
+    @Override
+    public Slice<UserDto> searchUsers(String query, Pageable pageable, Principal principal) {
         User sender = principalService.checkUserPrincipal(principal);
-        return userRepository.findPotentialFriends(query, sender, pageable).map(mapper::mapTo);
+        String trimmed = query == null ? "" : query.trim();
+        if (trimmed.isEmpty())
+            return new SliceImpl<>(List.of(), pageable, false);
+        return userRepository.findPotentialFriends(trimmed, sender, pageable).map(mapper::mapTo);
+    }
+
+    @Override
+    public List<UserSuggestionDto> suggestUsers(String prefix, int limit, Principal principal) {
+        User user = principalService.checkUserPrincipal(principal);
+        int size = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        return userSuggestService.suggest(prefix, size, user.getId());
+    }
+
+    @Override
+    public List<Long> getOnlineFriends(Principal principal) {
+        User user = principalService.checkUserPrincipal(principal);
+        return Arrays.stream(presenceService.onlineAmong(friendGraphService.getFriendIds(user.getId())))
+                .boxed()
+                .toList();
     }
 
 
 
+    private void saveFriendship(User user1, User user2) {
+        try {
+            friendshipRepository.save(Friendship.of(user1, user2));
+        } catch (DataIntegrityViolationException e) {
+            // only a concurrent accept is expected here: the unique pair constraint kept the other row
+            if (!friendshipRepository.existsBetweenUsers(user1, user2))
+                throw e;
+        }
+        friendGraphService.addFriendship(user1.getId(), user2.getId());
+    }
+
     private void checkUsersAreFriends(User user1, User user2) {
-        if (friendshipRepository.existsBetweenUsers(user1, user2)) {
+        if (friendGraphService.areFriends(user1.getId(), user2.getId())) {
             throw new CustomException(BusinessErrorCodes.USERS_ARE_ALREADY_FRIENDS);
         }
     }
@@ -146,4 +229,14 @@ public class FriendServiceImpl implements FriendService {
                 .orElseThrow(() -> new CustomException(BusinessErrorCodes.REQUEST_NOT_FOUND));
     }
 
+    private static UserDto toSenderDto(ReceivedRequest request) {
+        return UserDto.builder()
+                .id(request.getSenderId())
+                .firstName(request.getSenderFirstName())
+                .lastName(request.getSenderLastName())
+                .nickName(request.getSenderNickName())
+                .email(request.getSenderEmail())
+                .build();
+    }
+
 }
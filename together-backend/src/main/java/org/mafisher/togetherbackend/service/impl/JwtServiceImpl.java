@@ -4,39 +4,59 @@ import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.DecodingException;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
+import org.mafisher.togetherbackend.entity.Role;
+import org.mafisher.togetherbackend.entity.User;
+import org.mafisher.togetherbackend.security.JwtClaims;
+import org.mafisher.togetherbackend.security.VerifiedTokenCache;
 import org.mafisher.togetherbackend.service.JwtService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Function;
 
 @Service
 @Slf4j
 public class JwtServiceImpl implements JwtService {
 
-    @Value("${application.security.jwt.secret-key}")
-    private String secretKey;
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final VerifiedTokenCache verifiedTokens;
+
+    public JwtServiceImpl(
+            @Value("${application.security.jwt.secret-key}") String secretKey,
+            @Value("${application.security.jwt.cache-size:10000}") long cacheSize) {
+        this.key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secretKey));
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+        this.verifiedTokens = new VerifiedTokenCache(cacheSize);
+    }
 
     @Override
-    public String generateToken(String username) {
+    public String generateToken(User user) {
+        List<String> roles = user.getRoles() == null ? List.of() : user.getRoles().stream()
+                .map(Role::getName)
+                .toList();
         return Jwts.builder()
                 .claims()
-                .subject(username)
+                .subject(user.getEmail())
+                .add(JwtClaims.USER_ID, user.getId())
+                .add(JwtClaims.NICKNAME, user.getNickName())
+                .add(JwtClaims.ROLES, roles)
+                .add(JwtClaims.TOKEN_VERSION, user.getTokenVersion())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + 2 * 60 * 60 * 1000))
                 .and()
-                .signWith(getKey())
+                .signWith(key)
                 .compact();
     }
 
-    private SecretKey getKey() {
-        byte[] keyBytes = Base64.getDecoder().decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     @Override
     public String extractUserName(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -48,21 +68,31 @@ public class JwtServiceImpl implements JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getKey())
-                .build()
+        return parser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
     @Override
     public boolean validateJwtToken(String authToken) {
+        return verify(authToken).isPresent();
+    }
+
+    @Override
+    public Optional<JwtClaims> verify(String token) {
+        if (token == null || token.isEmpty()) {
+            log.error("JWT claims string is empty");
+            return Optional.empty();
+        }
+
+        JwtClaims cached = verifiedTokens.get(token);
+        if (cached != null)
+            return Optional.of(cached);
+
         try {
-            Jwts.parser()
-                    .verifyWith(getKey())
-                    .build()
-                    .parseSignedClaims(authToken);
-            return true;
+            JwtClaims claims = toJwtClaims(extractAllClaims(token));
+            verifiedTokens.put(token, claims);
+            return Optional.of(claims);
         }
         catch (ExpiredJwtException e) {
             log.error("JWT token is expired: {}", e.getMessage());
@@ -78,6 +108,28 @@ public class JwtServiceImpl implements JwtService {
         }catch (JwtException e){
             log.error("Invalid JWT token: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
+    }
+
+    private JwtClaims toJwtClaims(Claims claims) {
+        Integer tokenVersion = claims.get(JwtClaims.TOKEN_VERSION, Integer.class);
+        return JwtClaims.builder()
+                .subject(claims.getSubject())
+                .userId(claims.get(JwtClaims.USER_ID, Long.class))
+                .nickname(claims.get(JwtClaims.NICKNAME, String.class))
+                .roles(extractRoles(claims))
+                .tokenVersion(tokenVersion == null ? 0 : tokenVersion)
+                .issuedAt(claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant())
+                .expiration(claims.getExpiration() == null ? null : claims.getExpiration().toInstant())
+                .build();
+    }
+
+    private List<String> extractRoles(Claims claims) {
+        Object roles = claims.get(JwtClaims.ROLES);
+        if (!(roles instanceof Collection<?> values))
+            return List.of();
+        return values.stream()
+                .map(String::valueOf)
+                .toList();
     }
 }
@@ -0,0 +1,240 @@
+package org.mafisher.togetherbackend.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.mafisher.togetherbackend.chat.ChatDestinations;
+import org.mafisher.togetherbackend.dto.PresenceBatchDto;
+import org.mafisher.togetherbackend.entity.User;
+import org.mafisher.togetherbackend.handler.CustomException;
+import org.mafisher.togetherbackend.presence.TimingWheel;
+import org.mafisher.togetherbackend.service.FriendGraphService;
+import org.mafisher.togetherbackend.service.PresenceService;
+import org.mafisher.togetherbackend.service.PrincipalService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory registry of online users, fed by STOMP connects, disconnects and inbound frames.
+ * A heartbeat only stamps the user's last-seen time; expiry is driven by one {@link TimingWheel}
+ * ticked from a single scheduled job. When a user's entry comes due the wheel either reschedules it
+ * from the last-seen time or, if nothing arrived within {@code timeout}, takes the user offline.
+ * Online/offline changes are collected per user and pushed once per {@code window} to the user's
+ * friends that are online themselves, one frame per recipient; a user who flaps back to where they
+ * started within a window is not announced at all.
+ */
+@Slf4j
+@Service
+public class PresenceServiceImpl implements PresenceService {
+
+    private final FriendGraphService friendGraphService;
+    private final PrincipalService principalService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long timeoutNanos;
+
+    private final Map<Long, Presence> presences = new ConcurrentHashMap<>();
+    private final Map<String, SessionUser> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, Change> changes = new ConcurrentHashMap<>();
+    private final TimingWheel<Presence> wheel;
+    private final Counter expiredCounter;
+
+    public PresenceServiceImpl(
+            FriendGraphService friendGraphService,
+            PrincipalService principalService,
+            @Lazy SimpMessagingTemplate messagingTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${application.presence.timeout:30s}") Duration timeout,
+            @Value("${application.presence.tick:1s}") Duration tick,
+            @Value("${application.presence.wheel-slots:64}") int wheelSlots) {
+        this.friendGraphService = friendGraphService;
+        this.principalService = principalService;
+        this.messagingTemplate = messagingTemplate;
+        this.timeoutNanos = timeout.toNanos();
+        this.wheel = new TimingWheel<>(wheelSlots, tick.toNanos(), System.nanoTime());
+
+        Gauge.builder("presence.online", presences, Map::size).register(meterRegistry);
+        Gauge.builder("presence.sessions", sessions, Map::size).register(meterRegistry);
+        this.expiredCounter = Counter.builder("presence.expired").register(meterRegistry);
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        connect(StompHeaderAccessor.wrap(event.getMessage()).getSessionId(), event.getUser());
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        disconnect(event.getSessionId());
+    }
+
+    @Override
+    public void connect(String sessionId, Principal principal) {
+        if (sessionId == null || principal == null)
+            return;
+        User user;
+        try {
+            user = principalService.checkUserPrincipal(principal);
+        } catch (CustomException e) {
+            return;
+        }
+        SessionUser sessionUser = new SessionUser(user.getId(), principal.getName());
+        sessions.put(sessionId, sessionUser);
+        activate(sessionId, sessionUser);
+    }
+
+    @Override
+    public void touch(String sessionId) {
+        SessionUser sessionUser = sessions.get(sessionId);
+        if (sessionUser == null)
+            return;
+        Presence presence = presences.get(sessionUser.userId());
+        if (presence != null)
+            presence.lastSeenNanos = System.nanoTime();
+        else
+            activate(sessionId, sessionUser);
+    }
+
+    @Override
+    public void disconnect(String sessionId) {
+        SessionUser sessionUser = sessions.remove(sessionId);
+        if (sessionUser == null)
+            return;
+        Presence[] offline = new Presence[1];
+        presences.computeIfPresent(sessionUser.userId(), (userId, presence) -> {
+            presence.sessionIds.remove(sessionId);
+            if (!presence.sessionIds.isEmpty())
+                return presence;
+            offline[0] = presence;
+            return null;
+        });
+        if (offline[0] != null)
+            recordChange(offline[0].userId, false);
+    }
+
+    @Override
+    public boolean isOnline(Long userId) {
+        return userId != null && presences.containsKey(userId);
+    }
+
+    @Override
+    public long[] onlineAmong(long[] userIds) {
+        return Arrays.stream(userIds)
+                .filter(presences::containsKey)
+                .toArray();
+    }
+
+    @Scheduled(fixedRateString = "${application.presence.tick:1s}")
+    public void expire() {
+        long now = System.nanoTime();
+        List<Presence> due;
+        synchronized (wheel) {
+            due = wheel.advance(now);
+        }
+        for (Presence presence : due) {
+            if (presences.get(presence.userId) != presence)
+                continue;
+            long deadline = presence.lastSeenNanos + timeoutNanos;
+            if (deadline - now > 0) {
+                synchronized (wheel) {
+                    wheel.add(presence, deadline);
+                }
+            } else if (presences.remove(presence.userId, presence)) {
+                expiredCounter.increment();
+                recordChange(presence.userId, false);
+            }
+        }
+    }
+
+    private void activate(String sessionId, SessionUser sessionUser) {
+        long now = System.nanoTime();
+        boolean[] created = new boolean[1];
+        Presence presence = presences.compute(sessionUser.userId(), (userId, existing) -> {
+            Presence current = existing;
+            if (current == null) {
+                current = new Presence(userId);
+                created[0] = true;
+            }
+            current.sessionIds.add(sessionId);
+            current.lastSeenNanos = now;
+            return current;
+        });
+        if (!created[0])
+            return;
+        synchronized (wheel) {
+            wheel.add(presence, now + timeoutNanos);
+        }
+        recordChange(presence.userId, true);
+    }
+
+    @Scheduled(fixedRateString = "${application.presence.window:250ms}")
+    public void publishChanges() {
+        Map<String, PresenceBatchDto> batches = new HashMap<>();
+        for (Long userId : changes.keySet()) {
+            Change change = changes.remove(userId);
+            if (change == null || change.before() == change.after())
+                continue;
+            for (long friendId : friendGraphService.getFriendIds(userId)) {
+                Presence friend = presences.get(friendId);
+                if (friend == null)
+                    continue;
+                for (String name : namesOf(friend)) {
+                    PresenceBatchDto batch = batches.computeIfAbsent(name,
+                            key -> new PresenceBatchDto(new ArrayList<>(), new ArrayList<>()));
+                    (change.after() ? batch.getOnline() : batch.getOffline()).add(userId);
+                }
+            }
+        }
+        batches.forEach((name, batch) ->
+                messagingTemplate.convertAndSendToUser(name, ChatDestinations.PRESENCE_QUEUE, batch));
+    }
+
+    private void recordChange(Long userId, boolean online) {
+        changes.compute(userId, (id, change) -> new Change(change == null ? !online : change.before(), online));
+    }
+
+    private Set<String> namesOf(Presence presence) {
+        Set<String> names = new HashSet<>();
+        for (String sessionId : presence.sessionIds) {
+            SessionUser sessionUser = sessions.get(sessionId);
+            if (sessionUser != null)
+                names.add(sessionUser.name());
+        }
+        return names;
+    }
+
+    private record SessionUser(Long userId, String name) {
+    }
+
+    private record Change(boolean before, boolean after) {
+    }
+
+    private static final class Presence {
+
+        private final Long userId;
+        private final Set<String> sessionIds = ConcurrentHashMap.newKeySet();
+        private volatile long lastSeenNanos;
+
+        private Presence(Long userId) {
+            this.userId = userId;
+        }
+    }
+}
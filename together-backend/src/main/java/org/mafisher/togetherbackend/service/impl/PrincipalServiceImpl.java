@@ -1,30 +1,71 @@
 package org.mafisher.togetherbackend.service.impl;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.mafisher.togetherbackend.entity.Role;
 import org.mafisher.togetherbackend.entity.User;
 import org.mafisher.togetherbackend.handler.BusinessErrorCodes;
 import org.mafisher.togetherbackend.handler.CustomException;
 import org.mafisher.togetherbackend.repository.UserRepository;
+import org.mafisher.togetherbackend.security.JwtPrincipal;
 import org.mafisher.togetherbackend.service.PrincipalService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.security.Principal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
-@RequiredArgsConstructor
 public class PrincipalServiceImpl implements PrincipalService {
 
+    private static final String REQUEST_CACHE_ATTRIBUTE = PrincipalServiceImpl.class.getName() + ".users";
+
     private final UserRepository userRepository;
+    private final LookupCache byEmail;
+    private final LookupCache byNickname;
+
+    public PrincipalServiceImpl(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${application.principal-cache.size:10000}") long cacheSize,
+            @Value("${application.principal-cache.ttl:5m}") Duration cacheTtl) {
+        this.userRepository = userRepository;
+        this.byEmail = new LookupCache("email", cacheSize, cacheTtl, meterRegistry);
+        this.byNickname = new LookupCache("nickname", cacheSize, cacheTtl, meterRegistry);
+    }
 
     @Override
     public User checkUserPrincipal(Principal principal) {
-        return userRepository.findByEmail(principal.getName())
+        return byEmail.get(principal.getName(), userRepository::findByEmail)
                 .orElseThrow(() -> new CustomException(BusinessErrorCodes.BAD_CREDENTIALS));
     }
 
+    /**
+     * Reads the id straight from the token claims when the principal carries them.
+     */
+    @Override
+    public Long userIdOf(Principal principal) {
+        if (principal instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof JwtPrincipal jwtPrincipal)
+            return jwtPrincipal.getId();
+        return checkUserPrincipal(principal).getId();
+    }
+
     @Override
     public User checkUserExist(String nickname) {
-        return userRepository.findByNickName(nickname)
+        return byNickname.get(nickname, userRepository::findByNickName)
                 .orElseThrow(() -> new CustomException(BusinessErrorCodes.USER_NOT_FOUND));
     }
 
@@ -34,4 +75,147 @@ public class PrincipalServiceImpl implements PrincipalService {
             throw new CustomException(BusinessErrorCodes.USERS_ARE_THE_SAME);
         return true;
     }
+
+    @Override
+    public void invalidate(User user) {
+        if (user.getEmail() != null)
+            byEmail.invalidate(user.getEmail());
+        if (user.getNickName() != null)
+            byNickname.invalidate(user.getNickName());
+        if (user.getId() != null)
+            invalidate(user.getId());
+    }
+
+    @Override
+    public void invalidate(Long userId) {
+        byEmail.invalidateUser(userId);
+        byNickname.invalidateUser(userId);
+    }
+
+    /**
+     * What the caches hold: the identity and account state of a user, without the password hash or any
+     * association. Every lookup builds a new detached {@code User} from it, so callers never share an
+     * instance; the friend request collections are empty and immutable, use {@code FriendRequestRepository}.
+     */
+    private record CachedUser(
+            Long id,
+            String email,
+            String nickName,
+            String firstName,
+            String lastName,
+            String profileImage,
+            List<Role> roles,
+            boolean accountLocked,
+            boolean enabled,
+            int tokenVersion) {
+
+        static CachedUser of(User user) {
+            List<Role> roles = user.getRoles() == null ? List.of() : user.getRoles().stream()
+                    .map(role -> new Role(role.getId(), role.getName()))
+                    .toList();
+            return new CachedUser(user.getId(), user.getEmail(), user.getNickName(), user.getFirstName(),
+                    user.getLastName(), user.getProfileImage(), roles, user.isAccountLocked(), user.isEnabled(),
+                    user.getTokenVersion());
+        }
+
+        User toUser() {
+            Set<Role> userRoles = new HashSet<>();
+            for (Role role : roles)
+                userRoles.add(new Role(role.getId(), role.getName()));
+            return User.builder()
+                    .id(id)
+                    .email(email)
+                    .nickName(nickName)
+                    .firstName(firstName)
+                    .lastName(lastName)
+                    .profileImage(profileImage)
+                    .roles(userRoles)
+                    .accountLocked(accountLocked)
+                    .enable(enabled)
+                    .tokenVersion(tokenVersion)
+                    .sentRequests(List.of())
+                    .receivedRequests(List.of())
+                    .build();
+        }
+    }
+
+    private static class LookupCache {
+        private final String name;
+        private final Cache<String, CachedUser> shared;
+        private final Counter requestHits;
+        private final Counter sharedHits;
+        private final Counter misses;
+
+        LookupCache(String name, long size, Duration ttl, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.shared = Caffeine.newBuilder()
+                    .maximumSize(size)
+                    .expireAfterWrite(ttl)
+                    .build();
+            this.requestHits = counter(meterRegistry, name, "request", "hit");
+            this.sharedHits = counter(meterRegistry, name, "shared", "hit");
+            this.misses = counter(meterRegistry, name, "shared", "miss");
+        }
+
+        private static Counter counter(MeterRegistry meterRegistry, String key, String tier, String result) {
+            return Counter.builder("principal.cache.lookups")
+                    .tag("key", key)
+                    .tag("tier", tier)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+
+        Optional<User> get(String key, Function<String, Optional<User>> loader) {
+            Map<String, CachedUser> requestUsers = requestUsers();
+            if (requestUsers != null) {
+                CachedUser user = requestUsers.get(name + ':' + key);
+                if (user != null) {
+                    requestHits.increment();
+                    return Optional.of(user.toUser());
+                }
+            }
+
+            CachedUser user = shared.getIfPresent(key);
+            if (user != null) {
+                sharedHits.increment();
+            } else {
+                misses.increment();
+                user = loader.apply(key).map(CachedUser::of).orElse(null);
+                if (user == null)
+                    return Optional.empty();
+                shared.put(key, user);
+            }
+
+            if (requestUsers != null)
+                requestUsers.put(name + ':' + key, user);
+            return Optional.of(user.toUser());
+        }
+
+        void invalidate(String key) {
+            shared.invalidate(key);
+            Map<String, CachedUser> requestUsers = requestUsers();
+            if (requestUsers != null)
+                requestUsers.remove(name + ':' + key);
+        }
+
+        void invalidateUser(Long userId) {
+            shared.asMap().values().removeIf(user -> userId.equals(user.id()));
+            Map<String, CachedUser> requestUsers = requestUsers();
+            if (requestUsers != null)
+                requestUsers.values().removeIf(user -> userId.equals(user.id()));
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Map<String, CachedUser> requestUsers() {
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            if (attributes == null)
+                return null;
+            Object users = attributes.getAttribute(REQUEST_CACHE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (users == null) {
+                users = new HashMap<String, CachedUser>();
+                attributes.setAttribute(REQUEST_CACHE_ATTRIBUTE, users, RequestAttributes.SCOPE_REQUEST);
+            }
+            return (Map<String, CachedUser>) users;
+        }
+    }
 }
@@ -0,0 +1,286 @@
+package org.mafisher.togetherbackend.service.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.mafisher.togetherbackend.index.DeltaSnapshot;
+import org.mafisher.togetherbackend.repository.RoomParticipantRepository;
+import org.mafisher.togetherbackend.repository.RoomRepository;
+import org.mafisher.togetherbackend.service.RoomMembershipService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the members of every room in memory so membership checks on the chat hot paths (send, history,
+ * subscribe, stream) do not hit the database. The snapshot maps each room to a sorted {@code long[]} of
+ * member ids, owner included; the {@code RoomService} mutations record a {@link RoomChange} per room in the
+ * delta of a {@link DeltaSnapshot} once they commit, which {@link #compact()} periodically folds in.
+ */
+@Slf4j
+@Service
+public class RoomMembershipServiceImpl implements RoomMembershipService {
+
+    private static final long[] NO_MEMBERS = new long[0];
+
+    private final RoomParticipantRepository roomParticipantRepository;
+    private final RoomRepository roomRepository;
+    private final DeltaSnapshot<Map<Long, long[]>, Map<Long, RoomChange>> rooms;
+
+    public RoomMembershipServiceImpl(
+            RoomParticipantRepository roomParticipantRepository,
+            RoomRepository roomRepository,
+            MeterRegistry meterRegistry) {
+        this.roomParticipantRepository = roomParticipantRepository;
+        this.roomRepository = roomRepository;
+        this.rooms = new DeltaSnapshot<>("room.membership", ConcurrentHashMap::new, meterRegistry);
+
+        Gauge.builder("room.membership.rooms", this, service -> service.snapshot().size())
+                .register(meterRegistry);
+        Gauge.builder("room.membership.members", this, RoomMembershipServiceImpl::memberCount)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean isMember(Long roomId, Long userId) {
+        if (roomId == null || userId == null)
+            return false;
+        Boolean changed = decide(rooms.delta().get(roomId), userId);
+        if (changed == null)
+            changed = decide(rooms.frozenDelta().get(roomId), userId);
+        if (changed != null)
+            return changed;
+        Map<Long, long[]> current = rooms.snapshot();
+        if (current == null)
+            return roomRepository.isUserInRoom(roomId, userId);
+        long[] members = current.get(roomId);
+        return members != null && Arrays.binarySearch(members, userId) >= 0;
+    }
+
+    @Override
+    public void roomCreated(Long roomId, Long ownerId) {
+        RoomChange created = new RoomChange(true, new long[]{ownerId}, NO_MEMBERS);
+        rooms.writeAfterCommit(delta -> delta.put(roomId, created));
+    }
+
+    @Override
+    public void roomDeleted(Long roomId) {
+        rooms.writeAfterCommit(delta -> delta.put(roomId, RoomChange.DELETED));
+    }
+
+    @Override
+    public void membersAdded(Long roomId, Collection<Long> userIds) {
+        if (userIds.isEmpty())
+            return;
+        long[] added = sorted(userIds);
+        rooms.writeAfterCommit(delta -> delta.merge(roomId, RoomChange.UNCHANGED.add(added),
+                (change, ignored) -> change.add(added)));
+    }
+
+    @Override
+    public void membersRemoved(Long roomId, Collection<Long> userIds) {
+        if (userIds.isEmpty())
+            return;
+        long[] removed = sorted(userIds);
+        rooms.writeAfterCommit(delta -> delta.merge(roomId, RoomChange.UNCHANGED.remove(removed),
+                (change, ignored) -> change.remove(removed)));
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return rooms.isLoaded();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @Override
+    public synchronized void reload() {
+        long start = System.nanoTime();
+        Map<Long, long[]> loaded = new HashMap<>();
+        MembersBuffer buffer = new MembersBuffer(loaded);
+        roomParticipantRepository.forEachMembership(buffer::add);
+        buffer.finish();
+
+        rooms.publish(pending -> apply(loaded, pending));
+        log.info("Loaded room membership: {} rooms, {} members in {} ms",
+                snapshot().size(), memberCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Scheduled(fixedDelayString = "${application.room-membership.compact-interval:1m}")
+    public synchronized void compact() {
+        Map<Long, long[]> base = rooms.snapshot();
+        if (base == null || rooms.delta().isEmpty())
+            return;
+        rooms.publish(pending -> apply(new HashMap<>(base), pending));
+    }
+
+    @Scheduled(fixedDelayString = "${application.room-membership.verify-interval:1h}",
+            initialDelayString = "${application.room-membership.verify-interval:1h}")
+    public void scheduledVerify() {
+        if (isLoaded())
+            verifyConsistency();
+    }
+
+    /**
+     * Compares every room's member count and member id sum with the table, which catches changes made
+     * outside this instance even when they cancel out in the total.
+     */
+    @Override
+    public synchronized boolean verifyConsistency() {
+        compact();
+        Map<Long, long[]> indexed = snapshot();
+        long[] outOfSync = new long[1];
+        long[] matchedRooms = new long[1];
+        roomParticipantRepository.forEachRoomDigest((roomId, members, memberIdSum) -> {
+            long[] ids = indexed.get(roomId);
+            if (ids == null) {
+                outOfSync[0]++;
+                return;
+            }
+            matchedRooms[0]++;
+            if (ids.length != members || Arrays.stream(ids).sum() != memberIdSum)
+                outOfSync[0]++;
+        });
+        // rooms still indexed that no longer have any member rows
+        outOfSync[0] += indexed.size() - matchedRooms[0];
+        if (outOfSync[0] == 0)
+            return true;
+
+        rooms.mismatch(outOfSync[0] + " of " + indexed.size() + " rooms differ");
+        reload();
+        return false;
+    }
+
+    private static Map<Long, long[]> apply(Map<Long, long[]> base, Map<Long, RoomChange> pending) {
+        pending.forEach((roomId, change) -> {
+            long[] members = change.applyTo(base.getOrDefault(roomId, NO_MEMBERS));
+            if (members.length == 0)
+                base.remove(roomId);
+            else
+                base.put(roomId, members);
+        });
+        return Collections.unmodifiableMap(base);
+    }
+
+    private static Boolean decide(RoomChange change, long userId) {
+        return change == null ? null : change.decide(userId);
+    }
+
+    private Map<Long, long[]> snapshot() {
+        Map<Long, long[]> current = rooms.snapshot();
+        return current == null ? Map.of() : current;
+    }
+
+    private long memberCount() {
+        long count = 0;
+        for (long[] members : snapshot().values())
+            count += members.length;
+        return count;
+    }
+
+    private static long[] sorted(Collection<Long> userIds) {
+        return userIds.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+    }
+
+    private static long[] merge(long[] a, long[] b) {
+        long[] merged = new long[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length || j < b.length) {
+            long next;
+            if (j >= b.length || (i < a.length && a[i] <= b[j]))
+                next = a[i++];
+            else
+                next = b[j++];
+            if (k == 0 || merged[k - 1] != next)
+                merged[k++] = next;
+        }
+        return k == merged.length ? merged : Arrays.copyOf(merged, k);
+    }
+
+    private static long[] subtract(long[] members, long[] removed) {
+        long[] kept = new long[members.length];
+        int k = 0;
+        for (long member : members) {
+            if (Arrays.binarySearch(removed, member) < 0)
+                kept[k++] = member;
+        }
+        return k == members.length ? members : Arrays.copyOf(kept, k);
+    }
+
+    /**
+     * What happened to one room since the snapshot: the sorted ids added and removed, and whether the
+     * snapshot's members no longer count because the room was created or deleted. Changes are recorded
+     * rather than resulting member lists so they replay correctly onto a freshly loaded snapshot.
+     */
+    private record RoomChange(boolean reset, long[] added, long[] removed) {
+
+        static final RoomChange UNCHANGED = new RoomChange(false, NO_MEMBERS, NO_MEMBERS);
+        static final RoomChange DELETED = new RoomChange(true, NO_MEMBERS, NO_MEMBERS);
+
+        RoomChange add(long[] userIds) {
+            return new RoomChange(reset, merge(added, userIds), subtract(removed, userIds));
+        }
+
+        RoomChange remove(long[] userIds) {
+            return new RoomChange(reset, subtract(added, userIds), merge(removed, userIds));
+        }
+
+        /**
+         * Returns whether the user is a member, or {@code null} when this change does not say.
+         */
+        Boolean decide(long userId) {
+            if (Arrays.binarySearch(added, userId) >= 0)
+                return true;
+            if (Arrays.binarySearch(removed, userId) >= 0 || reset)
+                return false;
+            return null;
+        }
+
+        long[] applyTo(long[] members) {
+            return merge(reset ? NO_MEMBERS : subtract(members, removed), added);
+        }
+    }
+
+    /**
+     * Collects the rows of one room at a time; they arrive ordered by room and user, so each array is
+     * already sorted.
+     */
+    private static final class MembersBuffer {
+        private final Map<Long, long[]> target;
+        private long roomId;
+        private long[] members = new long[16];
+        private int size;
+
+        MembersBuffer(Map<Long, long[]> target) {
+            this.target = target;
+        }
+
+        void add(long roomId, long userId) {
+            if (size > 0 && roomId != this.roomId)
+                finish();
+            this.roomId = roomId;
+            if (size > 0 && members[size - 1] == userId)
+                return;
+            if (size == members.length)
+                members = Arrays.copyOf(members, size * 2);
+            members[size++] = userId;
+        }
+
+        void finish() {
+            if (size > 0)
+                target.put(roomId, Arrays.copyOf(members, size));
+            size = 0;
+        }
+    }
+}
@@ -1,31 +1,68 @@
 package org.mafisher.togetherbackend.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.mafisher.togetherbackend.chat.ChatHistoryCache;
+import org.mafisher.togetherbackend.chat.ReadReceiptAggregator;
+import org.mafisher.togetherbackend.chat.RoomFanout;
+import org.mafisher.togetherbackend.chat.SseFanout;
+import org.mafisher.togetherbackend.dto.CursorPage;
+import org.mafisher.togetherbackend.dto.ParticipantChangeDto;
+import org.mafisher.togetherbackend.dto.ParticipantDto;
 import org.mafisher.togetherbackend.dto.RoomDto;
+import org.mafisher.togetherbackend.dto.RoomSummaryDto;
 import org.mafisher.togetherbackend.dto.request.CreateRoomRequest;
+import org.mafisher.togetherbackend.dto.request.ParticipantsRequest;
 import org.mafisher.togetherbackend.entity.Room;
 import org.mafisher.togetherbackend.entity.User;
+import org.mafisher.togetherbackend.enums.ParticipantChangeStatus;
+import org.mafisher.togetherbackend.enums.RoomView;
 import org.mafisher.togetherbackend.handler.BusinessErrorCodes;
 import org.mafisher.togetherbackend.handler.CustomException;
 import org.mafisher.togetherbackend.mappers.Mapper;
-import org.mafisher.togetherbackend.repository.FriendshipRepository;
+import org.mafisher.togetherbackend.repository.ChatMessageRepository;
+import org.mafisher.togetherbackend.repository.RoomParticipantRepository;
+import org.mafisher.togetherbackend.repository.RoomReadStateRepository;
 import org.mafisher.togetherbackend.repository.RoomRepository;
+import org.mafisher.togetherbackend.repository.UserRepository;
+import org.mafisher.togetherbackend.service.FriendGraphService;
 import org.mafisher.togetherbackend.service.PrincipalService;
+import org.mafisher.togetherbackend.service.RoomMembershipService;
 import org.mafisher.togetherbackend.service.RoomService;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class RoomServiceImpl implements RoomService {
+    private static final int MAX_PARTICIPANT_PAGE_SIZE = 100;
+    private static final int MAX_BULK_PARTICIPANTS = 100;
 
     private final RoomRepository roomRepository;
+    private final RoomParticipantRepository roomParticipantRepository;
+    private final UserRepository userRepository;
     private final PrincipalService principalService;
     private final Mapper<Room, RoomDto> roomMapper;
-    private final FriendshipRepository friendshipRepository;
+    private final FriendGraphService friendGraphService;
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatHistoryCache chatHistoryCache;
+    private final RoomReadStateRepository roomReadStateRepository;
+    private final ReadReceiptAggregator readReceiptAggregator;
+    private final RoomMembershipService roomMembershipService;
+    private final RoomFanout roomFanout;
+    private final SseFanout sseFanout;
 
     @Override
     public RoomDto createRoom(CreateRoomRequest createRoomRequest, Principal principal) {
@@ -40,20 +77,32 @@ public class RoomServiceImpl implements RoomService {
                 .participants(new HashSet<>(List.of(user)))
                 .build();
 
-        return roomMapper.mapTo(roomRepository.save(room));
+        Room saved = roomRepository.save(room);
+        roomMembershipService.roomCreated(saved.getId(), user.getId());
+        return roomMapper.mapTo(saved);
     }
 
     @Override
+    @Transactional
     public void deleteRoom(Long roomId, Principal principal) {
         User user = principalService.checkUserPrincipal(principal);
         Room room = checkRoomExists(roomId);
         checkRoomOwner(room, user);
 
+        chatMessageRepository.deleteByRoomId(roomId);
+        roomReadStateRepository.deleteByRoomId(roomId);
         roomRepository.delete(room);
+        afterCommit(() -> {
+            chatHistoryCache.evict(roomId);
+            readReceiptAggregator.evictRoom(roomId);
+            roomFanout.unsubscribeAll(roomId);
+            sseFanout.closeRoom(roomId);
+        });
+        roomMembershipService.roomDeleted(roomId);
     }
 
     @Override
-    public RoomDto addParticipant(Long roomId, String username, Principal principal) {
+    public RoomDto addParticipant(Long roomId, String username, RoomView view, Principal principal) {
         User owner = principalService.checkUserPrincipal(principal);
         Room room = checkRoomExists(roomId);
         checkRoomOwner(room, owner);
@@ -62,45 +111,215 @@ public class RoomServiceImpl implements RoomService {
         if(owner.getId().equals(participant.getId()))
             throw new CustomException(BusinessErrorCodes.USERS_ARE_THE_SAME);
 
-        if(!friendshipRepository.existsBetweenUsers(owner, participant))
+        if(!friendGraphService.areFriends(owner.getId(), participant.getId()))
             throw new CustomException(BusinessErrorCodes.USERS_NOT_FRIENDS);
 
-        if(roomRepository.isUserInRoom(room, participant))
+        try {
+            roomParticipantRepository.insert(roomId, participant.getId());
+        } catch (DuplicateKeyException e) {
             throw new CustomException(BusinessErrorCodes.USER_ALREADY_IN_ROOM);
-
-        room.addParticipant(participant);
-        return roomMapper.mapTo(roomRepository.save(room));
+        }
+        roomMembershipService.membersAdded(roomId, List.of(participant.getId()));
+        return toDto(room, view);
     }
 
     @Override
-    public RoomDto removeParticipant(Long roomId, String username, Principal principal) {
+    public RoomDto removeParticipant(Long roomId, String username, RoomView view, Principal principal) {
         User owner = principalService.checkUserPrincipal(principal);
         Room room = checkRoomExists(roomId);
         checkRoomOwner(room, owner);
         User participant = principalService.checkUserExist(username);
 
-        if(!roomRepository.isUserInRoom(room, participant))
-            throw new CustomException(BusinessErrorCodes.USER_NOT_IN_ROOM);
-
         if(owner.getId().equals(participant.getId()))
             throw new CustomException(BusinessErrorCodes.PARTICIPANT_IS_OWNER);
 
-        room.removeParticipant(participant);
-        return roomMapper.mapTo(roomRepository.save(room));
+        if(!roomParticipantRepository.delete(roomId, participant.getId()))
+            throw new CustomException(BusinessErrorCodes.USER_NOT_IN_ROOM);
+        roomMembershipService.membersRemoved(roomId, List.of(participant.getId()));
+        disconnect(roomId, List.of(participant.getId()));
+        return toDto(room, view);
     }
 
+    /**
+     * Validates every nickname with set-based lookups (one query for the users, one for existing members,
+     * friendship from the in-memory graph) and inserts the new members in one batch. Nicknames that cannot
+     * be added are reported with the reason instead of failing the whole request.
+     */
     @Override
-    public List<RoomDto> getOwnedRooms(Principal principal) {
-        User user = principalService.checkUserPrincipal(principal);
-        return roomRepository.findByOwner(user).stream()
-                .map(roomMapper::mapTo).toList();
+    public List<ParticipantChangeDto> addParticipants(Long roomId, ParticipantsRequest request, Principal principal) {
+        User owner = principalService.checkUserPrincipal(principal);
+        checkRoomOwner(checkRoomExists(roomId), owner);
+        Map<String, ParticipantChangeDto> results = resolveParticipants(request);
+
+        List<Long> candidates = new ArrayList<>();
+        for (ParticipantChangeDto result : results.values()) {
+            if (result.getStatus() != null)
+                continue;
+            if (owner.getId().equals(result.getUserId()))
+                result.setStatus(ParticipantChangeStatus.USERS_ARE_THE_SAME);
+            else if (!friendGraphService.areFriends(owner.getId(), result.getUserId()))
+                result.setStatus(ParticipantChangeStatus.USERS_NOT_FRIENDS);
+            else
+                candidates.add(result.getUserId());
+        }
+
+        Set<Long> members = candidates.isEmpty()
+                ? Set.of()
+                : new HashSet<>(roomRepository.findParticipantIdsAmong(roomId, candidates));
+        List<Long> added = new ArrayList<>(candidates.size());
+        for (Long userId : candidates) {
+            if (!members.contains(userId))
+                added.add(userId);
+        }
+        Set<Long> inserted = insertParticipants(roomId, added);
+        roomMembershipService.membersAdded(roomId, inserted);
+
+        for (ParticipantChangeDto result : results.values()) {
+            if (result.getStatus() == null)
+                result.setStatus(inserted.contains(result.getUserId())
+                        ? ParticipantChangeStatus.ADDED
+                        : ParticipantChangeStatus.USER_ALREADY_IN_ROOM);
+        }
+        return new ArrayList<>(results.values());
     }
 
     @Override
-    public List<RoomDto> getBelongsRooms( Principal principal) {
-        User user = principalService.checkUserPrincipal(principal);
-        return roomRepository.findRoomsByUser(user).stream()
-                .map(roomMapper::mapTo).toList();
+    public List<ParticipantChangeDto> removeParticipants(Long roomId, ParticipantsRequest request, Principal principal) {
+        User owner = principalService.checkUserPrincipal(principal);
+        checkRoomOwner(checkRoomExists(roomId), owner);
+        Map<String, ParticipantChangeDto> results = resolveParticipants(request);
+
+        List<Long> candidates = new ArrayList<>();
+        for (ParticipantChangeDto result : results.values()) {
+            if (result.getStatus() != null)
+                continue;
+            if (owner.getId().equals(result.getUserId()))
+                result.setStatus(ParticipantChangeStatus.PARTICIPANT_IS_OWNER);
+            else
+                candidates.add(result.getUserId());
+        }
+
+        List<Long> members = candidates.isEmpty() ? List.of() : roomRepository.findParticipantIdsAmong(roomId, candidates);
+        if (!members.isEmpty()) {
+            roomParticipantRepository.deleteAll(roomId, members);
+            roomMembershipService.membersRemoved(roomId, members);
+            disconnect(roomId, members);
+        }
+
+        Set<Long> removed = new HashSet<>(members);
+        for (ParticipantChangeDto result : results.values()) {
+            if (result.getStatus() == null)
+                result.setStatus(removed.contains(result.getUserId())
+                        ? ParticipantChangeStatus.REMOVED
+                        : ParticipantChangeStatus.USER_NOT_IN_ROOM);
+        }
+        return new ArrayList<>(results.values());
+    }
+
+    @Override
+    public List<RoomSummaryDto> getOwnedRooms(Principal principal) {
+        return roomRepository.findSummariesByOwnerId(principalService.userIdOf(principal));
+    }
+
+    @Override
+    public List<RoomSummaryDto> getBelongsRooms(Principal principal) {
+        return roomRepository.findSummariesByUserId(principalService.userIdOf(principal));
+    }
+
+    @Override
+    public CursorPage<ParticipantDto> getParticipants(Long roomId, String cursor, int limit, Principal principal) {
+        Long userId = principalService.userIdOf(principal);
+        if (!roomMembershipService.isMember(roomId, userId))
+            throw new CustomException(BusinessErrorCodes.USER_NOT_IN_ROOM);
+        int size = Math.max(1, Math.min(limit, MAX_PARTICIPANT_PAGE_SIZE));
+
+        List<ParticipantDto> participants = roomRepository.findParticipantsAfter(
+                roomId, decodeParticipantCursor(cursor), PageRequest.of(0, size + 1));
+        boolean hasMore = participants.size() > size;
+        List<ParticipantDto> content = hasMore ? participants.subList(0, size) : participants;
+        return CursorPage.<ParticipantDto>builder()
+                .items(content)
+                .nextCursor(hasMore ? String.valueOf(content.get(size - 1).getId()) : null)
+                .build();
+    }
+
+    /**
+     * Returns one result per distinct nickname, in request order, with the user id filled in; nicknames
+     * without a user already carry {@code USER_NOT_FOUND}.
+     */
+    private Map<String, ParticipantChangeDto> resolveParticipants(ParticipantsRequest request) {
+        Map<String, ParticipantChangeDto> results = new LinkedHashMap<>();
+        if (request == null || request.getNicknames() == null)
+            return results;
+        for (String nickname : request.getNicknames()) {
+            if (nickname != null && !nickname.isBlank())
+                results.putIfAbsent(nickname, ParticipantChangeDto.builder().nickName(nickname).build());
+        }
+        if (results.size() > MAX_BULK_PARTICIPANTS)
+            throw new CustomException(BusinessErrorCodes.TOO_MANY_PARTICIPANTS);
+        if (results.isEmpty())
+            return results;
+
+        for (UserRepository.UserNickname user : userRepository.findNicknamesIn(results.keySet())) {
+            ParticipantChangeDto result = results.get(user.getNickName());
+            if (result != null)
+                result.setUserId(user.getId());
+        }
+        for (ParticipantChangeDto result : results.values()) {
+            if (result.getUserId() == null)
+                result.setStatus(ParticipantChangeStatus.USER_NOT_FOUND);
+        }
+        return results;
+    }
+
+    /**
+     * Inserts the users in one batch. If someone joined concurrently the batch is rolled back and the users
+     * are inserted one by one; returns the ids that were actually added.
+     */
+    private Set<Long> insertParticipants(Long roomId, List<Long> userIds) {
+        if (userIds.isEmpty())
+            return Set.of();
+        try {
+            roomParticipantRepository.insertAll(roomId, userIds);
+            return new HashSet<>(userIds);
+        } catch (DuplicateKeyException e) {
+            Set<Long> inserted = new HashSet<>();
+            for (Long userId : userIds) {
+                try {
+                    roomParticipantRepository.insert(roomId, userId);
+                    inserted.add(userId);
+                } catch (DuplicateKeyException duplicate) {
+                    // joined in the meantime
+                }
+            }
+            return inserted;
+        }
+    }
+
+    /**
+     * The compact view reads only the member ids, so the participants and their roles are never mapped.
+     */
+    private RoomDto toDto(Room room, RoomView view) {
+        if (view != RoomView.COMPACT)
+            return roomMapper.mapTo(room);
+        List<Long> participantIds = roomRepository.findParticipantIds(room.getId());
+        return RoomDto.builder()
+                .id(room.getId())
+                .name(room.getName())
+                .ownerId(room.getOwner().getId())
+                .participantIds(participantIds)
+                .participantCount((long) participantIds.size())
+                .build();
+    }
+
+    private static Long decodeParticipantCursor(String cursor) {
+        if (cursor == null || cursor.isBlank())
+            return 0L;
+        try {
+            return Long.valueOf(cursor);
+        } catch (NumberFormatException e) {
+            throw new CustomException(BusinessErrorCodes.INVALID_CURSOR);
+        }
     }
 
     private boolean checkRoomOwner(Room room, User user) {
@@ -115,4 +334,31 @@ public class RoomServiceImpl implements RoomService {
         );
     }
 
+    /**
+     * Ends the removed members' live room subscriptions and streams once the removal commits; the membership
+     * index has been updated by then, so they cannot subscribe again.
+     */
+    private void disconnect(Long roomId, Collection<Long> userIds) {
+        afterCommit(() -> {
+            roomFanout.unsubscribe(roomId, userIds);
+            sseFanout.closeRoom(roomId, userIds);
+        });
+    }
+
+    /**
+     * Runs {@code action} once the surrounding transaction commits. Evicting earlier would let a concurrent
+     * read reseed a cache from rows the transaction is still deleting.
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+            return;
+        }
+        action.run();
+    }
 }
@@ -0,0 +1,57 @@
+package org.mafisher.togetherbackend.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.mafisher.togetherbackend.repository.UserRepository;
+import org.mafisher.togetherbackend.service.PrincipalService;
+import org.mafisher.togetherbackend.service.TokenVersionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Service
+public class TokenVersionServiceImpl implements TokenVersionService {
+
+    private static final int MISSING_USER = -1;
+
+    private final UserRepository userRepository;
+    private final PrincipalService principalService;
+    private final Cache<Long, Integer> versions;
+
+    public TokenVersionServiceImpl(
+            UserRepository userRepository,
+            PrincipalService principalService,
+            @Value("${application.security.jwt.version-cache-size:100000}") long cacheSize,
+            @Value("${application.security.jwt.version-cache-ttl:10m}") Duration cacheTtl) {
+        this.userRepository = userRepository;
+        this.principalService = principalService;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    @Override
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        if (userId == null)
+            return false;
+        int current = versions.get(userId, id -> userRepository.findTokenVersionById(id)
+                .orElse(MISSING_USER));
+        return current != MISSING_USER && current == tokenVersion;
+    }
+
+    @Override
+    @Transactional
+    public void revokeTokens(Long userId) {
+        userRepository.incrementTokenVersion(userId);
+        Optional<Integer> current = userRepository.findTokenVersionById(userId);
+        if (current.isPresent())
+            versions.put(userId, current.get());
+        else
+            versions.invalidate(userId);
+        principalService.invalidate(userId);
+    }
+}
@@ -0,0 +1,176 @@
+package org.mafisher.togetherbackend.service.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.mafisher.togetherbackend.dto.UserSuggestionDto;
+import org.mafisher.togetherbackend.index.DeltaSnapshot;
+import org.mafisher.togetherbackend.repository.UserRepository;
+import org.mafisher.togetherbackend.repository.UserRepository.UserNickname;
+import org.mafisher.togetherbackend.search.NicknameBuffer;
+import org.mafisher.togetherbackend.search.NicknameIndex;
+import org.mafisher.togetherbackend.service.UserSuggestService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Serves nickname autocomplete from memory. Registered users are loaded into an immutable
+ * {@link NicknameIndex} at startup; users registered afterwards go to the small sorted delta of a
+ * {@link DeltaSnapshot} that {@link #compact()} periodically folds into a new snapshot.
+ */
+@Slf4j
+@Service
+public class UserSuggestServiceImpl implements UserSuggestService {
+
+    private static final Comparator<UserSuggestionDto> SUGGESTION_ORDER = Comparator
+            .comparing((UserSuggestionDto suggestion) -> NicknameIndex.normalize(suggestion.getNickName()))
+            .thenComparing(UserSuggestionDto::getId);
+
+    private final UserRepository userRepository;
+    private final int loadBatchSize;
+    private final DeltaSnapshot<NicknameIndex, ConcurrentNavigableMap<String, UserSuggestionDto>> index;
+
+    public UserSuggestServiceImpl(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${application.user-suggest.load-batch-size:10000}") int loadBatchSize) {
+        this.userRepository = userRepository;
+        this.loadBatchSize = loadBatchSize;
+        this.index = new DeltaSnapshot<>("user.suggest", ConcurrentSkipListMap::new, meterRegistry);
+
+        Gauge.builder("user.suggest.entries", this, service -> service.snapshot().size() + service.index.delta().size())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<UserSuggestionDto> suggest(String prefix, int limit, Long excludedUserId) {
+        long excludedId = excludedUserId == null ? Long.MIN_VALUE : excludedUserId;
+        return suggestExcluding(prefix, limit, id -> id == excludedId);
+    }
+
+    private List<UserSuggestionDto> suggestExcluding(String prefix, int limit, LongPredicate excluded) {
+        if (prefix == null || prefix.isBlank() || limit <= 0)
+            return List.of();
+
+        List<UserSuggestionDto> suggestions = new ArrayList<>(limit);
+        collect(index.delta(), prefix, limit, excluded, suggestions);
+        collect(index.frozenDelta(), prefix, limit, excluded, suggestions);
+
+        NicknameIndex current = index.snapshot();
+        if (current == null) {
+            String pattern = escapeLike(NicknameIndex.normalize(prefix)) + "%";
+            for (UserNickname user : userRepository.findNicknamesLike(pattern, PageRequest.of(0, limit + 1))) {
+                if (!excluded.test(user.getId()))
+                    suggestions.add(new UserSuggestionDto(user.getId(), user.getNickName()));
+            }
+        } else {
+            current.prefix(prefix, limit, excluded,
+                    (id, nickName) -> suggestions.add(new UserSuggestionDto(id, nickName)));
+        }
+
+        return suggestions.stream()
+                .sorted(SUGGESTION_ORDER)
+                .filter(distinctIds())
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public void addUser(Long userId, String nickName) {
+        if (userId == null || nickName == null)
+            return;
+        UserSuggestionDto suggestion = new UserSuggestionDto(userId, nickName);
+        index.writeAfterCommit(delta -> delta.put(key(nickName, userId), suggestion));
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return index.isLoaded();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @Override
+    public synchronized void reload() {
+        long start = System.nanoTime();
+        NicknameBuffer entries = new NicknameBuffer(loadBatchSize);
+        long afterId = 0;
+        List<UserNickname> batch;
+        do {
+            batch = userRepository.findNicknamesAfter(afterId, PageRequest.of(0, loadBatchSize));
+            for (UserNickname user : batch)
+                entries.add(user.getId(), user.getNickName());
+            if (!batch.isEmpty())
+                afterId = batch.get(batch.size() - 1).getId();
+        } while (batch.size() == loadBatchSize);
+
+        index.publish(pending -> build(entries, pending));
+        log.info("Loaded nickname index: {} users in {} ms",
+                index.snapshot().size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Scheduled(fixedDelayString = "${application.user-suggest.compact-interval:1m}")
+    public synchronized void compact() {
+        NicknameIndex base = index.snapshot();
+        if (base == null || index.delta().isEmpty())
+            return;
+        NicknameBuffer entries = new NicknameBuffer(base.size() + index.delta().size());
+        base.copyEntriesTo(entries);
+        index.publish(pending -> build(entries, pending));
+    }
+
+    private static NicknameIndex build(NicknameBuffer entries, Map<String, UserSuggestionDto> pending) {
+        pending.values().forEach(user -> entries.add(user.getId(), user.getNickName()));
+        return NicknameIndex.build(entries);
+    }
+
+    private NicknameIndex snapshot() {
+        NicknameIndex current = index.snapshot();
+        return current == null ? NicknameIndex.EMPTY : current;
+    }
+
+    private static void collect(ConcurrentNavigableMap<String, UserSuggestionDto> entries, String prefix,
+                                int limit, LongPredicate excluded, List<UserSuggestionDto> suggestions) {
+        String key = NicknameIndex.normalize(prefix);
+        int found = 0;
+        for (Map.Entry<String, UserSuggestionDto> entry : entries.tailMap(key).entrySet()) {
+            if (found >= limit || !entry.getKey().startsWith(key))
+                break;
+            if (excluded.test(entry.getValue().getId()))
+                continue;
+            suggestions.add(entry.getValue());
+            found++;
+        }
+    }
+
+    private static Predicate<UserSuggestionDto> distinctIds() {
+        Set<Long> seen = new HashSet<>();
+        return suggestion -> seen.add(suggestion.getId());
+    }
+
+    private static String key(String nickName, long userId) {
+        return NicknameIndex.normalize(nickName) + '\u0000' + userId;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
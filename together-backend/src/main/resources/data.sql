@@ -4,4 +4,4 @@ SELECT 1, 'ADMIN'
 
 INSERT INTO role (id, name)
 SELECT 2, 'USER'
-    WHERE NOT EXISTS (SELECT 1 FROM role WHERE id = 2);
\ No newline at end of file
+    WHERE NOT EXISTS (SELECT 1 FROM role WHERE id = 2);
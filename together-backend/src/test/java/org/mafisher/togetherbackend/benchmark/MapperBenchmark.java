@@ -0,0 +1,92 @@
+package org.mafisher.togetherbackend.benchmark;
+
+import org.mafisher.togetherbackend.dto.RoomDto;
+import org.mafisher.togetherbackend.dto.UserDto;
+import org.mafisher.togetherbackend.entity.Role;
+import org.mafisher.togetherbackend.entity.Room;
+import org.mafisher.togetherbackend.entity.User;
+import org.mafisher.togetherbackend.mappers.impl.RoomMapper;
+import org.mafisher.togetherbackend.mappers.impl.UserMapperImpl;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the hand-written mappers with the LOOSE {@link ModelMapper} setup they replaced.
+ * Run {@link #main(String[])} from the test classpath; the GC profiler reports bytes allocated per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private ModelMapper modelMapper;
+    private UserMapperImpl userMapper;
+    private RoomMapper roomMapper;
+    private User user;
+    private Room room;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.LOOSE);
+        userMapper = new UserMapperImpl();
+        roomMapper = new RoomMapper(userMapper);
+
+        Set<Role> roles = Set.of(Role.builder().id(2L).name("USER").build());
+        user = user(1L, roles);
+        Set<User> participants = new HashSet<>();
+        for (long id = 2; id <= 21; id++)
+            participants.add(user(id, roles));
+        room = Room.builder().id(1L).name("room").owner(user).participants(participants).build();
+    }
+
+    @Benchmark
+    public UserDto userModelMapper() {
+        return modelMapper.map(user, UserDto.class);
+    }
+
+    @Benchmark
+    public UserDto userHandWritten() {
+        return userMapper.mapTo(user);
+    }
+
+    @Benchmark
+    public RoomDto roomModelMapper() {
+        return modelMapper.map(room, RoomDto.class);
+    }
+
+    @Benchmark
+    public RoomDto roomHandWritten() {
+        return roomMapper.mapTo(room);
+    }
+
+    private static User user(long id, Set<Role> roles) {
+        return User.builder()
+                .id(id)
+                .firstName("First" + id)
+                .lastName("Last" + id)
+                .nickName("user" + id)
+                .email("user" + id + "@mail.com")
+                .roles(roles)
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MapperBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
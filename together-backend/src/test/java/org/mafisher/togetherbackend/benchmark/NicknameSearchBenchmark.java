@@ -0,0 +1,119 @@
+package org.mafisher.togetherbackend.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Friend search over 1M lower-cased nicknames, modelling the plans Postgres can pick for
+ * {@code LOWER(nick_name) LIKE '%q%'}. A scan counting every match is what a {@code Page} total costs without
+ * a usable index; a scan stopping at the first {@code PAGE + 1} matches is what a {@code Slice} costs. The
+ * trigram path intersects the posting lists of the query's trigrams, as a bitmap scan of
+ * {@code idx_user_nick_name_trgm} does, and rechecks the candidates; queries shorter than a trigram fall back
+ * to the full scan, as they do in pg_trgm. Run {@link #main(String[])} from the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class NicknameSearchBenchmark {
+
+    private static final int USERS = 1_000_000;
+    private static final int PAGE = 20;
+
+    @Param({"a", "ab", "abc", "abcd"})
+    public String query;
+
+    private String[] keys;
+    private Map<String, int[]> postings;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        keys = new String[USERS];
+        Map<String, List<Integer>> lists = new HashMap<>();
+        for (int id = 0; id < USERS; id++) {
+            char[] nickName = new char[6 + random.nextInt(7)];
+            for (int i = 0; i < nickName.length; i++)
+                nickName[i] = (char) ('a' + random.nextInt(26));
+            keys[id] = new String(nickName);
+            for (int i = 0; i + 3 <= nickName.length; i++) {
+                List<Integer> ids = lists.computeIfAbsent(keys[id].substring(i, i + 3), trigram -> new ArrayList<>());
+                if (ids.isEmpty() || ids.get(ids.size() - 1) != id)
+                    ids.add(id);
+            }
+        }
+        postings = new HashMap<>();
+        lists.forEach((trigram, ids) -> postings.put(trigram, ids.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    @Benchmark
+    public int scanCount() {
+        int count = 0;
+        for (String key : keys) {
+            if (key.contains(query))
+                count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int scanFirstSlice() {
+        int found = 0;
+        for (String key : keys) {
+            if (key.contains(query) && ++found > PAGE)
+                break;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int trigramCount() {
+        if (query.length() < 3)
+            return scanCount();
+
+        int[] candidates = postings.getOrDefault(query.substring(0, 3), new int[0]);
+        for (int i = 1; i + 3 <= query.length() && candidates.length > 0; i++)
+            candidates = intersect(candidates, postings.getOrDefault(query.substring(i, i + 3), new int[0]));
+        int count = 0;
+        for (int id : candidates) {
+            if (keys[id].contains(query))
+                count++;
+        }
+        return count;
+    }
+
+    private static int[] intersect(int[] left, int[] right) {
+        int[] both = new int[Math.min(left.length, right.length)];
+        int size = 0;
+        for (int i = 0, j = 0; i < left.length && j < right.length; ) {
+            if (left[i] < right[j])
+                i++;
+            else if (left[i] > right[j])
+                j++;
+            else {
+                both[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(both, size);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NicknameSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,127 @@
+package org.mafisher.togetherbackend.chat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mafisher.togetherbackend.dto.ChatMessageDto;
+import org.mafisher.togetherbackend.entity.ChatMessage;
+import org.mafisher.togetherbackend.entity.Room;
+import org.mafisher.togetherbackend.entity.User;
+import org.mafisher.togetherbackend.mappers.impl.ChatMessageMapper;
+import org.mafisher.togetherbackend.repository.ChatMessageRepository;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChatHistoryCacheTest {
+
+    @Mock
+    private ChatMessageRepository chatMessageRepository;
+
+    private ChatHistoryCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ChatHistoryCache(chatMessageRepository, new ChatMessageMapper(), new SimpleMeterRegistry(),
+                3, 1024 * 1024, Duration.ofMinutes(30));
+    }
+
+    @Test
+    void before_ServesRecentPagesFromMemoryAfterSeeding() {
+        when(chatMessageRepository.findLatest(7L, PageRequest.of(0, 3))).thenReturn(stored(3, 2));
+
+        assertThat(ids(cache.before(7L, null, 1))).containsExactly(2L, 3L);
+        cache.append(dto(4));
+        assertThat(ids(cache.before(7L, null, 1))).containsExactly(3L, 4L);
+
+        verify(chatMessageRepository, times(1)).findLatest(anyLong(), any());
+        verify(chatMessageRepository, never()).findBefore(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void before_FallsBackToKeysetQueryBelowBuffer() {
+        when(chatMessageRepository.findLatest(7L, PageRequest.of(0, 3))).thenReturn(stored(10, 9, 8));
+        when(chatMessageRepository.findBefore(7L, 8L, PageRequest.of(0, 2))).thenReturn(stored(7, 6));
+
+        assertThat(ids(cache.before(7L, 9L, 2))).containsExactly(6L, 7L, 8L);
+    }
+
+    @Test
+    void after_ServesCatchUpFromMemoryOrDatabase() {
+        when(chatMessageRepository.findLatest(7L, PageRequest.of(0, 3))).thenReturn(stored(10, 9, 8));
+        when(chatMessageRepository.findAfter(7L, 10L, PageRequest.of(0, 3))).thenReturn(List.of());
+        when(chatMessageRepository.findAfter(7L, 5L, PageRequest.of(0, 10))).thenReturn(stored(6, 7, 8, 9, 10));
+
+        assertThat(ids(cache.after(7L, 8L, 10))).containsExactly(9L, 10L);
+        assertThat(ids(cache.after(7L, 5L, 10))).containsExactly(6L, 7L, 8L, 9L, 10L);
+    }
+
+    @Test
+    void before_PicksUpMessagesCommittedWhileSeeding() {
+        when(chatMessageRepository.findLatest(7L, PageRequest.of(0, 3))).thenReturn(stored(2, 1));
+        when(chatMessageRepository.findAfter(7L, 2L, PageRequest.of(0, 3))).thenReturn(stored(3));
+
+        assertThat(ids(cache.before(7L, null, 5))).containsExactly(1L, 2L, 3L);
+        assertThat(ids(cache.before(7L, null, 5))).containsExactly(1L, 2L, 3L);
+        verify(chatMessageRepository, times(1)).findLatest(anyLong(), any());
+    }
+
+    @Test
+    void latestSeq_ReturnsNewestCommittedSequence() {
+        when(chatMessageRepository.findLatest(7L, PageRequest.of(0, 3))).thenReturn(stored(2, 1));
+
+        assertThat(cache.latestSeq(7L)).isEqualTo(2L);
+        cache.append(dto(3));
+        assertThat(cache.latestSeq(7L)).isEqualTo(3L);
+        assertThat(cache.latestSeq(8L)).isZero();
+    }
+
+    @Test
+    void append_InactiveRoom_IsIgnored() {
+        cache.append(dto(1));
+
+        verifyNoInteractions(chatMessageRepository);
+    }
+
+    @Test
+    void memoryBudget_EvictsLeastRecentlyReadRooms() {
+        cache = new ChatHistoryCache(chatMessageRepository, new ChatMessageMapper(), new SimpleMeterRegistry(),
+                3, 700, Duration.ofMinutes(30));
+        when(chatMessageRepository.findLatest(anyLong(), any())).thenReturn(stored(3, 2, 1));
+
+        cache.before(1L, null, 1);
+        cache.before(2L, null, 1);
+        cache.before(2L, null, 1);
+        verify(chatMessageRepository, times(2)).findLatest(anyLong(), any());
+
+        cache.before(1L, null, 1);
+        verify(chatMessageRepository, times(3)).findLatest(anyLong(), any());
+    }
+
+    private static List<ChatMessage> stored(long... ids) {
+        User sender = User.builder().id(1L).nickName("nick").build();
+        Room room = Room.builder().id(7L).build();
+        return LongStream.of(ids)
+                .mapToObj(id -> ChatMessage.builder().seq(id).room(room).sender(sender).content("message").build())
+                .toList();
+    }
+
+    private static ChatMessageDto dto(long id) {
+        return ChatMessageDto.builder().seq(id).roomId(7L).senderId(1L).senderNickName("nick").content("message").build();
+    }
+
+    private static List<Long> ids(List<ChatMessageDto> messages) {
+        return messages.stream().map(ChatMessageDto::getSeq).toList();
+    }
+}
@@ -0,0 +1,163 @@
+package org.mafisher.togetherbackend.chat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mafisher.togetherbackend.repository.ChatMessageBatchRepository;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChatMessageWriterTest {
+
+    @Mock
+    private ChatMessageBatchRepository batchRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ChatMessageWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        writer = new ChatMessageWriter(batchRepository, transactionManager, meterRegistry,
+                3, Duration.ofMillis(200), 100, Duration.ofMillis(50), 1000);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.stop();
+    }
+
+    @Test
+    void write_GroupsMessagesIntoBatchesAndCompletesAcksWithIds() throws Exception {
+        List<Integer> batchSizes = new ArrayList<>();
+        when(batchRepository.insertAll(anyList())).thenAnswer(inv -> {
+            List<PendingChatMessage> batch = inv.getArgument(0);
+            batchSizes.add(batch.size());
+            return LongStream.range(0, batch.size()).map(i -> 100L + i).boxed().toList();
+        });
+
+        writer.start();
+        List<CompletableFuture<ChatMessageAck>> acks = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            acks.add(writer.write(1L, 2L, "m", Instant.now()));
+
+        for (int i = 0; i < 3; i++)
+            assertThat(acks.get(i).get(1, TimeUnit.SECONDS)).isEqualTo(new ChatMessageAck(100L + i, 1L + i));
+        assertThat(batchSizes).containsExactly(3);
+        verify(transactionManager).commit(any());
+        assertThat(meterRegistry.get("chat.writer.batch.size").summary().totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void write_FlushesPartialBatchAfterInterval() throws Exception {
+        when(batchRepository.insertAll(anyList())).thenReturn(List.of(9L));
+        writer.start();
+
+        CompletableFuture<ChatMessageAck> ack = writer.write(1L, 2L, "m", Instant.now());
+
+        assertThat(ack.get(2, TimeUnit.SECONDS).id()).isEqualTo(9L);
+    }
+
+    @Test
+    void write_FailedBatch_CompletesAcksExceptionally() {
+        when(batchRepository.insertAll(anyList())).thenThrow(new IllegalStateException("db down"));
+        writer.start();
+
+        CompletableFuture<ChatMessageAck> ack = writer.write(1L, 2L, "m", Instant.now());
+
+        assertThatThrownBy(() -> ack.get(2, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("db down");
+        assertThat(meterRegistry.get("chat.writer.failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void flush_NumbersEachRoomFromItsStoredMaximum() {
+        when(batchRepository.findMaxSeqs(Set.of(1L, 2L))).thenReturn(Map.of(1L, 5L, 2L, 0L));
+        when(batchRepository.insertAll(anyList()))
+                .thenAnswer(inv -> LongStream.range(0, inv.<List<?>>getArgument(0).size()).boxed().toList());
+
+        List<PendingChatMessage> first = List.of(pending(1L), pending(2L), pending(1L));
+        writer.flush(first);
+        List<PendingChatMessage> second = List.of(pending(2L), pending(1L));
+        writer.flush(second);
+
+        assertThat(first).extracting(PendingChatMessage::getSeq).containsExactly(6L, 1L, 7L);
+        assertThat(second).extracting(PendingChatMessage::getSeq).containsExactly(2L, 8L);
+        verify(batchRepository, times(1)).findMaxSeqs(any());
+    }
+
+    @Test
+    void flush_FailedBatch_RetriesOneByOneAndRejectsOnlyFailingMessages() throws Exception {
+        when(batchRepository.findMaxSeqs(Set.of(1L, 2L))).thenReturn(Map.of(1L, 5L, 2L, 0L));
+        when(batchRepository.findMaxSeqs(Set.of(1L))).thenReturn(Map.of(1L, 5L));
+        when(batchRepository.findMaxSeqs(Set.of(2L))).thenReturn(Map.of(2L, 0L));
+        when(batchRepository.insertAll(anyList()))
+                .thenThrow(new IllegalStateException("batch failed"))
+                .thenReturn(List.of(10L))
+                .thenThrow(new IllegalStateException("room deleted"))
+                .thenReturn(List.of(11L))
+                .thenReturn(List.of(12L));
+
+        List<PendingChatMessage> batch = List.of(pending(1L), pending(2L), pending(1L));
+        writer.flush(batch);
+
+        assertThat(batch.get(0).getAck().get()).isEqualTo(new ChatMessageAck(10L, 6L));
+        assertThatThrownBy(() -> batch.get(1).getAck().get())
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("room deleted");
+        assertThat(batch.get(2).getAck().get()).isEqualTo(new ChatMessageAck(11L, 7L));
+        assertThat(meterRegistry.get("chat.writer.failed").counter().count()).isEqualTo(1);
+
+        // the rejected message's room is reseeded, so its sequence is not lost
+        PendingChatMessage next = pending(2L);
+        writer.flush(List.of(next));
+        assertThat(next.getAck().get()).isEqualTo(new ChatMessageAck(12L, 1L));
+    }
+
+    @Test
+    void flush_FailedWrite_ReseedsStaleCounter() throws Exception {
+        when(batchRepository.findMaxSeqs(Set.of(1L)))
+                .thenReturn(Map.of(1L, 5L))
+                .thenReturn(Map.of(1L, 9L));
+        when(batchRepository.insertAll(anyList()))
+                .thenReturn(List.of(10L))
+                .thenThrow(new DuplicateKeyException("chat_message_room_seq"))
+                .thenReturn(List.of(11L));
+
+        writer.flush(List.of(pending(1L)));
+        // another writer has stored sequences up to 9 since the counter was seeded
+        PendingChatMessage next = pending(1L);
+        writer.flush(List.of(next));
+
+        assertThat(next.getAck().get()).isEqualTo(new ChatMessageAck(11L, 10L));
+    }
+
+    private static PendingChatMessage pending(Long roomId) {
+        return new PendingChatMessage(roomId, 2L, "m", Instant.now());
+    }
+}
@@ -0,0 +1,103 @@
+package org.mafisher.togetherbackend.chat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mafisher.togetherbackend.dto.RoomReadsDto;
+import org.mafisher.togetherbackend.repository.RoomReadStateRepository;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadReceiptAggregatorTest {
+
+    @Mock
+    private RoomReadStateRepository roomReadStateRepository;
+
+    @Mock
+    private RoomFanout roomFanout;
+
+    @Mock
+    private SseFanout sseFanout;
+
+    private ReadReceiptAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new ReadReceiptAggregator(roomReadStateRepository, roomFanout, sseFanout, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void flush_WritesHighestPositionPerUserAndRoomInOneBatch() {
+        aggregator.markRead(7L, 1L, 5);
+        aggregator.markRead(7L, 1L, 9);
+        aggregator.markRead(7L, 1L, 3);
+        aggregator.markRead(7L, 2L, 4);
+
+        aggregator.flush();
+
+        verify(roomReadStateRepository).upsertAll(argThat(marks -> marks.size() == 2
+                && marks.containsAll(List.of(new ReadMark(1L, 7L, 9L), new ReadMark(2L, 7L, 4L)))));
+        RoomReadsDto frame = new RoomReadsDto(7L, Map.of(1L, 9L, 2L, 4L));
+        verify(roomFanout).publish("/topic/rooms/7/reads", frame, null);
+        verify(sseFanout).publishReads(frame);
+        assertThat(aggregator.pendingFor(1L)).isEmpty();
+    }
+
+    @Test
+    void flush_DoesNothingWithoutAcks() {
+        aggregator.flush();
+
+        verifyNoInteractions(roomReadStateRepository, roomFanout, sseFanout);
+    }
+
+    @Test
+    void pendingFor_ReturnsUnflushedPositions() {
+        aggregator.markRead(7L, 1L, 5);
+        aggregator.markRead(8L, 1L, 2);
+        aggregator.markRead(7L, 2L, 1);
+
+        assertThat(aggregator.pendingFor(1L)).containsExactlyInAnyOrderEntriesOf(Map.of(7L, 5L, 8L, 2L));
+    }
+
+    @Test
+    void flush_RetriesOneByOneAndDropsMarksThatStillFail() {
+        aggregator.markRead(7L, 1L, 5);
+        aggregator.markRead(8L, 1L, 2);
+        // room 8 was deleted before the flush
+        doAnswer(invocation -> {
+            List<ReadMark> marks = invocation.getArgument(0);
+            if (marks.stream().anyMatch(mark -> mark.roomId() == 8L))
+                throw new DataIntegrityViolationException("fk");
+            return null;
+        }).when(roomReadStateRepository).upsertAll(anyList());
+
+        aggregator.flush();
+
+        verify(roomReadStateRepository).upsertAll(List.of(new ReadMark(1L, 7L, 5L)));
+        verify(roomFanout).publish(eq("/topic/rooms/7/reads"), any(), isNull());
+        verify(roomFanout, never()).publish(eq("/topic/rooms/8/reads"), any(), any());
+        assertThat(aggregator.pendingFor(1L)).isEmpty();
+    }
+
+    @Test
+    void evictRoom_DropsPendingPositions() {
+        aggregator.markRead(7L, 1L, 5);
+
+        aggregator.evictRoom(7L);
+        aggregator.flush();
+
+        verify(roomReadStateRepository, never()).upsertAll(anyList());
+    }
+}
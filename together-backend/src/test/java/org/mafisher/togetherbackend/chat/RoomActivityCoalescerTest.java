@@ -0,0 +1,74 @@
+package org.mafisher.togetherbackend.chat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mafisher.togetherbackend.dto.RoomActivityDto;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomActivityCoalescerTest {
+
+    @Mock
+    private RoomFanout roomFanout;
+
+    @Mock
+    private SseFanout sseFanout;
+
+    private RoomActivityCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new RoomActivityCoalescer(roomFanout, sseFanout, new SimpleMeterRegistry(), Duration.ofMillis(50));
+    }
+
+    @Test
+    void flush_SendsOneFrameWithAllTypersPerWindow() {
+        for (int i = 0; i < 10; i++) {
+            coalescer.typing(7L, 1L, true);
+            coalescer.typing(7L, 2L, true);
+        }
+
+        coalescer.flush();
+
+        verify(roomFanout).publish("/topic/rooms/7/activity", new RoomActivityDto(7L, List.of(1L, 2L)), "activity");
+        verify(sseFanout).publishActivity(new RoomActivityDto(7L, List.of(1L, 2L)));
+        verifyNoMoreInteractions(roomFanout);
+    }
+
+    @Test
+    void flush_SkipsUnchangedRoomsAndStartStopWithinWindow() {
+        coalescer.typing(7L, 1L, true);
+        coalescer.flush();
+        clearInvocations(roomFanout);
+
+        coalescer.typing(7L, 1L, true);
+        coalescer.typing(8L, 2L, true);
+        coalescer.typing(8L, 2L, false);
+        coalescer.flush();
+
+        verifyNoInteractions(roomFanout);
+    }
+
+    @Test
+    void flush_DropsUsersThatStopRefreshing() throws InterruptedException {
+        coalescer.typing(7L, 1L, true);
+        coalescer.flush();
+
+        Thread.sleep(80);
+        coalescer.flush();
+
+        verify(roomFanout).publish("/topic/rooms/7/activity", new RoomActivityDto(7L, List.of()), "activity");
+        coalescer.flush();
+        verify(roomFanout, times(2)).publish(anyString(), any(), anyString());
+    }
+}
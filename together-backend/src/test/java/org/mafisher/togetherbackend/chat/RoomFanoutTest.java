@@ -0,0 +1,159 @@
+package org.mafisher.togetherbackend.chat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mafisher.togetherbackend.enums.SlowConsumerPolicy;
+import org.mafisher.togetherbackend.service.PrincipalService;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RoomFanoutTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PrincipalService principalService;
+    private RoomFanout fanout;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        principalService = mock(PrincipalService.class);
+        fanout = new RoomFanout(new ObjectMapper(), principalService, meterRegistry, 2, 4, SlowConsumerPolicy.DROP,
+                Duration.ofSeconds(1), DataSize.ofKilobytes(64));
+    }
+
+    @AfterEach
+    void tearDown() {
+        fanout.stop();
+    }
+
+    @Test
+    void publish_SendsOneFramePerSubscriberWithItsSubscriptionId() throws IOException {
+        WebSocketSession first = session("s1");
+        WebSocketSession second = session("s2");
+        fanout.register(first);
+        fanout.register(second);
+        fanout.onSubscribe(new SessionSubscribeEvent(this, frame(StompCommand.SUBSCRIBE, "s1", "sub-0", "/topic/rooms/7")));
+        fanout.onSubscribe(new SessionSubscribeEvent(this, frame(StompCommand.SUBSCRIBE, "s2", "sub:1", "/topic/rooms/7")));
+
+        fanout.publish(7L, Map.of("content", "hi"));
+
+        assertThat(sent(first).get(0))
+                .startsWith("MESSAGE\ndestination:/topic/rooms/7\n")
+                .contains("\nsubscription:sub-0\n")
+                .endsWith("\n\n{\"content\":\"hi\"}\0");
+        assertThat(sent(second).get(0)).contains("\nsubscription:sub\\c1\n");
+    }
+
+    @Test
+    void publish_SkipsOtherRoomsAndUnsubscribedSessions() throws IOException {
+        WebSocketSession session = session("s1");
+        fanout.register(session);
+        fanout.onSubscribe(new SessionSubscribeEvent(this, frame(StompCommand.SUBSCRIBE, "s1", "sub-0", "/topic/rooms/7")));
+        fanout.onUnsubscribe(new SessionUnsubscribeEvent(this, frame(StompCommand.UNSUBSCRIBE, "s1", "sub-0", null)));
+
+        fanout.publish(7L, Map.of("content", "hi"));
+        fanout.publish(8L, Map.of("content", "hi"));
+
+        assertThat(fanout.subscriberCount("/topic/rooms/7")).isZero();
+        verify(session, after(200).never()).sendMessage(any());
+    }
+
+    @Test
+    void publish_KeepsRoomTopicsApart() throws IOException {
+        WebSocketSession session = session("s1");
+        fanout.register(session);
+        fanout.onSubscribe(new SessionSubscribeEvent(this, frame(StompCommand.SUBSCRIBE, "s1", "sub-0", "/topic/rooms/7/activity")));
+
+        fanout.publish(7L, Map.of("content", "hi"));
+        fanout.publish("/topic/rooms/7/activity", Map.of("typing", List.of(1)), "activity");
+
+        assertThat(sent(session)).singleElement().asString().contains("destination:/topic/rooms/7/activity\n");
+        assertThat(fanout.isSubscribed("s1", 7L)).isTrue();
+        assertThat(fanout.isSubscribed("s1", 8L)).isFalse();
+    }
+
+    @Test
+    void unregister_RemovesSessionSubscriptions() {
+        fanout.register(session("s1"));
+        fanout.onSubscribe(new SessionSubscribeEvent(this, frame(StompCommand.SUBSCRIBE, "s1", "sub-0", "/topic/rooms/7")));
+        assertThat(fanout.subscriberCount("/topic/rooms/7")).isEqualTo(1);
+
+        fanout.unregister("s1");
+
+        assertThat(fanout.subscriberCount("/topic/rooms/7")).isZero();
+        assertThat(meterRegistry.get("chat.fanout.sessions").gauge().value()).isZero();
+    }
+
+    @Test
+    void unsubscribe_DropsOnlyTheRemovedUsersRoomSubscriptions() {
+        Principal removed = () -> "removed";
+        Principal staying = () -> "staying";
+        when(principalService.userIdOf(removed)).thenReturn(4L);
+        when(principalService.userIdOf(staying)).thenReturn(5L);
+        fanout.register(session("s1"));
+        fanout.register(session("s2"));
+        fanout.onSubscribe(new SessionSubscribeEvent(this, frame(StompCommand.SUBSCRIBE, "s1", "sub-0", "/topic/rooms/7"), removed));
+        fanout.onSubscribe(new SessionSubscribeEvent(this, frame(StompCommand.SUBSCRIBE, "s1", "sub-1", "/topic/rooms/7/activity"), removed));
+        fanout.onSubscribe(new SessionSubscribeEvent(this, frame(StompCommand.SUBSCRIBE, "s1", "sub-2", "/topic/rooms/8"), removed));
+        fanout.onSubscribe(new SessionSubscribeEvent(this, frame(StompCommand.SUBSCRIBE, "s2", "sub-0", "/topic/rooms/7"), staying));
+
+        fanout.unsubscribe(7L, List.of(4L));
+
+        assertThat(fanout.isSubscribed("s1", 7L)).isFalse();
+        assertThat(fanout.isSubscribed("s1", 8L)).isTrue();
+        assertThat(fanout.isSubscribed("s2", 7L)).isTrue();
+        assertThat(fanout.subscriberCount("/topic/rooms/7")).isEqualTo(1);
+        assertThat(fanout.subscriberCount("/topic/rooms/7/activity")).isZero();
+
+        fanout.unsubscribeAll(7L);
+
+        assertThat(fanout.isSubscribed("s2", 7L)).isFalse();
+        assertThat(fanout.subscriberCount("/topic/rooms/7")).isZero();
+    }
+
+    private static Message<byte[]> frame(StompCommand command, String sessionId, String subscriptionId, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        if (destination != null)
+            accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static WebSocketSession session(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        lenient().when(session.getId()).thenReturn(id);
+        lenient().when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+
+    private static List<String> sent(WebSocketSession session) throws IOException {
+        ArgumentCaptor<BinaryMessage> captor = ArgumentCaptor.forClass(BinaryMessage.class);
+        verify(session, timeout(5000)).sendMessage(captor.capture());
+        return captor.getAllValues().stream()
+                .map(message -> StandardCharsets.UTF_8.decode(message.getPayload()).toString())
+                .toList();
+    }
+}
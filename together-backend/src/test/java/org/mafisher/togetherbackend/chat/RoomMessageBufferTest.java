@@ -0,0 +1,64 @@
+package org.mafisher.togetherbackend.chat;
+
+import org.junit.jupiter.api.Test;
+import org.mafisher.togetherbackend.dto.ChatMessageDto;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoomMessageBufferTest {
+
+    @Test
+    void add_KeepsIdOrderAndDropsOldestWhenFull() {
+        RoomMessageBuffer buffer = new RoomMessageBuffer(3);
+        buffer.add(message(1));
+        buffer.add(message(3));
+        buffer.add(message(2));
+        buffer.add(message(4));
+        buffer.add(message(3));
+
+        assertThat(ids(buffer.before(null, 10))).containsExactly(2L, 3L, 4L);
+        assertThat(buffer.hasOlder()).isTrue();
+        assertThat(buffer.oldestSeq()).isEqualTo(2L);
+    }
+
+    @Test
+    void before_ReturnsNewestPageBelowCursor() {
+        RoomMessageBuffer buffer = new RoomMessageBuffer(10);
+        buffer.seed(List.of(message(1), message(2), message(3), message(4), message(5)), false);
+
+        assertThat(ids(buffer.before(null, 2))).containsExactly(4L, 5L);
+        assertThat(ids(buffer.before(4L, 2))).containsExactly(2L, 3L);
+        assertThat(ids(buffer.before(2L, 2))).containsExactly(1L);
+    }
+
+    @Test
+    void after_ReturnsNullWhenGapIsOlderThanBuffer() {
+        RoomMessageBuffer buffer = new RoomMessageBuffer(2);
+        buffer.seed(List.of(message(5), message(6)), true);
+
+        assertThat(ids(buffer.after(4, 10))).containsExactly(5L, 6L);
+        assertThat(ids(buffer.after(5, 10))).containsExactly(6L);
+        assertThat(buffer.after(3, 10)).isNull();
+    }
+
+    @Test
+    void bytes_TracksAddedAndDroppedMessages() {
+        RoomMessageBuffer buffer = new RoomMessageBuffer(1);
+        long first = buffer.add(message(1));
+        long second = buffer.add(message(2));
+
+        assertThat(first).isPositive();
+        assertThat(second).isZero();
+        assertThat(buffer.bytes()).isEqualTo(first);
+    }
+
+    private static ChatMessageDto message(long id) {
+        return ChatMessageDto.builder().seq(id).roomId(1L).content("message").senderNickName("nick").build();
+    }
+
+    private static List<Long> ids(List<ChatMessageDto> messages) {
+        return messages.stream().map(ChatMessageDto::getSeq).toList();
+    }
+}
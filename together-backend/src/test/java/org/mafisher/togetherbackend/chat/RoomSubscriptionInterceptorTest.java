@@ -0,0 +1,107 @@
+package org.mafisher.togetherbackend.chat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mafisher.togetherbackend.entity.User;
+import org.mafisher.togetherbackend.handler.BusinessErrorCodes;
+import org.mafisher.togetherbackend.handler.CustomException;
+import org.mafisher.togetherbackend.service.PrincipalService;
+import org.mafisher.togetherbackend.service.RoomMembershipService;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.security.Principal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomSubscriptionInterceptorTest {
+
+    @Mock
+    private PrincipalService principalService;
+
+    @Mock
+    private RoomMembershipService roomMembershipService;
+
+    @Mock
+    private MessageChannel channel;
+
+    @Mock
+    private Principal principal;
+
+    @InjectMocks
+    private RoomSubscriptionInterceptor interceptor;
+
+    private final User user = User.builder().id(1L).email("a@test.com").build();
+
+    @Test
+    void subscribe_RoomMember_IsAllowed() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(user);
+        when(roomMembershipService.isMember(7L, 1L)).thenReturn(true);
+        Message<?> message = frame(StompCommand.SUBSCRIBE, "/topic/rooms/7", principal);
+
+        assertThat(interceptor.preSend(message, channel)).isSameAs(message);
+    }
+
+    @Test
+    void subscribe_NotMember_IsRejected() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(user);
+        when(roomMembershipService.isMember(7L, 1L)).thenReturn(false);
+
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/rooms/7", principal), channel))
+                .isInstanceOf(CustomException.class)
+                .hasFieldOrPropertyWithValue("errorCode", BusinessErrorCodes.USER_NOT_IN_ROOM);
+    }
+
+    @Test
+    void subscribe_WithoutPrincipal_IsRejected() {
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/rooms/7", null), channel))
+                .isInstanceOf(CustomException.class)
+                .hasFieldOrPropertyWithValue("errorCode", BusinessErrorCodes.BAD_CREDENTIALS);
+    }
+
+    @Test
+    void subscribe_UnknownTopic_IsRejected() {
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/other", principal), channel))
+                .isInstanceOf(CustomException.class)
+                .hasFieldOrPropertyWithValue("errorCode", BusinessErrorCodes.NOT_PERMISSION);
+    }
+
+    @Test
+    void subscribe_UserQueue_SkipsMembershipCheck() {
+        Message<?> message = frame(StompCommand.SUBSCRIBE, "/user/queue/errors", principal);
+
+        assertThat(interceptor.preSend(message, channel)).isSameAs(message);
+        verifyNoInteractions(roomMembershipService);
+    }
+
+    @Test
+    void send_ToBrokerTopic_IsRejected() {
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.SEND, "/topic/rooms/7", principal), channel))
+                .isInstanceOf(CustomException.class)
+                .hasFieldOrPropertyWithValue("errorCode", BusinessErrorCodes.NOT_PERMISSION);
+    }
+
+    @Test
+    void send_ToApplication_IsAllowed() {
+        Message<?> message = frame(StompCommand.SEND, "/app/rooms/7/messages", principal);
+
+        assertThat(interceptor.preSend(message, channel)).isSameAs(message);
+    }
+
+    private static Message<byte[]> frame(StompCommand command, String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setDestination(destination);
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
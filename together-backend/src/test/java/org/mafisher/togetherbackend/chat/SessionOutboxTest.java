@@ -0,0 +1,123 @@
+package org.mafisher.togetherbackend.chat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mafisher.togetherbackend.enums.SlowConsumerPolicy;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionOutboxTest {
+
+    @Mock
+    private WebSocketSession session;
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final Executor executor = tasks::add;
+
+    @Test
+    void offer_SchedulesOneDrainAndSendsInOrder() throws IOException {
+        SessionOutbox outbox = new SessionOutbox(session, 10, SlowConsumerPolicy.DROP, executor);
+
+        outbox.offer(null, frame("a"));
+        outbox.offer(null, frame("b"));
+        assertThat(tasks).hasSize(1);
+        runTasks();
+
+        assertThat(sentPayloads()).containsExactly("a", "b");
+        assertThat(outbox.size()).isZero();
+    }
+
+    @Test
+    void offer_SameKeyReplacesQueuedFrame() throws IOException {
+        SessionOutbox outbox = new SessionOutbox(session, 10, SlowConsumerPolicy.DROP, executor);
+
+        assertThat(outbox.offer("typing:1", frame("a"))).isEqualTo(SessionOutbox.Outcome.QUEUED);
+        assertThat(outbox.offer("typing:1", frame("b"))).isEqualTo(SessionOutbox.Outcome.COALESCED);
+        runTasks();
+
+        assertThat(sentPayloads()).containsExactly("b");
+    }
+
+    @Test
+    void dropPolicy_DiscardsNewFrameWhenFull() throws IOException {
+        SessionOutbox outbox = new SessionOutbox(session, 2, SlowConsumerPolicy.DROP, executor);
+
+        outbox.offer(null, frame("a"));
+        outbox.offer(null, frame("b"));
+        assertThat(outbox.offer(null, frame("c"))).isEqualTo(SessionOutbox.Outcome.DROPPED);
+        runTasks();
+
+        assertThat(sentPayloads()).containsExactly("a", "b");
+    }
+
+    @Test
+    void coalescePolicy_DiscardsOldestFrameWhenFull() throws IOException {
+        SessionOutbox outbox = new SessionOutbox(session, 2, SlowConsumerPolicy.COALESCE, executor);
+
+        outbox.offer(null, frame("a"));
+        outbox.offer(null, frame("b"));
+        assertThat(outbox.offer(null, frame("c"))).isEqualTo(SessionOutbox.Outcome.DROPPED);
+        runTasks();
+
+        assertThat(sentPayloads()).containsExactly("b", "c");
+    }
+
+    @Test
+    void disconnectPolicy_ClosesSessionWhenFull() throws IOException {
+        SessionOutbox outbox = new SessionOutbox(session, 1, SlowConsumerPolicy.DISCONNECT, executor);
+
+        outbox.offer(null, frame("a"));
+        assertThat(outbox.offer(null, frame("b"))).isEqualTo(SessionOutbox.Outcome.DISCONNECTED);
+        assertThat(outbox.offer(null, frame("c"))).isEqualTo(SessionOutbox.Outcome.DROPPED);
+        runTasks();
+
+        verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+        verify(session, never()).sendMessage(any());
+    }
+
+    @Test
+    void failedSend_ClosesSessionAndDiscardsQueue() throws IOException {
+        SessionOutbox outbox = new SessionOutbox(session, 10, SlowConsumerPolicy.DROP, executor);
+        doThrow(new IOException("broken pipe")).when(session).sendMessage(any());
+
+        outbox.offer(null, frame("a"));
+        outbox.offer(null, frame("b"));
+        runTasks();
+
+        verify(session, times(1)).sendMessage(any());
+        verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertThat(outbox.size()).isZero();
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null)
+            task.run();
+    }
+
+    @SuppressWarnings("unchecked")
+    private java.util.List<String> sentPayloads() throws IOException {
+        ArgumentCaptor<WebSocketMessage<?>> captor = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session, atLeastOnce()).sendMessage(captor.capture());
+        return captor.getAllValues().stream().map(message -> ((TextMessage) message).getPayload()).toList();
+    }
+
+    private static TextMessage frame(String payload) {
+        return new TextMessage(payload);
+    }
+}
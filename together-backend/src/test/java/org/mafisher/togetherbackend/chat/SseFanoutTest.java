@@ -0,0 +1,122 @@
+package org.mafisher.togetherbackend.chat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mafisher.togetherbackend.dto.ChatMessageDto;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SseFanoutTest {
+
+    @Mock
+    private ChatHistoryCache chatHistoryCache;
+
+    private final SseEmitter emitter = mock(SseEmitter.class);
+    private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+    private SseFanout fanout;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // send is synchronized, so verifying it with a timeout would block the drain thread
+        lenient().doAnswer(invocation -> {
+            Set<ResponseBodyEmitter.DataWithMediaType> items = invocation.getArgument(0);
+            String text = items.stream().map(item -> item.getData().toString()).collect(Collectors.joining());
+            sent.add(text.substring(0, text.indexOf('\n')));
+            return null;
+        }).when(emitter).send(anySet());
+        fanout = new SseFanout(chatHistoryCache, new ObjectMapper(), new SimpleMeterRegistry(),
+                1, 2, Duration.ofMinutes(1), 150) {
+            @Override
+            SseEmitter newEmitter() {
+                return emitter;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        fanout.stop();
+    }
+
+    @Test
+    void openRoom_ReplaysMissedMessagesBeforeLiveOnesAndDropsLiveDuplicates() throws Exception {
+        when(chatHistoryCache.after(7L, 5L, 100)).thenAnswer(invocation -> {
+            // committed while the replay was being read
+            fanout.publishMessage(message(7));
+            fanout.publishMessage(message(8));
+            return List.of(message(6), message(7));
+        });
+
+        fanout.openRoom(7L, 1L, 5L);
+
+        assertThat(sent(3)).containsExactly("id:6", "id:7", "id:8");
+    }
+
+    @Test
+    void openRoom_ReplayLargerThanQueueCapacity_KeepsStreamOpen() throws Exception {
+        when(chatHistoryCache.after(7L, 5L, 100)).thenReturn(messages(6, 10));
+
+        fanout.openRoom(7L, 1L, 5L);
+        fanout.publishMessage(message(11));
+
+        assertThat(sent(6)).containsExactly("id:6", "id:7", "id:8", "id:9", "id:10", "id:11");
+        verify(emitter, never()).complete();
+    }
+
+    @Test
+    void openRoom_TooManyMissedMessages_SendsResyncOnly() throws Exception {
+        when(chatHistoryCache.after(7L, 5L, 100)).thenAnswer(invocation -> {
+            fanout.publishMessage(message(300));
+            return messages(6, 105);
+        });
+        when(chatHistoryCache.after(7L, 105L, 100)).thenReturn(messages(106, 205));
+
+        fanout.openRoom(7L, 1L, 5L);
+
+        assertThat(sent(1)).containsExactly("event:" + SseFanout.RESYNC_EVENT);
+        assertThat(sent.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    private static ChatMessageDto message(long seq) {
+        return ChatMessageDto.builder().roomId(7L).seq(seq).content("m").build();
+    }
+
+    private static List<ChatMessageDto> messages(long fromSeq, long toSeq) {
+        return LongStream.rangeClosed(fromSeq, toSeq).mapToObj(SseFanoutTest::message).toList();
+    }
+
+    /**
+     * Waits for {@code count} events and returns the first line of each.
+     */
+    private List<String> sent(int count) throws InterruptedException {
+        List<String> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String event = sent.poll(5, TimeUnit.SECONDS);
+            assertThat(event).as("event %d of %d", i + 1, count).isNotNull();
+            events.add(event);
+        }
+        return events;
+    }
+}
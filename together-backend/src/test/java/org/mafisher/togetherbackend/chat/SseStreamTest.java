@@ -0,0 +1,144 @@
+package org.mafisher.togetherbackend.chat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SseStreamTest {
+
+    @Mock
+    private SseEmitter emitter;
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final Executor executor = tasks::add;
+
+    @Test
+    void offer_SendsInOrder() throws IOException {
+        SseStream stream = new SseStream(emitter, 1L, 10, executor, false);
+
+        stream.offer(message(1));
+        stream.offer(message(2));
+        assertThat(tasks).hasSize(1);
+        runTasks();
+
+        assertThat(sentIds()).containsExactly("1", "2");
+    }
+
+    @Test
+    void resume_SendsReplayBeforeLiveAndSkipsCoveredMessages() throws IOException {
+        SseStream stream = new SseStream(emitter, 1L, 10, executor, true);
+
+        stream.offer(message(3));
+        stream.offer(message(4));
+        assertThat(tasks).isEmpty();
+
+        stream.resume(List.of(message(2), message(3)), 3);
+        runTasks();
+
+        assertThat(sentIds()).containsExactly("2", "3", "4");
+    }
+
+    @Test
+    void resume_ReplayDoesNotCountAgainstCapacity() throws IOException {
+        SseStream stream = new SseStream(emitter, 1L, 2, executor, true);
+
+        stream.resume(List.of(message(1), message(2), message(3)), 3);
+        assertThat(stream.offer(message(4))).isTrue();
+        assertThat(stream.offer(message(5))).isTrue();
+        runTasks();
+
+        assertThat(sentIds()).containsExactly("1", "2", "3", "4", "5");
+        verify(emitter, never()).complete();
+    }
+
+    @Test
+    void offer_SameKeyReplacesQueuedEvent() throws IOException {
+        SseStream stream = new SseStream(emitter, 1L, 10, executor, false);
+
+        stream.offer(new SseStream.Event(null, "activity", SseEmitter.event().id("a").build()));
+        stream.offer(new SseStream.Event(null, "activity", SseEmitter.event().id("b").build()));
+        runTasks();
+
+        assertThat(sentIds()).containsExactly("b");
+    }
+
+    @Test
+    void offer_ClosesStreamWhenFull() throws IOException {
+        SseStream stream = new SseStream(emitter, 1L, 2, executor, false);
+
+        assertThat(stream.offer(message(1))).isTrue();
+        assertThat(stream.offer(message(2))).isTrue();
+        assertThat(stream.offer(message(3))).isFalse();
+        runTasks();
+
+        verify(emitter).complete();
+        verify(emitter, never()).send(anySet());
+        assertThat(stream.size()).isZero();
+    }
+
+    @Test
+    void close_DropsQueuedEventsAndCompletesOnce() throws IOException {
+        SseStream stream = new SseStream(emitter, 1L, 10, executor, true);
+        stream.offer(message(1));
+
+        stream.close();
+        stream.close();
+        runTasks();
+
+        verify(emitter, times(1)).complete();
+        verify(emitter, never()).send(anySet());
+        assertThat(stream.offer(message(2))).isTrue();
+        assertThat(stream.size()).isZero();
+    }
+
+    @Test
+    void drain_ClosesStreamAfterFailedSend() throws IOException {
+        doThrow(new IOException("broken pipe")).when(emitter).send(anySet());
+        SseStream stream = new SseStream(emitter, 1L, 10, executor, false);
+
+        stream.offer(message(1));
+        stream.offer(message(2));
+        runTasks();
+
+        verify(emitter, times(1)).send(anySet());
+        verify(emitter).completeWithError(any(IOException.class));
+    }
+
+    private SseStream.Event message(long seq) {
+        return new SseStream.Event(seq, null, SseEmitter.event().id(String.valueOf(seq)).data("m").build());
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null)
+            task.run();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> sentIds() throws IOException {
+        ArgumentCaptor<Set<ResponseBodyEmitter.DataWithMediaType>> sent = ArgumentCaptor.forClass(Set.class);
+        verify(emitter, atLeast(0)).send(sent.capture());
+        return sent.getAllValues().stream()
+                .map(items -> items.stream().map(item -> item.getData().toString()).collect(Collectors.joining()))
+                .map(text -> text.substring(text.indexOf("id:") + 3, text.indexOf('\n', text.indexOf("id:"))))
+                .toList();
+    }
+}
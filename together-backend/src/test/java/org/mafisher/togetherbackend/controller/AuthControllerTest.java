@@ -13,6 +13,7 @@ import org.mafisher.togetherbackend.entity.Role;
 import org.mafisher.togetherbackend.service.AuthService;
 import org.mafisher.togetherbackend.service.CookieService;
 import org.mafisher.togetherbackend.service.JwtService;
+import org.mafisher.togetherbackend.service.TokenVersionService;
 import org.mafisher.togetherbackend.service.impl.UserDetailsService;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -56,6 +57,9 @@ class AuthControllerTest {
     @MockitoBean
     private UserDetailsService userDetailsService;
 
+    @MockitoBean
+    private TokenVersionService tokenVersionService;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
 
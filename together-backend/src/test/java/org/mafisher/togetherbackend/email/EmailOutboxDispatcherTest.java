@@ -0,0 +1,197 @@
+package org.mafisher.togetherbackend.email;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mafisher.togetherbackend.entity.EmailOutboxMessage;
+import org.mafisher.togetherbackend.enums.EmailOutboxStatus;
+import org.mafisher.togetherbackend.repository.EmailOutboxRepository;
+import org.mafisher.togetherbackend.service.EmailService;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private JavaMailSenderImpl mailSender;
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+        lenient().when(emailService.createEmail(anyString(), anyString(), any(), anyString(), anyString()))
+                .thenAnswer(invocation -> {
+                    MimeMessage mimeMessage = mailSender.createMimeMessage();
+                    MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "UTF-8");
+                    helper.setFrom("noreply@together.local");
+                    helper.setTo(invocation.<String>getArgument(0));
+                    helper.setSubject(invocation.getArgument(4));
+                    helper.setText("<p>" + invocation.getArgument(3) + "</p>", true);
+                    return mimeMessage;
+                });
+
+        dispatcher = new EmailOutboxDispatcher(
+                emailOutboxRepository,
+                emailService,
+                mailSender,
+                transactionManager,
+                new SimpleMeterRegistry(),
+                10,
+                2,
+                Duration.ofMinutes(5),
+                3,
+                Duration.ofSeconds(30),
+                Duration.ofMinutes(5)
+        );
+    }
+
+    @Test
+    void dispatch_SendsWholeBatchAndMarksMessagesSent() throws Exception {
+        List<EmailOutboxMessage> batch = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            batch.add(pending(i, "user" + i + "@example.com", 0));
+        when(emailOutboxRepository.findDueForUpdate(eq(EmailOutboxStatus.PENDING), any(Instant.class), any(Pageable.class)))
+                .thenReturn(batch);
+        when(emailOutboxRepository.countByStatus(EmailOutboxStatus.PENDING)).thenReturn(0L);
+
+        dispatcher.dispatch();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(3);
+        assertThat(received[0].getAllRecipients()[0].toString()).isEqualTo("user0@example.com");
+        assertThat(batch).allSatisfy(message -> {
+            assertThat(message.getStatus()).isEqualTo(EmailOutboxStatus.SENT);
+            assertThat(message.getAttempts()).isEqualTo(1);
+            assertThat(message.getSentAt()).isNotNull();
+        });
+        assertThat(dispatcher.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void dispatch_SmtpUnavailable_SchedulesRetryWithBackoff() {
+        greenMail.stop();
+        try {
+            EmailOutboxMessage message = pending(1, "user@example.com", 1);
+            when(emailOutboxRepository.findDueForUpdate(eq(EmailOutboxStatus.PENDING), any(Instant.class), any(Pageable.class)))
+                    .thenReturn(List.of(message));
+            when(emailOutboxRepository.countByStatus(EmailOutboxStatus.PENDING)).thenReturn(1L);
+            Instant before = Instant.now();
+
+            dispatcher.dispatch();
+
+            assertThat(message.getStatus()).isEqualTo(EmailOutboxStatus.PENDING);
+            assertThat(message.getAttempts()).isEqualTo(2);
+            assertThat(message.getLastError()).isNotBlank();
+            assertThat(message.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(60));
+            assertThat(dispatcher.getQueueDepth()).isEqualTo(1);
+        } finally {
+            greenMail.start();
+        }
+    }
+
+    @Test
+    void dispatch_MaxAttemptsReached_MarksMessageFailed() {
+        greenMail.stop();
+        try {
+            EmailOutboxMessage message = pending(1, "user@example.com", 2);
+            when(emailOutboxRepository.findDueForUpdate(eq(EmailOutboxStatus.PENDING), any(Instant.class), any(Pageable.class)))
+                    .thenReturn(List.of(message));
+
+            dispatcher.dispatch();
+
+            assertThat(message.getStatus()).isEqualTo(EmailOutboxStatus.FAILED);
+            assertThat(message.getAttempts()).isEqualTo(3);
+        } finally {
+            greenMail.start();
+        }
+    }
+
+    @Test
+    void dispatch_LeasesBatchBeforeSending() {
+        EmailOutboxMessage message = pending(1, "user@example.com", 0);
+        when(emailOutboxRepository.findDueForUpdate(eq(EmailOutboxStatus.PENDING), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(message));
+        List<Instant> savedNextAttempts = new ArrayList<>();
+        List<Integer> receivedWhenSaved = new ArrayList<>();
+        when(emailOutboxRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            savedNextAttempts.add(message.getNextAttemptAt());
+            receivedWhenSaved.add(greenMail.getReceivedMessages().length);
+            return invocation.getArgument(0);
+        });
+        Instant before = Instant.now();
+
+        dispatcher.dispatch();
+
+        assertThat(receivedWhenSaved).containsExactly(0, 1);
+        assertThat(savedNextAttempts.get(0)).isAfterOrEqualTo(before.plus(Duration.ofMinutes(5)));
+        assertThat(message.getStatus()).isEqualTo(EmailOutboxStatus.SENT);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void dispatch_StopsAfterMaxBatchesPerRun() {
+        List<EmailOutboxMessage> fullBatch = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            fullBatch.add(pending(i, "user" + i + "@example.com", 0));
+        when(emailOutboxRepository.findDueForUpdate(eq(EmailOutboxStatus.PENDING), any(Instant.class), any(Pageable.class)))
+                .thenReturn(fullBatch);
+
+        dispatcher.dispatch();
+
+        verify(emailOutboxRepository, times(2))
+                .findDueForUpdate(eq(EmailOutboxStatus.PENDING), any(Instant.class), any(Pageable.class));
+    }
+
+    private EmailOutboxMessage pending(long id, String recipient, int attempts) {
+        return EmailOutboxMessage.builder()
+                .id(id)
+                .recipient(recipient)
+                .username("user")
+                .template(EmailTemplateName.ACTIVATE_ACCOUNT)
+                .confirmationUrl("http://localhost/activate/" + id)
+                .subject("Account activation")
+                .attempts(attempts)
+                .nextAttemptAt(Instant.now())
+                .createdAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+package org.mafisher.togetherbackend.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FriendGraphTest {
+
+    @Test
+    void build_StoresEdgesInBothDirectionsWithoutDuplicates() {
+        EdgeBuffer edges = new EdgeBuffer(4);
+        edges.add(1, 2);
+        edges.add(1, 3);
+        edges.add(2, 3);
+        edges.add(1, 2);
+
+        FriendGraph graph = FriendGraph.build(edges);
+
+        assertThat(graph.userCount()).isEqualTo(3);
+        assertThat(graph.edgeCount()).isEqualTo(3);
+        assertThat(graph.contains(2, 1)).isTrue();
+        assertThat(graph.contains(3, 2)).isTrue();
+        assertThat(graph.contains(1, 4)).isFalse();
+        assertThat(graph.contains(4, 1)).isFalse();
+        assertThat(graph.friendsOf(1)).containsExactly(2, 3);
+    }
+
+    @Test
+    void copyEdgesTo_RoundTripsGraph() {
+        EdgeBuffer edges = new EdgeBuffer(4);
+        edges.add(5, 9);
+        edges.add(9, 7);
+        FriendGraph graph = FriendGraph.build(edges);
+
+        EdgeBuffer copy = new EdgeBuffer(4);
+        graph.copyEdgesTo(copy);
+        FriendGraph rebuilt = FriendGraph.build(copy);
+
+        assertThat(rebuilt.edgeCount()).isEqualTo(2);
+        assertThat(rebuilt.friendsOf(9)).containsExactly(5, 7);
+    }
+
+    @Test
+    void build_MillionEdges_FitsInCompactFootprint() {
+        int users = 200_000;
+        int friendships = 1_000_000;
+        SplittableRandom random = new SplittableRandom(42);
+        EdgeBuffer edges = new EdgeBuffer(friendships);
+        for (int i = 0; i < friendships; i++) {
+            long a = random.nextInt(users) + 1;
+            long b = random.nextInt(users) + 1;
+            edges.add(Math.min(a, b), Math.max(a, b));
+        }
+
+        FriendGraph graph = FriendGraph.build(edges);
+
+        // two directed entries per friendship plus per-user id and offset: ~17 MiB for 1M edges
+        assertThat(graph.edgeCount()).isGreaterThan(990_000);
+        assertThat(graph.estimatedBytes()).isLessThan(20L * 1024 * 1024);
+        assertThat(graph.contains(1, 1)).isFalse();
+    }
+}
@@ -0,0 +1,59 @@
+package org.mafisher.togetherbackend.index;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeltaSnapshotTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DeltaSnapshot<List<String>, List<String>> index;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        index = new DeltaSnapshot<>("test.index", CopyOnWriteArrayList::new, meterRegistry);
+    }
+
+    @Test
+    void publish_FoldsPendingWritesIntoSnapshotAndStartsFreshDelta() {
+        assertThat(index.isLoaded()).isFalse();
+        index.write(delta -> delta.add("a"));
+
+        index.publish(pending -> List.copyOf(pending));
+
+        assertThat(index.snapshot()).containsExactly("a");
+        assertThat(index.delta()).isEmpty();
+        assertThat(index.frozenDelta()).isEmpty();
+    }
+
+    @Test
+    void publish_PendingWritesStayVisibleInFrozenDeltaWhileBuilding() {
+        index.write(delta -> delta.add("a"));
+        List<String> seenWhileBuilding = new ArrayList<>();
+
+        index.publish(pending -> {
+            seenWhileBuilding.addAll(index.frozenDelta());
+            index.write(delta -> delta.add("b"));
+            return List.copyOf(pending);
+        });
+
+        assertThat(seenWhileBuilding).containsExactly("a");
+        assertThat(index.snapshot()).containsExactly("a");
+        assertThat(index.delta()).containsExactly("b");
+    }
+
+    @Test
+    void verify_CountsMismatches() {
+        assertThat(index.verify(3, 3)).isTrue();
+        assertThat(index.verify(3, 4)).isFalse();
+
+        assertThat(meterRegistry.counter("test.index.inconsistencies").count()).isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,64 @@
+package org.mafisher.togetherbackend.mappers;
+
+import org.junit.jupiter.api.Test;
+import org.mafisher.togetherbackend.dto.RoomDto;
+import org.mafisher.togetherbackend.dto.UserDto;
+import org.mafisher.togetherbackend.entity.Role;
+import org.mafisher.togetherbackend.entity.Room;
+import org.mafisher.togetherbackend.entity.User;
+import org.mafisher.togetherbackend.mappers.impl.RoomMapper;
+import org.mafisher.togetherbackend.mappers.impl.UserMapperImpl;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoomMapperTest {
+
+    private final UserMapperImpl userMapper = new UserMapperImpl();
+    private final RoomMapper roomMapper = new RoomMapper(userMapper);
+
+    private final Role role = Role.builder().id(2L).name("USER").build();
+    private final User owner = User.builder().id(1L).firstName("Ann").lastName("Lee").nickName("ann")
+            .email("ann@mail.com").password("secret").roles(Set.of(role)).build();
+    private final User participant = User.builder().id(2L).nickName("bob").email("bob@mail.com")
+            .roles(Set.of(role)).build();
+
+    @Test
+    void userMapTo_CopiesPublicFieldsOnly() {
+        UserDto dto = userMapper.mapTo(owner);
+
+        assertThat(dto).isEqualTo(new UserDto(1L, "Ann", "Lee", "ann", "ann@mail.com", Set.of(role)));
+    }
+
+    @Test
+    void roomMapTo_MapsOwnerAndParticipants() {
+        Room room = Room.builder().id(5L).name("room").owner(owner).participants(Set.of(participant)).build();
+
+        RoomDto dto = roomMapper.mapTo(room);
+
+        assertThat(dto.getId()).isEqualTo(5L);
+        assertThat(dto.getName()).isEqualTo("room");
+        assertThat(dto.getOwner().getNickName()).isEqualTo("ann");
+        assertThat(dto.getOwnerId()).isEqualTo(1L);
+        assertThat(dto.getParticipants()).extracting(UserDto::getNickName).containsExactly("bob");
+        assertThat(dto.getParticipantCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void roomMapFrom_RoundTrips() {
+        Room room = Room.builder().id(5L).name("room").owner(owner).participants(Set.of(participant)).build();
+
+        Room mapped = roomMapper.mapFrom(roomMapper.mapTo(room));
+
+        assertThat(mapped.getId()).isEqualTo(5L);
+        assertThat(mapped.getOwner().getEmail()).isEqualTo("ann@mail.com");
+        assertThat(mapped.getParticipants()).extracting(User::getId).containsExactly(2L);
+    }
+
+    @Test
+    void mapTo_Null_ReturnsNull() {
+        assertThat(userMapper.mapTo(null)).isNull();
+        assertThat(roomMapper.mapTo(null)).isNull();
+    }
+}
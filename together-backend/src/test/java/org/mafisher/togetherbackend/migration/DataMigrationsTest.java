@@ -0,0 +1,75 @@
+package org.mafisher.togetherbackend.migration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mafisher.togetherbackend.migration.DataMigrations.Migration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DataMigrationsTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private DataMigrations migrations;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:migrations;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE \"item\" (\"id\" BIGINT PRIMARY KEY)");
+        migrations = new DataMigrations(jdbcTemplate, new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void migrate_AppliesEachMigrationOnce() {
+        List<Migration> pending = List.of(new Migration("add-item", false, List.of("INSERT INTO \"item\" VALUES (1)")));
+
+        migrations.migrate(pending);
+        migrations.migrate(pending);
+
+        assertThat(count("item")).isEqualTo(1);
+        assertThat(applied()).containsExactly("add-item");
+    }
+
+    @Test
+    void migrate_OptionalFailure_IsSkippedAndNotRecorded() {
+        migrations.migrate(List.of(
+                new Migration("broken", true, List.of("CREATE EXTENSION pg_trgm")),
+                new Migration("add-item", false, List.of("INSERT INTO \"item\" VALUES (1)"))));
+
+        assertThat(count("item")).isEqualTo(1);
+        assertThat(applied()).containsExactly("add-item");
+    }
+
+    @Test
+    void migrate_RequiredFailure_RollsBackAndThrows() {
+        List<Migration> pending = List.of(new Migration("half-done", false, List.of(
+                "INSERT INTO \"item\" VALUES (1)",
+                "INSERT INTO \"item\" VALUES (1)")));
+
+        assertThatThrownBy(() -> migrations.migrate(pending)).isInstanceOf(DataAccessException.class);
+        assertThat(count("item")).isZero();
+        assertThat(applied()).isEmpty();
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"" + table + "\"", Integer.class);
+    }
+
+    private List<String> applied() {
+        return jdbcTemplate.queryForList("SELECT \"id\" FROM \"data_migration\"", String.class);
+    }
+}
@@ -0,0 +1,53 @@
+package org.mafisher.togetherbackend.presence;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long TICK = 1_000;
+
+    @Test
+    void advance_ReturnsItemsOnceTheirTickHasPassed() {
+        TimingWheel<String> wheel = new TimingWheel<>(8, TICK, 0);
+        wheel.add("a", 2 * TICK);
+        wheel.add("b", 3 * TICK - 1);
+        wheel.add("c", 5 * TICK);
+
+        assertThat(wheel.advance(TICK)).isEmpty();
+        assertThat(wheel.advance(3 * TICK)).containsExactlyInAnyOrder("a", "b");
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(5 * TICK)).containsExactly("c");
+    }
+
+    @Test
+    void advance_KeepsDeadlinesBeyondOneRevolutionForTheirRound() {
+        TimingWheel<String> wheel = new TimingWheel<>(4, TICK, 0);
+        wheel.add("late", 6 * TICK);
+
+        assertThat(wheel.advance(2 * TICK)).isEmpty();
+        assertThat(wheel.advance(5 * TICK)).isEmpty();
+        assertThat(wheel.advance(6 * TICK)).containsExactly("late");
+    }
+
+    @Test
+    void advance_AfterLongPause_ReturnsEverythingDue() {
+        TimingWheel<String> wheel = new TimingWheel<>(4, TICK, 0);
+        wheel.add("a", TICK);
+        wheel.add("b", 3 * TICK);
+        wheel.add("c", 9 * TICK);
+
+        assertThat(wheel.advance(20 * TICK)).containsExactlyInAnyOrder("a", "b", "c");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void add_PastDeadline_FiresOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(4, TICK, 0);
+        wheel.advance(3 * TICK);
+        wheel.add("overdue", TICK);
+
+        assertThat(wheel.advance(4 * TICK)).containsExactly("overdue");
+    }
+}
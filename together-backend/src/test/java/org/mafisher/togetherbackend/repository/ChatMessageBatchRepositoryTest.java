@@ -0,0 +1,66 @@
+package org.mafisher.togetherbackend.repository;
+
+import org.junit.jupiter.api.Test;
+import org.mafisher.togetherbackend.chat.PendingChatMessage;
+import org.mafisher.togetherbackend.entity.ChatMessage;
+import org.mafisher.togetherbackend.entity.Room;
+import org.mafisher.togetherbackend.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ChatMessageBatchRepository.class)
+class ChatMessageBatchRepositoryTest {
+
+    @Autowired
+    private ChatMessageBatchRepository batchRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void insertAll_ShouldReturnGeneratedIdsInOrder() {
+        User sender = entityManager.persist(User.builder().nickName("sender").build());
+        Room room = entityManager.persist(Room.builder().name("room").owner(sender).build());
+        entityManager.flush();
+
+        List<Long> ids = batchRepository.insertAll(List.of(
+                message(room, sender, "first", 1L),
+                message(room, sender, "second", 2L)));
+
+        assertThat(ids).hasSize(2);
+        assertThat(ids.get(0)).isLessThan(ids.get(1));
+        ChatMessage second = entityManager.find(ChatMessage.class, ids.get(1));
+        assertThat(second.getContent()).isEqualTo("second");
+        assertThat(second.getSeq()).isEqualTo(2L);
+    }
+
+    @Test
+    void findMaxSeqs_ShouldReturnZeroForRoomsWithoutMessages() {
+        User sender = entityManager.persist(User.builder().nickName("sender").build());
+        Room busy = entityManager.persist(Room.builder().name("busy").owner(sender).build());
+        Room empty = entityManager.persist(Room.builder().name("empty").owner(sender).build());
+        entityManager.flush();
+        batchRepository.insertAll(List.of(message(busy, sender, "first", 1L), message(busy, sender, "second", 2L)));
+
+        Map<Long, Long> maxSeqs = batchRepository.findMaxSeqs(List.of(busy.getId(), empty.getId()));
+
+        assertThat(maxSeqs).containsEntry(busy.getId(), 2L).containsEntry(empty.getId(), 0L);
+    }
+
+    private static PendingChatMessage message(Room room, User sender, String content, Long seq) {
+        PendingChatMessage message = new PendingChatMessage(room.getId(), sender.getId(), content, Instant.now());
+        message.assignSeq(seq);
+        return message;
+    }
+}
@@ -0,0 +1,72 @@
+package org.mafisher.togetherbackend.repository;
+
+import org.junit.jupiter.api.Test;
+import org.mafisher.togetherbackend.email.EmailTemplateName;
+import org.mafisher.togetherbackend.entity.EmailOutboxMessage;
+import org.mafisher.togetherbackend.enums.EmailOutboxStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class EmailOutboxRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Test
+    void findDueForUpdate_ReturnsOnlyDuePendingMessagesInOrder() {
+        Instant now = Instant.now();
+        EmailOutboxMessage first = persist("first@example.com", EmailOutboxStatus.PENDING, now.minusSeconds(60));
+        EmailOutboxMessage second = persist("second@example.com", EmailOutboxStatus.PENDING, now.minusSeconds(5));
+        persist("later@example.com", EmailOutboxStatus.PENDING, now.plusSeconds(600));
+        persist("sent@example.com", EmailOutboxStatus.SENT, now.minusSeconds(60));
+        entityManager.flush();
+
+        List<EmailOutboxMessage> due = emailOutboxRepository.findDueForUpdate(
+                EmailOutboxStatus.PENDING, now, PageRequest.of(0, 10));
+
+        assertThat(due).extracting(EmailOutboxMessage::getId)
+                .containsExactly(first.getId(), second.getId());
+    }
+
+    @Test
+    void findDueForUpdate_RespectsBatchSize() {
+        Instant now = Instant.now();
+        persist("a@example.com", EmailOutboxStatus.PENDING, now.minusSeconds(10));
+        persist("b@example.com", EmailOutboxStatus.PENDING, now.minusSeconds(10));
+        persist("c@example.com", EmailOutboxStatus.PENDING, now.minusSeconds(10));
+        entityManager.flush();
+
+        List<EmailOutboxMessage> due = emailOutboxRepository.findDueForUpdate(
+                EmailOutboxStatus.PENDING, now, PageRequest.of(0, 2));
+
+        assertThat(due).hasSize(2);
+        assertThat(emailOutboxRepository.countByStatus(EmailOutboxStatus.PENDING)).isEqualTo(3);
+    }
+
+    private EmailOutboxMessage persist(String recipient, EmailOutboxStatus status, Instant nextAttemptAt) {
+        EmailOutboxMessage message = EmailOutboxMessage.builder()
+                .recipient(recipient)
+                .username("user")
+                .template(EmailTemplateName.ACTIVATE_ACCOUNT)
+                .confirmationUrl("http://localhost/activate")
+                .subject("Account activation")
+                .status(status)
+                .nextAttemptAt(nextAttemptAt)
+                .createdAt(Instant.now())
+                .build();
+        return entityManager.persist(message);
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -83,6 +84,14 @@ class FriendRequestRepositoryTest {
         assertThat(result.getTotalPages()).isEqualTo(2);
     }
 
+    @Test
+    void countByReceiverIdAndStatus_ShouldCountOnlyMatchingStatus() {
+        assertThat(friendRequestRepository.countByReceiverIdAndStatus(receiver2.getId(), FriendRequestStatus.PENDING))
+                .isEqualTo(2);
+        assertThat(friendRequestRepository.countByReceiverIdAndStatus(receiver1.getId(), FriendRequestStatus.REJECT))
+                .isZero();
+    }
+
     @Test
     void findBySenderAndReceiver_WhenExists_ShouldReturnRequest() {
         Optional<FriendRequest> result = friendRequestRepository.findBySenderAndReceiver(sender1, receiver1);
@@ -102,4 +111,31 @@ class FriendRequestRepositoryTest {
 
         assertThat(result).isEmpty();
     }
+
+    @Test
+    void findReceived_ShouldReturnSendersNewestFirstAndPageByKeyset() {
+        User receiver = createAndPersistUser("popular");
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0);
+        for (int i = 0; i < 5; i++) {
+            entityManager.persist(FriendRequest.builder()
+                    .sender(createAndPersistUser("fan" + i))
+                    .receiver(receiver)
+                    .status(FriendRequestStatus.PENDING)
+                    .createdAt(base.plusMinutes(i % 3))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<FriendRequestRepository.ReceivedRequest> first = friendRequestRepository.findReceived(
+                receiver.getId(), FriendRequestStatus.PENDING, PageRequest.of(0, 3));
+        FriendRequestRepository.ReceivedRequest last = first.get(2);
+        List<FriendRequestRepository.ReceivedRequest> second = friendRequestRepository.findReceivedBefore(
+                receiver.getId(), FriendRequestStatus.PENDING, last.getCreatedAt(), last.getId(), PageRequest.of(0, 3));
+
+        assertThat(first).extracting(FriendRequestRepository.ReceivedRequest::getSenderNickName)
+                .containsExactly("fan2", "fan4", "fan1");
+        assertThat(second).extracting(FriendRequestRepository.ReceivedRequest::getSenderNickName)
+                .containsExactly("fan3", "fan0");
+    }
 }
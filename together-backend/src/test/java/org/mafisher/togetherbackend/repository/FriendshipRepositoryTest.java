@@ -7,14 +7,17 @@ import org.mafisher.togetherbackend.entity.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
 @ActiveProfiles("test")
@@ -92,8 +95,8 @@ class FriendshipRepositoryTest {
         Page<User> result = friendshipRepository.findFriendsByUser(userB, pageable);
 
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getTotalElements()).isEqualTo(1);
-        assertThat(result.getTotalPages()).isEqualTo(1);
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getTotalPages()).isEqualTo(2);
     }
 
     @Test
@@ -113,4 +116,43 @@ class FriendshipRepositoryTest {
     void existsBetweenUsers_WithSameUser_ShouldReturnFalse() {
         assertThat(friendshipRepository.existsBetweenUsers(userA, userA)).isFalse();
     }
+
+    @Test
+    void persist_ReversedPair_IsStoredCanonically() {
+        Friendship friendship = Friendship.builder()
+                .user1(userD)
+                .user2(userA)
+                .createdAt(LocalDateTime.now())
+                .build();
+        entityManager.persistAndFlush(friendship);
+
+        assertThat(friendship.getUser1().getId()).isEqualTo(userA.getId());
+        assertThat(friendship.getUser2().getId()).isEqualTo(userD.getId());
+        assertThat(friendshipRepository.existsBetweenUsers(userD, userA)).isTrue();
+    }
+
+    @Test
+    void save_DuplicatePairInEitherOrder_ViolatesUniqueConstraint() {
+        assertThatThrownBy(() -> friendshipRepository.saveAndFlush(Friendship.of(userB, userA)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void findEdgesAfter_ShouldReturnIdOrderedBatches() {
+        List<FriendshipRepository.FriendshipEdge> first = friendshipRepository.findEdgesAfter(0L, PageRequest.of(0, 2));
+        List<FriendshipRepository.FriendshipEdge> second = friendshipRepository.findEdgesAfter(
+                first.get(1).getId(), PageRequest.of(0, 2));
+
+        assertThat(first).hasSize(2);
+        assertThat(first.get(0).getUser1Id()).isEqualTo(userA.getId());
+        assertThat(first.get(0).getUser2Id()).isEqualTo(userB.getId());
+        assertThat(second).hasSize(1);
+        assertThat(second.get(0).getUser1Id()).isEqualTo(userB.getId());
+    }
+
+    @Test
+    void findFriendIds_ShouldReturnBothDirections() {
+        assertThat(friendshipRepository.findFriendIds(userB.getId()))
+                .containsExactlyInAnyOrder(userA.getId(), userC.getId());
+    }
 }
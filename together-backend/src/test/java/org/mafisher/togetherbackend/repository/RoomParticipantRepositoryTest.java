@@ -0,0 +1,128 @@
+package org.mafisher.togetherbackend.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mafisher.togetherbackend.entity.Room;
+import org.mafisher.togetherbackend.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(RoomParticipantRepository.class)
+class RoomParticipantRepositoryTest {
+
+    @Autowired
+    private RoomParticipantRepository roomParticipantRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User owner;
+    private User member;
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(User.builder().nickName("owner").build());
+        member = entityManager.persist(User.builder().nickName("member").build());
+        room = entityManager.persist(Room.builder().name("room").owner(owner)
+                .participants(new HashSet<>(Set.of(owner))).build());
+        entityManager.flush();
+    }
+
+    @Test
+    void insert_AddsMemberWithoutLoadingTheRoom() {
+        roomParticipantRepository.insert(room.getId(), member.getId());
+
+        assertThat(roomRepository.isUserInRoom(room.getId(), member.getId())).isTrue();
+        assertThat(roomRepository.findParticipantIds(room.getId())).containsExactlyInAnyOrder(owner.getId(), member.getId());
+    }
+
+    @Test
+    void insert_ShouldThrow_WhenAlreadyMember() {
+        assertThatThrownBy(() -> roomParticipantRepository.insert(room.getId(), owner.getId()))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void delete_ReportsWhetherUserWasMember() {
+        roomParticipantRepository.insert(room.getId(), member.getId());
+
+        assertThat(roomParticipantRepository.delete(room.getId(), member.getId())).isTrue();
+        assertThat(roomParticipantRepository.delete(room.getId(), member.getId())).isFalse();
+        assertThat(roomRepository.findParticipantIds(room.getId())).containsExactly(owner.getId());
+    }
+
+    @Test
+    void insertAll_AddsMembersInOneBatch() {
+        User other = entityManager.persist(User.builder().nickName("other").build());
+        entityManager.flush();
+
+        roomParticipantRepository.insertAll(room.getId(), List.of(member.getId(), other.getId()));
+        assertThat(roomRepository.findParticipantIdsAmong(room.getId(), List.of(member.getId(), other.getId())))
+                .containsExactlyInAnyOrder(member.getId(), other.getId());
+    }
+
+    @Test
+    void insertAll_ShouldThrow_WhenAnyIsAlreadyMember() {
+        assertThatThrownBy(() -> roomParticipantRepository.insertAll(room.getId(), List.of(member.getId(), owner.getId())))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void deleteAll_RemovesOnlyGivenMembers() {
+        roomParticipantRepository.insert(room.getId(), member.getId());
+
+        roomParticipantRepository.deleteAll(room.getId(), List.of(member.getId()));
+
+        assertThat(roomRepository.findParticipantIds(room.getId())).containsExactly(owner.getId());
+    }
+
+    @Test
+    void forEachMembership_StreamsMembersAndOwnersOrderedByRoom() {
+        Room other = entityManager.persist(Room.builder().name("other").owner(member).build());
+        roomParticipantRepository.insert(room.getId(), member.getId());
+        entityManager.flush();
+
+        List<long[]> rows = new ArrayList<>();
+        roomParticipantRepository.forEachMembership((roomId, userId) -> rows.add(new long[]{roomId, userId}));
+
+        assertThat(rows).containsExactly(
+                new long[]{room.getId(), owner.getId()},
+                new long[]{room.getId(), member.getId()},
+                new long[]{other.getId(), member.getId()});
+    }
+
+    @Test
+    void forEachRoomDigest_CountsAndSumsMembersPerRoom() {
+        Room other = entityManager.persist(Room.builder().name("other").owner(member).build());
+        roomParticipantRepository.insert(room.getId(), member.getId());
+        entityManager.flush();
+
+        Map<Long, long[]> digests = new HashMap<>();
+        roomParticipantRepository.forEachRoomDigest(
+                (roomId, members, memberIdSum) -> digests.put(roomId, new long[]{members, memberIdSum}));
+
+        assertThat(digests).containsOnlyKeys(room.getId(), other.getId());
+        assertThat(digests.get(room.getId())).containsExactly(2, owner.getId() + member.getId());
+        assertThat(digests.get(other.getId())).containsExactly(1, member.getId());
+    }
+}
@@ -0,0 +1,100 @@
+package org.mafisher.togetherbackend.repository;
+
+import org.junit.jupiter.api.Test;
+import org.mafisher.togetherbackend.chat.PendingChatMessage;
+import org.mafisher.togetherbackend.chat.ReadMark;
+import org.mafisher.togetherbackend.dto.UnreadCountDto;
+import org.mafisher.togetherbackend.entity.Room;
+import org.mafisher.togetherbackend.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({RoomReadStateRepository.class, ChatMessageBatchRepository.class})
+class RoomReadStateRepositoryTest {
+
+    @Autowired
+    private RoomReadStateRepository roomReadStateRepository;
+
+    @Autowired
+    private ChatMessageBatchRepository batchRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void upsertAll_InsertsAndOnlyMovesPositionsForward() {
+        User owner = entityManager.persist(User.builder().nickName("owner").build());
+        Room room = entityManager.persist(Room.builder().name("room").owner(owner).build());
+        entityManager.flush();
+
+        roomReadStateRepository.upsertAll(List.of(new ReadMark(owner.getId(), room.getId(), 5L)));
+        roomReadStateRepository.upsertAll(List.of(new ReadMark(owner.getId(), room.getId(), 3L)));
+        assertThat(positionOf(owner)).isEqualTo(5L);
+
+        roomReadStateRepository.upsertAll(List.of(new ReadMark(owner.getId(), room.getId(), 8L)));
+        assertThat(positionOf(owner)).isEqualTo(8L);
+    }
+
+    @Test
+    void findReadPositions_ReturnsEveryRoomOfTheUserInOneQuery() {
+        User owner = entityManager.persist(User.builder().nickName("owner").build());
+        User member = entityManager.persist(User.builder().nickName("member").build());
+        User stranger = entityManager.persist(User.builder().nickName("stranger").build());
+        Room owned = entityManager.persist(Room.builder().name("owned").owner(owner)
+                .participants(new HashSet<>(Set.of(owner, member))).build());
+        Room other = entityManager.persist(Room.builder().name("other").owner(stranger)
+                .participants(new HashSet<>(Set.of(stranger))).build());
+        entityManager.flush();
+        batchRepository.insertAll(List.of(message(owned, owner, 1L), message(owned, owner, 2L), message(owned, owner, 3L),
+                message(other, stranger, 1L)));
+        roomReadStateRepository.upsertAll(List.of(new ReadMark(member.getId(), owned.getId(), 1L)));
+
+        List<UnreadCountDto> positions = roomReadStateRepository.findReadPositions(member.getId());
+
+        assertThat(positions).singleElement().satisfies(position -> {
+            assertThat(position.getRoomId()).isEqualTo(owned.getId());
+            assertThat(position.getLastReadSeq()).isEqualTo(1L);
+            assertThat(position.getLastSeq()).isEqualTo(3L);
+        });
+        assertThat(roomReadStateRepository.findReadPositions(owner.getId()))
+                .singleElement().satisfies(position -> assertThat(position.getLastReadSeq()).isZero());
+    }
+
+    @Test
+    void deleteByRoomId_RemovesPositionsOfTheRoom() {
+        User owner = entityManager.persist(User.builder().nickName("owner").build());
+        Room room = entityManager.persist(Room.builder().name("room").owner(owner).build());
+        entityManager.flush();
+        roomReadStateRepository.upsertAll(List.of(new ReadMark(owner.getId(), room.getId(), 5L)));
+
+        roomReadStateRepository.deleteByRoomId(room.getId());
+
+        assertThat(positionOf(owner)).isNull();
+    }
+
+    private Long positionOf(User user) {
+        List<Long> positions = entityManager.getEntityManager()
+                .createQuery("SELECT s.lastReadSeq FROM RoomReadState s WHERE s.user.id = :userId", Long.class)
+                .setParameter("userId", user.getId())
+                .getResultList();
+        return positions.isEmpty() ? null : positions.get(0);
+    }
+
+    private static PendingChatMessage message(Room room, User sender, Long seq) {
+        PendingChatMessage message = new PendingChatMessage(room.getId(), sender.getId(), "hello", Instant.now());
+        message.assignSeq(seq);
+        return message;
+    }
+}
@@ -2,11 +2,14 @@ package org.mafisher.togetherbackend.repository;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mafisher.togetherbackend.dto.ParticipantDto;
+import org.mafisher.togetherbackend.dto.RoomSummaryDto;
 import org.mafisher.togetherbackend.entity.Room;
 import org.mafisher.togetherbackend.entity.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.HashSet;
@@ -15,6 +18,7 @@ import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @DataJpaTest
 @ActiveProfiles("test")
@@ -70,42 +74,47 @@ class RoomRepositoryTest {
     }
 
     @Test
-    void findByOwner_ShouldReturnAllOwnedRooms() {
-        List<Room> result = roomRepository.findByOwner(owner);
+    void findSummariesByUserId_ShouldReturnOwnedAndParticipatingRoomsWithCounts() {
+        List<RoomSummaryDto> ownerRooms = roomRepository.findSummariesByUserId(owner.getId());
+        List<RoomSummaryDto> participantRooms = roomRepository.findSummariesByUserId(participant.getId());
 
-        assertThat(result)
-                .hasSize(2)
-                .extracting("name")
-                .containsExactlyInAnyOrder("Room 1", "Room 2");
+        assertThat(ownerRooms)
+                .extracting(RoomSummaryDto::getName, RoomSummaryDto::getOwnerNickName, RoomSummaryDto::getParticipantCount)
+                .containsExactly(tuple("Room 1", "owner", 1L), tuple("Room 2", "owner", 0L));
+        assertThat(participantRooms)
+                .extracting(RoomSummaryDto::getId)
+                .containsExactly(room1.getId());
     }
 
     @Test
-    void findRoomsByUser_ShouldReturnOwnedAndParticipatingRooms() {
-        List<Room> ownerRooms = roomRepository.findRoomsByUser(owner);
-        List<Room> participantRooms = roomRepository.findRoomsByUser(participant);
+    void findSummariesByOwnerId_ShouldReturnOwnedRoomsOnly() {
+        assertThat(roomRepository.findSummariesByOwnerId(owner.getId()))
+                .extracting(RoomSummaryDto::getName)
+                .containsExactly("Room 1", "Room 2");
+        assertThat(roomRepository.findSummariesByOwnerId(participant.getId())).isEmpty();
+    }
 
-        assertThat(ownerRooms)
-                .hasSize(2)
-                .extracting("name")
-                .containsExactlyInAnyOrder("Room 1", "Room 2");
+    @Test
+    void findParticipantsAfter_ShouldPageByUserId() {
+        User second = entityManager.persist(User.builder().nickName("second").build());
+        User third = entityManager.persist(User.builder().nickName("third").build());
+        Room room = entityManager.find(Room.class, room1.getId());
+        room.addParticipant(second);
+        room.addParticipant(third);
+        entityManager.flush();
 
-        assertThat(participantRooms)
-                .hasSize(1)
-                .extracting("name")
-                .containsExactly("Room 1");
+        List<ParticipantDto> first = roomRepository.findParticipantsAfter(room1.getId(), 0L, PageRequest.of(0, 2));
+        List<ParticipantDto> rest = roomRepository.findParticipantsAfter(
+                room1.getId(), first.get(1).getId(), PageRequest.of(0, 2));
+
+        assertThat(first).extracting(ParticipantDto::getNickName).containsExactly("participant", "second");
+        assertThat(rest).extracting(ParticipantDto::getNickName).containsExactly("third");
     }
 
     @Test
-    void isUserInRoom_ShouldCheckMembership() {
-        boolean ownerInRoom1 = roomRepository.isUserInRoom(room1, owner);
-        boolean participantInRoom1 = roomRepository.isUserInRoom(room1, participant);
-        boolean strangerInRoom = roomRepository.isUserInRoom(room1,
-                entityManager.persist(User.builder().nickName("stranger").build())
-        );
-
-        assertThat(ownerInRoom1).isTrue();
-        assertThat(participantInRoom1).isTrue();
-        assertThat(strangerInRoom).isFalse();
+    void findParticipantIds_ShouldReturnIdsOnly() {
+        assertThat(roomRepository.findParticipantIds(room1.getId())).containsExactly(participant.getId());
+        assertThat(roomRepository.findParticipantIds(room2.getId())).isEmpty();
     }
 
     @Test
@@ -129,4 +138,16 @@ class RoomRepositoryTest {
                 .hasSize(1)
                 .containsExactly(participant);
     }
-}
\ No newline at end of file
+
+    @Test
+    void isUserInRoomById_ShouldMatchOwnerAndParticipantsOnly() {
+        User stranger = entityManager.persist(User.builder().nickName("stranger").build());
+
+        assertThat(roomRepository.isUserInRoom(room1.getId(), owner.getId())).isTrue();
+        assertThat(roomRepository.isUserInRoom(room1.getId(), participant.getId())).isTrue();
+        assertThat(roomRepository.isUserInRoom(room2.getId(), owner.getId())).isTrue();
+        assertThat(roomRepository.isUserInRoom(room2.getId(), participant.getId())).isFalse();
+        assertThat(roomRepository.isUserInRoom(room1.getId(), stranger.getId())).isFalse();
+        assertThat(roomRepository.isUserInRoom(-1L, owner.getId())).isFalse();
+    }
+}
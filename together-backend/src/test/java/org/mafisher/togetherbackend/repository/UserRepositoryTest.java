@@ -1,13 +1,19 @@
 package org.mafisher.togetherbackend.repository;
 
 import org.junit.jupiter.api.Test;
+import org.mafisher.togetherbackend.entity.Friendship;
 import org.mafisher.togetherbackend.entity.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.List;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @DataJpaTest
@@ -17,6 +23,9 @@ public class UserRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private FriendshipRepository friendshipRepository;
+
     @Test
     public void testFindByNickName() {
         User user = User.builder()
@@ -44,4 +53,60 @@ public class UserRepositoryTest {
         assert foundUser.isPresent();
         assertEquals(foundUser.get().getEmail(),"test2@mail.com");
     }
+
+    @Test
+    public void testFindPotentialFriendsExcludesFriendsInBothDirections() {
+        User lower = userRepository.save(User.builder().nickName("Mikaela").email("mikaela@mail.com").build());
+        User current = userRepository.save(User.builder().nickName("mike").email("mike@mail.com").build());
+        User higher = userRepository.save(User.builder().nickName("Mikolaj").email("mikolaj@mail.com").build());
+        User stranger = userRepository.save(User.builder().nickName("Tomik").email("tomik@mail.com").build());
+        userRepository.save(User.builder().nickName("Anna").email("anna@mail.com").build());
+        friendshipRepository.save(Friendship.of(current, lower));
+        friendshipRepository.save(Friendship.of(higher, current));
+
+        var result = userRepository.findPotentialFriends("MIK", current, PageRequest.of(0, 10, Sort.by("nickName")));
+
+        assertThat(result.getContent()).containsExactly(stranger);
+        assertThat(result.hasNext()).isFalse();
+    }
+
+    @Test
+    public void testFindPotentialFriendsMatchesInfixInRequestedOrderAndReportsNextSlice() {
+        User current = userRepository.save(User.builder().nickName("Anna").email("anna@mail.com").build());
+        User zofia = userRepository.save(User.builder().nickName("Zofia").email("zofia@mail.com").build());
+        User ofelia = userRepository.save(User.builder().nickName("ofelia").email("ofelia@mail.com").build());
+        userRepository.save(User.builder().nickName("Tomasz").email("tomasz@mail.com").build());
+        User sofia = userRepository.save(User.builder().nickName("Sofia").email("sofia@mail.com").build());
+
+        var first = userRepository.findPotentialFriends("of", current, PageRequest.of(0, 2, Sort.by("nickName")));
+        var second = userRepository.findPotentialFriends("of", current, PageRequest.of(1, 2, Sort.by("nickName")));
+
+        assertThat(first.getContent()).containsExactly(sofia, zofia);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).containsExactly(ofelia);
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    public void testFindNicknamesLikeMatchesPrefixIgnoringCase() {
+        userRepository.save(User.builder().nickName("Zenon").email("zenon@mail.com").build());
+        userRepository.save(User.builder().nickName("zeus").email("zeus@mail.com").build());
+        userRepository.save(User.builder().nickName("Oz").email("oz@mail.com").build());
+
+        var result = userRepository.findNicknamesLike("ze%", PageRequest.of(0, 10));
+
+        assertThat(result).extracting(UserRepository.UserNickname::getNickName).containsExactly("Zenon", "zeus");
+    }
+
+    @Test
+    public void testFindNicknamesInReturnsOnlyExistingUsers() {
+        User anna = userRepository.save(User.builder().nickName("anna").email("anna@mail.com").build());
+        User bob = userRepository.save(User.builder().nickName("bob").email("bob@mail.com").build());
+
+        assertThat(userRepository.findNicknamesIn(List.of("anna", "bob", "ghost")))
+                .extracting(UserRepository.UserNickname::getId, UserRepository.UserNickname::getNickName)
+                .containsExactlyInAnyOrder(
+                        tuple(anna.getId(), "anna"),
+                        tuple(bob.getId(), "bob"));
+    }
 }
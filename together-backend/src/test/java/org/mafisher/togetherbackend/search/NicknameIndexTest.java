@@ -0,0 +1,57 @@
+package org.mafisher.togetherbackend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NicknameIndexTest {
+
+    @Test
+    void prefix_MatchesCaseInsensitivelyInKeyOrder() {
+        NicknameBuffer entries = new NicknameBuffer(4);
+        entries.add(3, "Mikolaj");
+        entries.add(1, "mike");
+        entries.add(2, "Anna");
+        entries.add(4, "Mikaela");
+        NicknameIndex index = NicknameIndex.build(entries);
+
+        List<String> found = new ArrayList<>();
+        int count = index.prefix("MIK", 10, id -> false, (id, nickName) -> found.add(nickName));
+
+        assertThat(count).isEqualTo(3);
+        assertThat(found).containsExactly("Mikaela", "mike", "Mikolaj");
+    }
+
+    @Test
+    void prefix_SkipsExcludedAndStopsAtLimit() {
+        NicknameBuffer entries = new NicknameBuffer(4);
+        entries.add(1, "tom");
+        entries.add(2, "tomasz");
+        entries.add(3, "tomek");
+        entries.add(4, "tomik");
+        NicknameIndex index = NicknameIndex.build(entries);
+
+        List<Long> found = new ArrayList<>();
+        index.prefix("tom", 2, id -> id == 1, (id, nickName) -> found.add(id));
+
+        assertThat(found).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void copyEntriesTo_RoundTripsWithoutDuplicates() {
+        NicknameBuffer entries = new NicknameBuffer(4);
+        entries.add(1, "zoe");
+        entries.add(1, "zoe");
+        NicknameIndex index = NicknameIndex.build(entries);
+
+        NicknameBuffer copy = new NicknameBuffer(4);
+        index.copyEntriesTo(copy);
+        copy.add(2, "zack");
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(NicknameIndex.build(copy).size()).isEqualTo(2);
+    }
+}
@@ -14,6 +14,7 @@ import org.mafisher.togetherbackend.handler.CustomException;
 import org.mafisher.togetherbackend.mappers.Mapper;
 import org.mafisher.togetherbackend.repository.RolesRepository;
 import org.mafisher.togetherbackend.repository.UserRepository;
+import org.mafisher.togetherbackend.security.JwtClaims;
 import org.mafisher.togetherbackend.service.impl.AuthServiceImpl;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -40,6 +41,9 @@ class AuthServiceTest {
     @Mock private RolesRepository rolesRepository;
     @Mock private EmailService emailService;
     @Mock private ActivationTokenService activationTokenService;
+    @Mock private UserSuggestService userSuggestService;
+    @Mock private TokenVersionService tokenVersionService;
+    @Mock private PrincipalService principalService;
 
     @InjectMocks
     private AuthServiceImpl authService;
@@ -65,7 +69,8 @@ class AuthServiceTest {
                         user.getPassword().equals("encodedPassword")
         ));
         verify(activationTokenService).createActivationToken(any());
-        verify(emailService).sendEmail(any(), any(), any(), any(), any());
+        verify(emailService).queueEmail(any(), any(), any(), any(), any());
+        verify(userSuggestService).addUser(any(), eq("johndoe"));
     }
 
     @Test
@@ -111,6 +116,7 @@ class AuthServiceTest {
     @Test
     void activateUser_WithValidToken_ActivatesAccount() throws MessagingException {
         User user = new User();
+        user.setId(1L);
         user.setEnable(false);
         ActivationToken token = ActivationToken.builder()
                 .token("valid-token")
@@ -124,6 +130,8 @@ class AuthServiceTest {
 
         assertThat(user.isEnabled()).isTrue();
         verify(activationTokenService).deleteActivationToken(token);
+        verify(principalService).invalidate(1L);
+        verifyNoInteractions(tokenVersionService);
     }
 
     @Test
@@ -142,14 +150,15 @@ class AuthServiceTest {
                 .isInstanceOf(CustomException.class)
                 .hasFieldOrPropertyWithValue("errorCode", BusinessErrorCodes.TOKEN_EXPIRED);
 
-        verify(emailService).sendEmail(any(), any(), any(), any(), any());
+        verify(emailService).queueEmail(any(), any(), any(), any(), any());
         verify(activationTokenService).deleteActivationToken(expiredToken);
     }
 
     @Test
     void verifyToken_WithValidToken_ReturnsUserDto() {
-        when(jwtService.validateJwtToken("valid")).thenReturn(true);
-        when(jwtService.extractUserName("valid")).thenReturn("john@example.com");
+        when(jwtService.verify("valid")).thenReturn(Optional.of(
+                JwtClaims.builder().subject("john@example.com").userId(1L).tokenVersion(2).build()));
+        when(tokenVersionService.isCurrent(1L, 2)).thenReturn(true);
         when(userRepository.findByEmail(any())).thenReturn(Optional.of(new User()));
         when(mapper.mapTo(any())).thenReturn(new UserDto());
 
@@ -158,6 +167,18 @@ class AuthServiceTest {
         assertThat(result).isNotNull();
     }
 
+    @Test
+    void verifyToken_WithRevokedToken_Throws() {
+        when(jwtService.verify("revoked")).thenReturn(Optional.of(
+                JwtClaims.builder().subject("john@example.com").userId(1L).tokenVersion(1).build()));
+        when(tokenVersionService.isCurrent(1L, 1)).thenReturn(false);
+
+        assertThatThrownBy(() -> authService.verifyToken("revoked"))
+                .isInstanceOf(CustomException.class)
+                .hasFieldOrPropertyWithValue("errorCode", BusinessErrorCodes.INVALID_TOKEN);
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     void findUserByEmail_WhenExists_ReturnsDto() {
         User user = new User();
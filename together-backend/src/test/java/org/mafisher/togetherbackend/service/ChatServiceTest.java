@@ -0,0 +1,264 @@
+package org.mafisher.togetherbackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mafisher.togetherbackend.chat.ChatHistoryCache;
+import org.mafisher.togetherbackend.chat.ChatMessageAck;
+import org.mafisher.togetherbackend.chat.ChatMessageWriter;
+import org.mafisher.togetherbackend.chat.ReadReceiptAggregator;
+import org.mafisher.togetherbackend.chat.RoomActivityCoalescer;
+import org.mafisher.togetherbackend.chat.RoomFanout;
+import org.mafisher.togetherbackend.chat.SseFanout;
+import org.mafisher.togetherbackend.dto.ChatMessageDto;
+import org.mafisher.togetherbackend.dto.CursorPage;
+import org.mafisher.togetherbackend.dto.UnreadCountDto;
+import org.mafisher.togetherbackend.dto.request.ReadRequest;
+import org.mafisher.togetherbackend.dto.request.SendMessageRequest;
+import org.mafisher.togetherbackend.dto.request.TypingRequest;
+import org.mafisher.togetherbackend.entity.User;
+import org.mafisher.togetherbackend.enums.ChatDurability;
+import org.mafisher.togetherbackend.handler.BusinessErrorCodes;
+import org.mafisher.togetherbackend.handler.CustomException;
+import org.mafisher.togetherbackend.repository.RoomReadStateRepository;
+import org.mafisher.togetherbackend.service.impl.ChatServiceImpl;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChatServiceTest {
+
+    @Mock
+    private ChatMessageWriter chatMessageWriter;
+
+    @Mock
+    private ChatHistoryCache chatHistoryCache;
+
+    @Mock
+    private RoomMembershipService roomMembershipService;
+
+    @Mock
+    private PrincipalService principalService;
+
+    @Mock
+    private RoomFanout roomFanout;
+
+    @Mock
+    private SseFanout sseFanout;
+
+    @Mock
+    private RoomActivityCoalescer roomActivityCoalescer;
+
+    @Mock
+    private ReadReceiptAggregator readReceiptAggregator;
+
+    @Mock
+    private RoomReadStateRepository roomReadStateRepository;
+
+    @InjectMocks
+    private ChatServiceImpl chatService;
+
+    @Mock
+    private Principal principal;
+
+    private final User sender = User.builder().id(1L).nickName("UserA").build();
+
+    @Test
+    void sendMessage_ShouldPersistAndBroadcastToRoomTopic() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(sender);
+        when(roomMembershipService.isMember(7L, 1L)).thenReturn(true);
+        when(chatMessageWriter.write(eq(7L), eq(1L), eq("hello"), any()))
+                .thenReturn(CompletableFuture.completedFuture(new ChatMessageAck(42L, 3L)));
+        List<Runnable> publishTasks = new ArrayList<>();
+        when(roomFanout.publishExecutor()).thenReturn(publishTasks::add);
+
+        ChatMessageDto result = chatService.sendMessage(7L, new SendMessageRequest("hello"), principal);
+
+        assertThat(result.getId()).isEqualTo(42L);
+        assertThat(result.getSeq()).isEqualTo(3L);
+        assertThat(result.getRoomId()).isEqualTo(7L);
+        assertThat(result.getSenderNickName()).isEqualTo("UserA");
+        verify(roomFanout, never()).publish(any(), any());
+
+        publishTasks.forEach(Runnable::run);
+        verify(roomFanout).publish(7L, result);
+        verify(sseFanout).publishMessage(result);
+        verify(readReceiptAggregator).markRead(7L, 1L, 3L);
+        verify(chatHistoryCache).append(result);
+    }
+
+    @Test
+    void sendMessage_Async_ReturnsBeforeCommitAndBroadcastsOnCommit() {
+        ReflectionTestUtils.setField(chatService, "durability", ChatDurability.ASYNC);
+        when(principalService.checkUserPrincipal(principal)).thenReturn(sender);
+        when(roomMembershipService.isMember(7L, 1L)).thenReturn(true);
+        CompletableFuture<ChatMessageAck> ack = new CompletableFuture<>();
+        when(chatMessageWriter.write(eq(7L), eq(1L), eq("hello"), any())).thenReturn(ack);
+        when(roomFanout.publishExecutor()).thenReturn(Runnable::run);
+
+        ChatMessageDto result = chatService.sendMessage(7L, new SendMessageRequest("hello"), principal);
+
+        assertThat(result.getId()).isNull();
+        verify(roomFanout, never()).publish(any(), any());
+
+        ack.complete(new ChatMessageAck(42L, 3L));
+
+        ArgumentCaptor<ChatMessageDto> broadcast = ArgumentCaptor.forClass(ChatMessageDto.class);
+        verify(roomFanout).publish(eq(7L), broadcast.capture());
+        assertThat(broadcast.getValue().getSeq()).isEqualTo(3L);
+        assertThat(broadcast.getValue().getContent()).isEqualTo("hello");
+    }
+
+    @Test
+    void sendMessage_Sync_ShouldThrow_WhenBatchFails() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(sender);
+        when(roomMembershipService.isMember(7L, 1L)).thenReturn(true);
+        when(chatMessageWriter.write(eq(7L), eq(1L), eq("hello"), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("db down")));
+        when(roomFanout.publishExecutor()).thenReturn(Runnable::run);
+
+        assertThatThrownBy(() -> chatService.sendMessage(7L, new SendMessageRequest("hello"), principal))
+                .isInstanceOf(CustomException.class)
+                .hasFieldOrPropertyWithValue("errorCode", BusinessErrorCodes.CHAT_UNAVAILABLE);
+        verify(roomFanout, never()).publish(any(), any());
+    }
+
+    @Test
+    void sendMessage_ShouldThrow_WhenSenderNotInRoom() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(sender);
+        when(roomMembershipService.isMember(7L, 1L)).thenReturn(false);
+
+        assertThatThrownBy(() -> chatService.sendMessage(7L, new SendMessageRequest("hello"), principal))
+                .isInstanceOf(CustomException.class)
+                .hasFieldOrPropertyWithValue("errorCode", BusinessErrorCodes.USER_NOT_IN_ROOM);
+        verifyNoInteractions(chatMessageWriter, roomFanout);
+    }
+
+    @Test
+    void sendMessage_ShouldThrow_WhenContentBlank() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(sender);
+
+        assertThatThrownBy(() -> chatService.sendMessage(7L, new SendMessageRequest("  "), principal))
+                .isInstanceOf(CustomException.class)
+                .hasFieldOrPropertyWithValue("errorCode", BusinessErrorCodes.INVALID_MESSAGE);
+    }
+
+    @Test
+    void getHistory_ShouldReturnCursorToOldestItem_WhenMoreExist() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(sender);
+        when(roomMembershipService.isMember(7L, 1L)).thenReturn(true);
+        when(chatHistoryCache.before(7L, null, 2)).thenReturn(List.of(message(3L), message(4L), message(5L)));
+
+        CursorPage<ChatMessageDto> page = chatService.getHistory(7L, null, 2, principal);
+
+        assertThat(page.getItems()).extracting(ChatMessageDto::getSeq).containsExactly(4L, 5L);
+        assertThat(page.getNextCursor()).isEqualTo("4");
+    }
+
+    @Test
+    void getHistory_ShouldReturnNoCursor_OnLastPage() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(sender);
+        when(roomMembershipService.isMember(7L, 1L)).thenReturn(true);
+        when(chatHistoryCache.before(7L, 4L, 2)).thenReturn(List.of(message(3L)));
+
+        CursorPage<ChatMessageDto> page = chatService.getHistory(7L, 4L, 2, principal);
+
+        assertThat(page.getItems()).extracting(ChatMessageDto::getSeq).containsExactly(3L);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getHistory_ShouldThrow_WhenNotMember() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(sender);
+        when(roomMembershipService.isMember(7L, 1L)).thenReturn(false);
+
+        assertThatThrownBy(() -> chatService.getHistory(7L, null, 10, principal))
+                .isInstanceOf(CustomException.class)
+                .hasFieldOrPropertyWithValue("errorCode", BusinessErrorCodes.USER_NOT_IN_ROOM);
+        verifyNoInteractions(chatHistoryCache);
+    }
+
+    @Test
+    void setTyping_ShouldUseSessionSubscriptionInsteadOfDatabase() {
+        when(roomFanout.isSubscribed("s1", 7L)).thenReturn(true);
+        when(principalService.userIdOf(principal)).thenReturn(1L);
+
+        chatService.setTyping(7L, new TypingRequest(true), "s1", principal);
+
+        verify(roomActivityCoalescer).typing(7L, 1L, true);
+        verifyNoInteractions(roomMembershipService, chatMessageWriter);
+    }
+
+    @Test
+    void setTyping_ShouldThrow_WhenSessionNotSubscribedToRoom() {
+        when(roomFanout.isSubscribed("s1", 7L)).thenReturn(false);
+
+        assertThatThrownBy(() -> chatService.setTyping(7L, new TypingRequest(true), "s1", principal))
+                .isInstanceOf(CustomException.class)
+                .hasFieldOrPropertyWithValue("errorCode", BusinessErrorCodes.USER_NOT_IN_ROOM);
+        verifyNoInteractions(roomActivityCoalescer);
+    }
+
+    @Test
+    void markRead_ShouldRecordPositionForMember() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(sender);
+        when(roomMembershipService.isMember(7L, 1L)).thenReturn(true);
+        when(chatHistoryCache.latestSeq(7L)).thenReturn(20L);
+
+        chatService.markRead(7L, new ReadRequest(12L), principal);
+
+        verify(readReceiptAggregator).markRead(7L, 1L, 12L);
+    }
+
+    @Test
+    void markRead_ShouldClampPositionToNewestMessage() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(sender);
+        when(roomMembershipService.isMember(7L, 1L)).thenReturn(true);
+        when(chatHistoryCache.latestSeq(7L)).thenReturn(20L);
+
+        chatService.markRead(7L, new ReadRequest(Long.MAX_VALUE), principal);
+
+        verify(readReceiptAggregator).markRead(7L, 1L, 20L);
+    }
+
+    @Test
+    void markRead_ShouldThrow_WhenPositionMissing() {
+        assertThatThrownBy(() -> chatService.markRead(7L, new ReadRequest(null), principal))
+                .isInstanceOf(CustomException.class)
+                .hasFieldOrPropertyWithValue("errorCode", BusinessErrorCodes.INVALID_READ_POSITION);
+        verifyNoInteractions(readReceiptAggregator);
+    }
+
+    @Test
+    void getUnreadCounts_ShouldLayPendingAcksOverStoredPositions() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(sender);
+        when(readReceiptAggregator.pendingFor(1L)).thenReturn(Map.of(7L, 8L));
+        when(roomReadStateRepository.findReadPositions(1L)).thenReturn(List.of(
+                UnreadCountDto.builder().roomId(7L).lastReadSeq(2L).lastSeq(10L).build(),
+                UnreadCountDto.builder().roomId(9L).lastReadSeq(4L).lastSeq(6L).build()));
+
+        List<UnreadCountDto> counts = chatService.getUnreadCounts(principal);
+
+        assertThat(counts).extracting(UnreadCountDto::getRoomId, UnreadCountDto::getUnread)
+                .containsExactly(tuple(7L, 2L), tuple(9L, 2L));
+    }
+
+    private static ChatMessageDto message(Long id) {
+        return ChatMessageDto.builder().seq(id).roomId(7L).content("m" + id).build();
+    }
+}
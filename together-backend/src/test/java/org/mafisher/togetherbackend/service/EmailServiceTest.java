@@ -7,6 +7,9 @@ import jakarta.mail.internet.MimeMultipart;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mafisher.togetherbackend.email.EmailTemplateName;
+import org.mafisher.togetherbackend.enums.EmailOutboxStatus;
+import org.mafisher.togetherbackend.repository.EmailOutboxRepository;
 import org.mafisher.togetherbackend.service.impl.EmailServiceImpl;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
@@ -22,7 +25,9 @@ import java.util.Properties;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +39,9 @@ public class EmailServiceTest {
     @Mock
     private SpringTemplateEngine templateEngine;
 
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
     @InjectMocks
     private EmailServiceImpl emailService;
 
@@ -45,7 +53,7 @@ public class EmailServiceTest {
     @BeforeEach
     void setUp() throws Exception {
         mimeMessage = new MimeMessage(Session.getDefaultInstance(new Properties()));
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+        lenient().when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
     }
 
     @Test
@@ -73,6 +81,28 @@ public class EmailServiceTest {
         verify(mailSender).send(mimeMessage);
     }
 
+    @Test
+    void sendEmail_ActivationTemplate_UsesTemplateFileName() throws Exception {
+        when(templateEngine.process(anyString(), any(Context.class))).thenReturn("<html></html>");
+
+        emailService.sendEmail("test@example.com", "user", EmailTemplateName.ACTIVATE_ACCOUNT, "url", "subject");
+
+        verify(templateEngine).process(eq("activate_account"), any(Context.class));
+    }
+
+    @Test
+    void queueEmail_SavesPendingOutboxMessage() {
+        emailService.queueEmail("test@example.com", "user", EmailTemplateName.ACTIVATE_ACCOUNT, "url", "subject");
+
+        verify(emailOutboxRepository).save(argThat(message ->
+                message.getRecipient().equals("test@example.com") &&
+                        message.getStatus() == EmailOutboxStatus.PENDING &&
+                        message.getTemplate() == EmailTemplateName.ACTIVATE_ACCOUNT &&
+                        message.getNextAttemptAt() != null
+        ));
+        verifyNoInteractions(mailSender);
+    }
+
     private String extractHtmlContent(MimeMessage message) throws Exception {
         if (message.getContent() instanceof MimeMultipart) {
             MimeMultipart multipart = (MimeMultipart) message.getContent();
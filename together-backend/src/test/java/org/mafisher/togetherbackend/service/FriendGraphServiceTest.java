@@ -0,0 +1,116 @@
+package org.mafisher.togetherbackend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mafisher.togetherbackend.repository.FriendshipRepository;
+import org.mafisher.togetherbackend.repository.FriendshipRepository.FriendshipEdge;
+import org.mafisher.togetherbackend.service.impl.FriendGraphServiceImpl;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FriendGraphServiceTest {
+
+    @Mock
+    private FriendshipRepository friendshipRepository;
+
+    private FriendGraphServiceImpl friendGraphService;
+
+    @BeforeEach
+    void setUp() {
+        friendGraphService = new FriendGraphServiceImpl(friendshipRepository, new SimpleMeterRegistry(), 2);
+    }
+
+    @Test
+    void areFriends_BeforeLoad_FallsBackToRepository() {
+        when(friendshipRepository.existsPair(1L, 2L)).thenReturn(true);
+
+        assertThat(friendGraphService.isLoaded()).isFalse();
+        assertThat(friendGraphService.areFriends(2L, 1L)).isTrue();
+    }
+
+    @Test
+    void reload_LoadsAllBatchesAndAnswersInMemory() {
+        when(friendshipRepository.findEdgesAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(edge(1, 1, 2), edge(2, 1, 3)));
+        when(friendshipRepository.findEdgesAfter(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(edge(5, 2, 3)));
+
+        friendGraphService.reload();
+
+        assertThat(friendGraphService.isLoaded()).isTrue();
+        assertThat(friendGraphService.areFriends(3L, 2L)).isTrue();
+        assertThat(friendGraphService.areFriends(1L, 4L)).isFalse();
+        assertThat(friendGraphService.getFriendIds(1L)).containsExactly(2L, 3L);
+        verify(friendshipRepository, never()).existsPair(any(), any());
+    }
+
+    @Test
+    void addFriendship_VisibleImmediatelyAndAfterCompaction() {
+        when(friendshipRepository.findEdgesAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(edge(1, 1, 2)));
+        friendGraphService.reload();
+
+        friendGraphService.addFriendship(4L, 1L);
+        assertThat(friendGraphService.areFriends(1L, 4L)).isTrue();
+        assertThat(friendGraphService.getFriendIds(1L)).containsExactly(2L, 4L);
+
+        friendGraphService.compact();
+        assertThat(friendGraphService.areFriends(4L, 1L)).isTrue();
+        assertThat(friendGraphService.getFriendIds(1L)).containsExactly(2L, 4L);
+    }
+
+    @Test
+    void verifyConsistency_CountMismatch_ReloadsGraph() {
+        when(friendshipRepository.findEdgesAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(edge(1, 1, 2)))
+                .thenReturn(List.of(edge(1, 1, 2), edge(7, 3, 4)));
+        when(friendshipRepository.findEdgesAfter(eq(7L), any(Pageable.class)))
+                .thenReturn(List.of());
+        friendGraphService.reload();
+        when(friendshipRepository.count()).thenReturn(2L);
+
+        assertThat(friendGraphService.verifyConsistency()).isFalse();
+        assertThat(friendGraphService.areFriends(3L, 4L)).isTrue();
+    }
+
+    @Test
+    void verifyConsistency_InSync_ReturnsTrue() {
+        when(friendshipRepository.findEdgesAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(edge(1, 1, 2)));
+        friendGraphService.reload();
+        when(friendshipRepository.count()).thenReturn(1L);
+
+        assertThat(friendGraphService.verifyConsistency()).isTrue();
+        verify(friendshipRepository, times(1)).findEdgesAfter(any(), any());
+    }
+
+    private static FriendshipEdge edge(long id, long user1Id, long user2Id) {
+        return new FriendshipEdge() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getUser1Id() {
+                return user1Id;
+            }
+
+            @Override
+            public Long getUser2Id() {
+                return user2Id;
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package org.mafisher.togetherbackend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mafisher.togetherbackend.chat.SseFanout;
+import org.mafisher.togetherbackend.dto.FriendRequestEventDto;
+import org.mafisher.togetherbackend.entity.User;
+import org.mafisher.togetherbackend.repository.FriendRequestRepository;
+import org.mafisher.togetherbackend.service.impl.FriendNotificationServiceImpl;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.mafisher.togetherbackend.enums.FriendRequestEventType.RECEIVED;
+import static org.mafisher.togetherbackend.enums.FriendRequestStatus.PENDING;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FriendNotificationServiceTest {
+
+    @Mock
+    private FriendRequestRepository friendRequestRepository;
+
+    @Mock
+    private PresenceService presenceService;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private SseFanout sseFanout;
+
+    private FriendNotificationServiceImpl notificationService;
+
+    private final User userA = User.builder().id(1L).email("a@test.com").nickName("UserA").build();
+    private final User userB = User.builder().id(2L).email("b@test.com").nickName("UserB").build();
+
+    @BeforeEach
+    void setUp() {
+        notificationService = new FriendNotificationServiceImpl(
+                friendRequestRepository, presenceService, messagingTemplate, sseFanout, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void notify_SendsEventWithUnreadCountToOnlineRecipient() {
+        when(presenceService.isOnline(2L)).thenReturn(true);
+        when(friendRequestRepository.countByReceiverIdAndStatus(2L, PENDING)).thenReturn(3L);
+
+        notificationService.notify(userB, RECEIVED, userA);
+
+        verify(messagingTemplate).convertAndSendToUser("b@test.com", "/queue/friend-requests",
+                new FriendRequestEventDto(RECEIVED, 1L, "UserA", 3L));
+    }
+
+    @Test
+    void notify_SkipsOfflineRecipient() {
+        when(presenceService.isOnline(2L)).thenReturn(false);
+
+        notificationService.notify(userB, RECEIVED, userA);
+
+        verifyNoInteractions(messagingTemplate, friendRequestRepository);
+    }
+
+    @Test
+    void notify_SendsOverSse_WhenRecipientOnlyHasEventStream() {
+        when(presenceService.isOnline(2L)).thenReturn(false);
+        when(sseFanout.hasNotificationStream(2L)).thenReturn(true);
+        when(friendRequestRepository.countByReceiverIdAndStatus(2L, PENDING)).thenReturn(1L);
+
+        notificationService.notify(userB, RECEIVED, userA);
+
+        verify(sseFanout).publishToUser(2L, "friend-request", new FriendRequestEventDto(RECEIVED, 1L, "UserA", 1L));
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void notify_WaitsForCommit_WhenTransactionIsActive() {
+        when(presenceService.isOnline(2L)).thenReturn(true);
+        when(friendRequestRepository.countByReceiverIdAndStatus(2L, PENDING)).thenReturn(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            notificationService.notify(userB, RECEIVED, userA);
+            verifyNoInteractions(messagingTemplate);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(messagingTemplate).convertAndSendToUser("b@test.com", "/queue/friend-requests",
+                new FriendRequestEventDto(RECEIVED, 1L, "UserA", 1L));
+    }
+}
@@ -2,29 +2,44 @@ package org.mafisher.togetherbackend.service;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mafisher.togetherbackend.dto.CursorPage;
+import org.mafisher.togetherbackend.dto.FriendRequestCursor;
 import org.mafisher.togetherbackend.dto.UserDto;
+import org.mafisher.togetherbackend.dto.UserSuggestionDto;
 import org.mafisher.togetherbackend.entity.FriendRequest;
+import org.mafisher.togetherbackend.entity.Friendship;
 import org.mafisher.togetherbackend.entity.User;
 import org.mafisher.togetherbackend.handler.BusinessErrorCodes;
 import org.mafisher.togetherbackend.handler.CustomException;
 import org.mafisher.togetherbackend.mappers.Mapper;
 import org.mafisher.togetherbackend.repository.FriendRequestRepository;
+import org.mafisher.togetherbackend.repository.FriendRequestRepository.ReceivedRequest;
 import org.mafisher.togetherbackend.repository.FriendshipRepository;
 import org.mafisher.togetherbackend.repository.UserRepository;
 import org.mafisher.togetherbackend.service.impl.FriendServiceImpl;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
 import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mafisher.togetherbackend.enums.FriendRequestEventType.ACCEPTED;
+import static org.mafisher.togetherbackend.enums.FriendRequestEventType.RECEIVED;
+import static org.mafisher.togetherbackend.enums.FriendRequestEventType.REJECTED;
 import static org.mafisher.togetherbackend.enums.FriendRequestStatus.ACCEPT;
 import static org.mafisher.togetherbackend.enums.FriendRequestStatus.PENDING;
 import static org.mockito.Mockito.*;
@@ -41,6 +56,18 @@ class FriendServiceTest {
     @Mock
     private PrincipalService principalService;
 
+    @Mock
+    private FriendGraphService friendGraphService;
+
+    @Mock
+    private UserSuggestService userSuggestService;
+
+    @Mock
+    private PresenceService presenceService;
+
+    @Mock
+    private FriendNotificationService friendNotificationService;
+
     @Mock
     private UserRepository userRepository;
 
@@ -62,7 +89,7 @@ class FriendServiceTest {
         when(principalService.checkUserPrincipal(principal)).thenReturn(userA);
         when(principalService.checkUserExist("UserB")).thenReturn(userB);
         when(principalService.isUsersDifferent(userA, userB)).thenReturn(true);
-        when(friendshipRepository.existsBetweenUsers(userA, userB)).thenReturn(false);
+        when(friendGraphService.areFriends(1L, 2L)).thenReturn(false);
 
         FriendRequest existingRequest = FriendRequest.builder()
                 .sender(userB)
@@ -83,6 +110,8 @@ class FriendServiceTest {
                 friendship.getUser1().equals(userA) &&
                         friendship.getUser2().equals(userB)
         ));
+        verify(friendNotificationService).notify(userB, ACCEPTED, userA);
+        verify(friendNotificationService).notify(userA, ACCEPTED, userB);
     }
 
     @Test
@@ -102,7 +131,7 @@ class FriendServiceTest {
     void acceptRequest_ShouldCreateFriendship() {
         when(principalService.checkUserPrincipal(principal)).thenReturn(userA);
         when(principalService.checkUserExist("UserB")).thenReturn(userB);
-        when(friendshipRepository.existsBetweenUsers(userA, userB)).thenReturn(false);
+        when(friendGraphService.areFriends(1L, 2L)).thenReturn(false);
 
         FriendRequest request = FriendRequest.builder()
                 .sender(userB)
@@ -119,6 +148,29 @@ class FriendServiceTest {
                 (friendship.getUser1().equals(userA) && friendship.getUser2().equals(userB)) ||
                         (friendship.getUser1().equals(userB) && friendship.getUser2().equals(userA))
         ));
+        verify(friendGraphService).addFriendship(1L, 2L);
+        verify(friendNotificationService).notify(userB, ACCEPTED, userA);
+        verify(friendNotificationService).notify(userA, ACCEPTED, userB);
+    }
+
+    @Test
+    void rejectRequest_ShouldNotifyOnlyTheRejectingUser() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(userA);
+        when(principalService.checkUserExist("UserB")).thenReturn(userB);
+        when(friendGraphService.areFriends(1L, 2L)).thenReturn(false);
+
+        FriendRequest request = FriendRequest.builder()
+                .sender(userB)
+                .receiver(userA)
+                .status(PENDING)
+                .build();
+        when(friendRequestRepository.findBySenderAndReceiver(userB, userA))
+                .thenReturn(Optional.of(request));
+
+        friendService.rejectRequest("UserB", principal);
+
+        verify(friendNotificationService).notify(userA, REJECTED, userB);
+        verifyNoMoreInteractions(friendNotificationService);
     }
 
     @Test
@@ -139,7 +191,7 @@ class FriendServiceTest {
         when(principalService.checkUserPrincipal(principal)).thenReturn(userA);
         when(principalService.checkUserExist("UserB")).thenReturn(userB);
         when(principalService.isUsersDifferent(userA, userB)).thenReturn(true);
-        when(friendshipRepository.existsBetweenUsers(userA, userB)).thenReturn(false);
+        when(friendGraphService.areFriends(1L, 2L)).thenReturn(false);
 
         FriendRequest existingRequest = FriendRequest.builder()
                 .sender(userA)
@@ -159,7 +211,7 @@ class FriendServiceTest {
         when(principalService.checkUserPrincipal(principal)).thenReturn(userA);
         when(principalService.checkUserExist("UserB")).thenReturn(userB);
         when(principalService.isUsersDifferent(userA, userB)).thenReturn(true);
-        when(friendshipRepository.existsBetweenUsers(userA, userB)).thenReturn(false);
+        when(friendGraphService.areFriends(1L, 2L)).thenReturn(false);
 
         when(friendRequestRepository.findBySenderAndReceiver(any(), any()))
                 .thenReturn(Optional.empty());
@@ -171,13 +223,14 @@ class FriendServiceTest {
                         request.getReceiver().equals(userB) &&
                         request.getStatus() == PENDING
         ));
+        verify(friendNotificationService).notify(userB, RECEIVED, userA);
     }
 
     @Test
     void sendRequest_ShouldThrow_WhenUsersAreAlreadyFriends() {
         when(principalService.checkUserPrincipal(principal)).thenReturn(userA);
         when(principalService.checkUserExist("UserB")).thenReturn(userB);
-        when(friendshipRepository.existsBetweenUsers(userA, userB)).thenReturn(true);
+        when(friendGraphService.areFriends(1L, 2L)).thenReturn(true);
 
         assertThatThrownBy(() -> friendService.sendRequest("UserB", principal))
                 .isInstanceOf(CustomException.class)
@@ -216,13 +269,32 @@ class FriendServiceTest {
     void searchUsers_ShouldReturnEmpty_WhenNoMatches() {
         when(principalService.checkUserPrincipal(principal)).thenReturn(userA);
         when(userRepository.findPotentialFriends(anyString(), eq(userA), any()))
-                .thenReturn(Page.empty());
+                .thenReturn(new SliceImpl<>(List.of()));
 
-        Page<UserDto> result = friendService.searchUsers("invalid", Pageable.unpaged(), principal);
+        Slice<UserDto> result = friendService.searchUsers("invalid", Pageable.unpaged(), principal);
 
         assertThat(result).isEmpty();
     }
 
+    @Test
+    void suggestUsers_ShouldExcludeCallerAndClampLimit() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(userA);
+        List<UserSuggestionDto> suggestions = List.of(new UserSuggestionDto(2L, "UserB"));
+        when(userSuggestService.suggest("us", 20, 1L)).thenReturn(suggestions);
+
+        assertThat(friendService.suggestUsers("us", 500, principal)).isEqualTo(suggestions);
+    }
+
+    @Test
+    void getOnlineFriends_ShouldFilterFriendIdsByPresence() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(userA);
+        when(friendGraphService.getFriendIds(1L)).thenReturn(new long[]{2L, 3L, 4L});
+        when(presenceService.onlineAmong(new long[]{2L, 3L, 4L})).thenReturn(new long[]{2L, 4L});
+
+        assertThat(friendService.getOnlineFriends(principal)).containsExactly(2L, 4L);
+        verifyNoInteractions(friendshipRepository);
+    }
+
     @Test
     void shouldThrowWhenPrincipalInvalid() {
         when(principalService.checkUserPrincipal(principal))
@@ -242,4 +314,130 @@ class FriendServiceTest {
                 .isInstanceOf(CustomException.class)
                 .hasFieldOrPropertyWithValue("errorCode", BusinessErrorCodes.USER_NOT_FOUND);
     }
+
+    @Test
+    void getReceivedRequests_Cursor_ReturnsPageAndNextCursor() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(userA);
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        ReceivedRequest newest = received(30L, now, userB);
+        ReceivedRequest middle = received(20L, now.minusMinutes(1), userB);
+        ReceivedRequest oldest = received(10L, now.minusMinutes(2), userB);
+        when(friendRequestRepository.findReceived(eq(1L), eq(PENDING), any(Pageable.class)))
+                .thenReturn(List.of(newest, middle, oldest));
+
+        CursorPage<UserDto> page = friendService.getReceivedRequests(principal, null, 2);
+
+        assertThat(page.getItems()).extracting(UserDto::getNickName).containsExactly("UserB", "UserB");
+        assertThat(page.getItems().get(0).getRoles()).isNull();
+        FriendRequestCursor next = FriendRequestCursor.decode(page.getNextCursor());
+        assertThat(next.getId()).isEqualTo(20L);
+        assertThat(next.getCreatedAt()).isEqualTo(middle.getCreatedAt());
+        verify(friendRequestRepository).findReceived(1L, PENDING, PageRequest.of(0, 3));
+    }
+
+    @Test
+    void getReceivedRequests_WithCursor_QueriesAfterPosition() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(userA);
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 12, 0);
+        String cursor = new FriendRequestCursor(createdAt, 20L).encode();
+        ReceivedRequest last = received(10L, createdAt.minusMinutes(1), userB);
+        when(friendRequestRepository.findReceivedBefore(eq(1L), eq(PENDING), eq(createdAt), eq(20L), any(Pageable.class)))
+                .thenReturn(List.of(last));
+
+        CursorPage<UserDto> page = friendService.getReceivedRequests(principal, cursor, 2);
+
+        assertThat(page.getItems()).extracting(UserDto::getId, UserDto::getEmail)
+                .containsExactly(tuple(2L, "b@test.com"));
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getReceivedRequests_MalformedCursor_ThrowsInvalidCursor() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(userA);
+
+        assertThatThrownBy(() -> friendService.getReceivedRequests(principal, "not-a-cursor", 10))
+                .isInstanceOf(CustomException.class)
+                .hasMessage(BusinessErrorCodes.INVALID_CURSOR.getDescription());
+    }
+
+    @Test
+    void acceptRequest_ConcurrentAccept_IgnoresDuplicateFriendship() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(userB);
+        when(principalService.checkUserExist("UserA")).thenReturn(userA);
+        when(friendGraphService.areFriends(2L, 1L)).thenReturn(false);
+        FriendRequest request = FriendRequest.builder()
+                .sender(userA)
+                .receiver(userB)
+                .status(PENDING)
+                .build();
+        when(friendRequestRepository.findBySenderAndReceiver(userA, userB))
+                .thenReturn(Optional.of(request));
+        when(friendshipRepository.save(any(Friendship.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_friendship_pair"));
+        when(friendshipRepository.existsBetweenUsers(userB, userA)).thenReturn(true);
+
+        friendService.acceptRequest("UserA", principal);
+
+        assertThat(request.getStatus()).isEqualTo(ACCEPT);
+        verify(friendshipRepository).save(argThat(friendship ->
+                friendship.getUser1().getId() == 1L && friendship.getUser2().getId() == 2L
+        ));
+        verify(friendGraphService).addFriendship(2L, 1L);
+    }
+
+    @Test
+    void searchUsers_ShortQuery_MatchesInfixInRequestedOrder() {
+        PageRequest pageable = PageRequest.of(0, 20, Sort.by("nickName"));
+        when(principalService.checkUserPrincipal(principal)).thenReturn(userA);
+        when(userRepository.findPotentialFriends("s", userA, pageable))
+                .thenReturn(new SliceImpl<>(List.of(userB), pageable, true));
+        when(mapper.mapTo(userB)).thenReturn(userBDto);
+
+        Slice<UserDto> result = friendService.searchUsers(" s ", pageable, principal);
+
+        assertThat(result.getContent()).containsExactly(userBDto);
+        assertThat(result.hasNext()).isTrue();
+        verifyNoInteractions(userSuggestService);
+    }
+
+    @Test
+    void searchUsers_BlankQuery_ReturnsEmptySlice() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(userA);
+
+        assertThat(friendService.searchUsers("  ", PageRequest.of(0, 20), principal)).isEmpty();
+        verifyNoInteractions(userRepository, userSuggestService);
+    }
+
+    @Test
+    void acceptRequest_OtherIntegrityViolation_IsRethrown() {
+        when(principalService.checkUserPrincipal(principal)).thenReturn(userB);
+        when(principalService.checkUserExist("UserA")).thenReturn(userA);
+        when(friendGraphService.areFriends(2L, 1L)).thenReturn(false);
+        FriendRequest request = FriendRequest.builder()
+                .sender(userA)
+                .receiver(userB)
+                .status(PENDING)
+                .build();
+        when(friendRequestRepository.findBySenderAndReceiver(userA, userB))
+                .thenReturn(Optional.of(request));
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("fk_friendship_user");
+        when(friendshipRepository.save(any(Friendship.class))).thenThrow(violation);
+        when(friendshipRepository.existsBetweenUsers(userB, userA)).thenReturn(false);
+
+        assertThatThrownBy(() -> friendService.acceptRequest("UserA", principal)).isSameAs(violation);
+        verify(friendGraphService, never()).addFriendship(any(), any());
+        verifyNoInteractions(friendNotificationService);
+    }
+
+    private static ReceivedRequest received(Long id, LocalDateTime createdAt, User sender) {
+        return new ReceivedRequest() {
+            public Long getId() { return id; }
+            public LocalDateTime getCreatedAt() { return createdAt; }
+            public Long getSenderId() { return sender.getId(); }
+            public String getSenderFirstName() { return sender.getFirstName(); }
+            public String getSenderLastName() { return sender.getLastName(); }
+            public String getSenderNickName() { return sender.getNickName(); }
+            public String getSenderEmail() { return sender.getEmail(); }
+        };
+    }
 }
@@ -6,13 +6,18 @@ import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mafisher.togetherbackend.entity.Role;
+import org.mafisher.togetherbackend.entity.User;
+import org.mafisher.togetherbackend.security.JwtClaims;
 import org.mafisher.togetherbackend.service.impl.JwtServiceImpl;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.crypto.SecretKey;
 import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,12 +25,18 @@ import static org.junit.jupiter.api.Assertions.*;
 public class JwtServiceTest {
 
     private JwtService jwtService;
+    private final User testUser = User.builder()
+            .id(7L)
+            .email("testuser@example.com")
+            .nickName("testuser")
+            .roles(Set.of(new Role(2L, "USER")))
+            .tokenVersion(3)
+            .build();
     private final String base64Key = "testSecretKey12345678901234567890123456789012345678901234567890123456789012";
 
     @BeforeEach
     void setUp() {
-        this.jwtService = new JwtServiceImpl();
-        ReflectionTestUtils.setField(jwtService, "secretKey", base64Key);
+        this.jwtService = new JwtServiceImpl(base64Key, 10_000);
     }
 
     private String generateTokenWithCustomExpiration(String username, long offsetMillis) {
@@ -42,22 +53,21 @@ public class JwtServiceTest {
 
     @Test
     void testGenerateToken() {
-        String token = jwtService.generateToken("testuser");
+        String token = jwtService.generateToken(testUser);
         assertNotNull(token);
         assertEquals(3, token.split("\\.").length);
     }
 
     @Test
     void generateToken_extractUserName_returnsCorrectUsername() {
-        String username = "testuser";
-        String token = jwtService.generateToken(username);
+        String token = jwtService.generateToken(testUser);
         String extractedUsername = jwtService.extractUserName(token);
-        assertEquals(username, extractedUsername);
+        assertEquals(testUser.getEmail(), extractedUsername);
     }
 
     @Test
     void extractUserName_withTamperedToken_throwsException() {
-        String validToken = jwtService.generateToken("testuser");
+        String validToken = jwtService.generateToken(testUser);
         String[] parts = validToken.split("\\.");
         String tamperedToken = parts[0] + "." + parts[1] + ".tamperedSignature";
         assertThrows(JwtException.class, () -> jwtService.extractUserName(tamperedToken));
@@ -73,7 +83,7 @@ public class JwtServiceTest {
 
     @Test
     void validateJwtToken_withValidToken_returnsTrue() {
-        String token = jwtService.generateToken("testuser");
+        String token = jwtService.generateToken(testUser);
         assertTrue(jwtService.validateJwtToken(token));
     }
 
@@ -111,5 +121,62 @@ public class JwtServiceTest {
     void validateJwtToken_withNullToken_returnsFalse() {
         assertFalse(jwtService.validateJwtToken(null));
     }
-}
 
+    @Test
+    void verify_withValidToken_returnsClaims() {
+        String token = jwtService.generateToken(testUser);
+
+        Optional<JwtClaims> claims = jwtService.verify(token);
+
+        assertTrue(claims.isPresent());
+        assertEquals("testuser@example.com", claims.get().getSubject());
+        assertNotNull(claims.get().getExpiration());
+    }
+
+    @Test
+    void verify_withGeneratedToken_carriesUserIdentity() {
+        String token = jwtService.generateToken(testUser);
+
+        JwtClaims claims = jwtService.verify(token).orElseThrow();
+
+        assertEquals(7L, claims.getUserId());
+        assertEquals("testuser", claims.getNickname());
+        assertEquals(List.of("USER"), claims.getRoles());
+        assertEquals(3, claims.getTokenVersion());
+        assertTrue(claims.hasIdentity());
+    }
+
+    @Test
+    void verify_withTokenWithoutUserId_hasNoIdentity() {
+        String token = generateTokenWithCustomExpiration("testuser", 3600000);
+
+        JwtClaims claims = jwtService.verify(token).orElseThrow();
+
+        assertFalse(claims.hasIdentity());
+    }
+
+    @Test
+    void verify_calledTwice_returnsCachedClaims() {
+        String token = jwtService.generateToken(testUser);
+
+        JwtClaims first = jwtService.verify(token).orElseThrow();
+        JwtClaims second = jwtService.verify(token).orElseThrow();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void verify_withTamperedTokenAfterValidOne_returnsEmpty() {
+        String validToken = jwtService.generateToken(testUser);
+        jwtService.verify(validToken);
+        String[] parts = validToken.split("\\.");
+
+        assertTrue(jwtService.verify(parts[0] + "." + parts[1] + ".tamperedSignature").isEmpty());
+    }
+
+    @Test
+    void verify_withExpiredToken_returnsEmpty() {
+        String expiredToken = generateTokenWithCustomExpiration("testuser", -3600000);
+        assertTrue(jwtService.verify(expiredToken).isEmpty());
+    }
+}
@@ -0,0 +1,130 @@
+package org.mafisher.togetherbackend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mafisher.togetherbackend.dto.PresenceBatchDto;
+import org.mafisher.togetherbackend.entity.User;
+import org.mafisher.togetherbackend.service.impl.PresenceServiceImpl;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PresenceServiceTest {
+
+    @Mock
+    private FriendGraphService friendGraphService;
+
+    @Mock
+    private PrincipalService principalService;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private PresenceServiceImpl presenceService;
+
+    private final Principal alice = () -> "alice@test.com";
+    private final Principal bob = () -> "bob@test.com";
+    private final Principal carol = () -> "carol@test.com";
+
+    @BeforeEach
+    void setUp() {
+        presenceService = new PresenceServiceImpl(friendGraphService, principalService, messagingTemplate,
+                new SimpleMeterRegistry(), Duration.ofMillis(50), Duration.ofMillis(10), 8);
+        lenient().when(principalService.checkUserPrincipal(alice)).thenReturn(User.builder().id(1L).build());
+        lenient().when(principalService.checkUserPrincipal(bob)).thenReturn(User.builder().id(2L).build());
+        lenient().when(friendGraphService.getFriendIds(anyLong())).thenReturn(new long[0]);
+    }
+
+    @Test
+    void connect_NotifiesOnlineFriendsOnly() {
+        when(friendGraphService.getFriendIds(2L)).thenReturn(new long[]{1L, 3L});
+        presenceService.connect("s1", alice);
+        presenceService.publishChanges();
+
+        presenceService.connect("s2", bob);
+        presenceService.publishChanges();
+
+        verify(messagingTemplate).convertAndSendToUser("alice@test.com", "/queue/presence",
+                new PresenceBatchDto(List.of(2L), List.of()));
+        verifyNoMoreInteractions(messagingTemplate);
+        assertThat(presenceService.onlineAmong(new long[]{1L, 2L, 3L})).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void publishChanges_BatchesPerRecipientAndSkipsFlaps() {
+        when(friendGraphService.getFriendIds(3L)).thenReturn(new long[]{1L});
+        when(principalService.checkUserPrincipal(carol)).thenReturn(User.builder().id(3L).build());
+        presenceService.connect("s1", alice);
+        presenceService.connect("s3", carol);
+        presenceService.publishChanges();
+        clearInvocations(messagingTemplate);
+
+        presenceService.connect("s2", bob);
+        presenceService.disconnect("s3");
+        presenceService.connect("s4", bob);
+        presenceService.disconnect("s2");
+        presenceService.disconnect("s4");
+        presenceService.connect("s5", carol);
+        presenceService.disconnect("s5");
+        presenceService.publishChanges();
+
+        verify(messagingTemplate).convertAndSendToUser("alice@test.com", "/queue/presence",
+                new PresenceBatchDto(List.of(), List.of(3L)));
+        verifyNoMoreInteractions(messagingTemplate);
+    }
+
+    @Test
+    void disconnect_GoesOfflineOnlyAfterLastSession() {
+        presenceService.connect("s1", alice);
+        presenceService.connect("s2", alice);
+
+        presenceService.disconnect("s1");
+        assertThat(presenceService.isOnline(1L)).isTrue();
+
+        presenceService.disconnect("s2");
+        assertThat(presenceService.isOnline(1L)).isFalse();
+    }
+
+    @Test
+    void expire_TakesSilentUsersOfflineAndKeepsActiveOnes() throws InterruptedException {
+        presenceService.connect("s1", alice);
+        presenceService.connect("s2", bob);
+
+        for (int i = 0; i < 10; i++) {
+            Thread.sleep(10);
+            presenceService.touch("s2");
+            presenceService.expire();
+        }
+
+        assertThat(presenceService.isOnline(1L)).isFalse();
+        assertThat(presenceService.isOnline(2L)).isTrue();
+    }
+
+    @Test
+    void touch_AfterExpiry_BringsUserBackOnline() throws InterruptedException {
+        when(friendGraphService.getFriendIds(1L)).thenReturn(new long[]{2L});
+        presenceService.connect("s1", alice);
+        Thread.sleep(80);
+        presenceService.expire();
+        assertThat(presenceService.isOnline(1L)).isFalse();
+
+        presenceService.connect("s2", bob);
+        presenceService.touch("s1");
+        presenceService.publishChanges();
+
+        assertThat(presenceService.isOnline(1L)).isTrue();
+        verify(messagingTemplate).convertAndSendToUser(eq("bob@test.com"), eq("/queue/presence"), any(Object.class));
+    }
+}
@@ -1,17 +1,25 @@
 package org.mafisher.togetherbackend.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mafisher.togetherbackend.entity.Role;
 import org.mafisher.togetherbackend.entity.User;
 import org.mafisher.togetherbackend.handler.BusinessErrorCodes;
 import org.mafisher.togetherbackend.handler.CustomException;
 import org.mafisher.togetherbackend.repository.UserRepository;
+import org.mafisher.togetherbackend.security.JwtPrincipal;
 import org.mafisher.togetherbackend.service.impl.PrincipalServiceImpl;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import java.security.Principal;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -21,7 +29,8 @@ class PrincipalServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
+
     private PrincipalServiceImpl principalService;
 
     private final User testUser = User.builder()
@@ -30,6 +39,12 @@ class PrincipalServiceTest {
             .nickName("testUser")
             .build();
 
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        principalService = new PrincipalServiceImpl(userRepository, meterRegistry, 100, Duration.ofMinutes(5));
+    }
+
     @Test
     void checkUserPrincipal_ShouldReturnUser_WhenPrincipalIsValid() {
         Principal principal = mock(Principal.class);
@@ -39,10 +54,45 @@ class PrincipalServiceTest {
 
         User result = principalService.checkUserPrincipal(principal);
 
-        assertThat(result).isEqualTo(testUser);
+        assertThat(result.getEmail()).isEqualTo(testUser.getEmail());
         verify(userRepository).findByEmail("test@example.com");
     }
 
+    @Test
+    void checkUserPrincipal_ShouldReturnFreshCopyWithoutPassword() {
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn("test@example.com");
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(User.builder()
+                .id(1L)
+                .email("test@example.com")
+                .nickName("testUser")
+                .password("hash")
+                .roles(new HashSet<>(Set.of(new Role(2L, "USER"))))
+                .enable(true)
+                .build()));
+
+        User first = principalService.checkUserPrincipal(principal);
+        first.getRoles().clear();
+        User second = principalService.checkUserPrincipal(principal);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getPassword()).isNull();
+        assertThat(second.isEnabled()).isTrue();
+        assertThat(second.getRoles()).extracting(Role::getName).containsExactly("USER");
+        assertThat(second.getSentRequests()).isEmpty();
+        assertThat(second.getReceivedRequests()).isEmpty();
+        verify(userRepository, times(1)).findByEmail("test@example.com");
+    }
+
+    @Test
+    void userIdOf_ShouldReadIdFromTokenClaimsWithoutLookup() {
+        JwtPrincipal jwtPrincipal = new JwtPrincipal(1L, "test@example.com", "testUser", 0, List.of("USER"));
+        Principal principal = new UsernamePasswordAuthenticationToken(jwtPrincipal, null, jwtPrincipal.getAuthorities());
+
+        assertThat(principalService.userIdOf(principal)).isEqualTo(1L);
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     void checkUserPrincipal_ShouldThrow_WhenUserNotFound() {
         Principal principal = mock(Principal.class);
@@ -62,7 +112,7 @@ class PrincipalServiceTest {
 
         User result = principalService.checkUserExist("validNickname");
 
-        assertThat(result).isEqualTo(testUser);
+        assertThat(result.getNickName()).isEqualTo(testUser.getNickName());
         verify(userRepository).findByNickName("validNickname");
     }
 
@@ -93,4 +143,50 @@ class PrincipalServiceTest {
 
         assertThat(principalService.isUsersDifferent(user1, user2)).isTrue();
     }
+
+    @Test
+    void checkUserPrincipal_ShouldServeRepeatedLookupsFromCache() {
+        Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn("test@example.com");
+        when(userRepository.findByEmail("test@example.com"))
+                .thenReturn(Optional.of(testUser));
+
+        principalService.checkUserPrincipal(principal);
+        User result = principalService.checkUserPrincipal(principal);
+
+        assertThat(result.getId()).isEqualTo(testUser.getId());
+        verify(userRepository, times(1)).findByEmail("test@example.com");
+        assertThat(lookups("email", "shared", "hit")).isEqualTo(1);
+        assertThat(lookups("email", "shared", "miss")).isEqualTo(1);
+    }
+
+    @Test
+    void checkUserExist_ShouldNotCacheMissingUsers() {
+        when(userRepository.findByNickName("ghost")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> principalService.checkUserExist("ghost")).isInstanceOf(CustomException.class);
+        assertThatThrownBy(() -> principalService.checkUserExist("ghost")).isInstanceOf(CustomException.class);
+
+        verify(userRepository, times(2)).findByNickName("ghost");
+    }
+
+    @Test
+    void invalidate_ShouldReloadUserOnNextLookup() {
+        when(userRepository.findByNickName("testUser")).thenReturn(Optional.of(testUser));
+
+        principalService.checkUserExist("testUser");
+        principalService.invalidate(testUser.getId());
+        principalService.checkUserExist("testUser");
+
+        verify(userRepository, times(2)).findByNickName("testUser");
+    }
+
+    private double lookups(String key, String tier, String result) {
+        return meterRegistry.get("principal.cache.lookups")
+                .tag("key", key)
+                .tag("tier", tier)
+                .tag("result", result)
+                .counter()
+                .count();
+    }
 }
@@ -0,0 +1,151 @@
+package org.mafisher.togetherbackend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mafisher.togetherbackend.repository.RoomParticipantRepository;
+import org.mafisher.togetherbackend.repository.RoomParticipantRepository.MembershipHandler;
+import org.mafisher.togetherbackend.repository.RoomParticipantRepository.RoomDigestHandler;
+import org.mafisher.togetherbackend.repository.RoomRepository;
+import org.mafisher.togetherbackend.service.impl.RoomMembershipServiceImpl;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomMembershipServiceTest {
+
+    @Mock
+    private RoomParticipantRepository roomParticipantRepository;
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    private RoomMembershipServiceImpl roomMembershipService;
+
+    @BeforeEach
+    void setUp() {
+        roomMembershipService = new RoomMembershipServiceImpl(
+                roomParticipantRepository, roomRepository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void isMember_BeforeLoad_FallsBackToRepository() {
+        when(roomRepository.isUserInRoom(7L, 1L)).thenReturn(true);
+
+        assertThat(roomMembershipService.isLoaded()).isFalse();
+        assertThat(roomMembershipService.isMember(7L, 1L)).isTrue();
+    }
+
+    @Test
+    void reload_AnswersInMemory() {
+        load(7, 1, 7, 2, 8, 3);
+
+        assertThat(roomMembershipService.isMember(7L, 2L)).isTrue();
+        assertThat(roomMembershipService.isMember(7L, 3L)).isFalse();
+        assertThat(roomMembershipService.isMember(8L, 3L)).isTrue();
+        assertThat(roomMembershipService.isMember(9L, 1L)).isFalse();
+        verifyNoInteractions(roomRepository);
+    }
+
+    @Test
+    void mutations_UpdateIndex() {
+        load(7, 1);
+
+        roomMembershipService.membersAdded(7L, List.of(4L, 2L));
+        roomMembershipService.membersRemoved(7L, List.of(4L));
+        roomMembershipService.roomCreated(8L, 2L);
+
+        assertThat(roomMembershipService.isMember(7L, 2L)).isTrue();
+        assertThat(roomMembershipService.isMember(7L, 4L)).isFalse();
+        assertThat(roomMembershipService.isMember(8L, 2L)).isTrue();
+
+        roomMembershipService.roomDeleted(7L);
+        assertThat(roomMembershipService.isMember(7L, 1L)).isFalse();
+    }
+
+    @Test
+    void compact_KeepsChanges() {
+        load(7, 1, 7, 4, 8, 3);
+        roomMembershipService.membersAdded(7L, List.of(2L));
+        roomMembershipService.membersRemoved(7L, List.of(4L));
+        roomMembershipService.roomDeleted(8L);
+        roomMembershipService.roomCreated(9L, 5L);
+
+        roomMembershipService.compact();
+
+        assertThat(roomMembershipService.isMember(7L, 1L)).isTrue();
+        assertThat(roomMembershipService.isMember(7L, 2L)).isTrue();
+        assertThat(roomMembershipService.isMember(7L, 4L)).isFalse();
+        assertThat(roomMembershipService.isMember(8L, 3L)).isFalse();
+        assertThat(roomMembershipService.isMember(9L, 5L)).isTrue();
+    }
+
+    @Test
+    void reload_ReplaysChangesMadeWhileLoading() {
+        doAnswer(invocation -> {
+            MembershipHandler handler = invocation.getArgument(0);
+            handler.accept(7, 1);
+            roomMembershipService.membersAdded(7L, List.of(5L));
+            roomMembershipService.roomCreated(9L, 3L);
+            return null;
+        }).when(roomParticipantRepository).forEachMembership(any());
+
+        roomMembershipService.reload();
+
+        assertThat(roomMembershipService.isMember(7L, 5L)).isTrue();
+        assertThat(roomMembershipService.isMember(9L, 3L)).isTrue();
+    }
+
+    @Test
+    void verifyConsistency_InSync_ReturnsTrue() {
+        load(7, 1, 7, 2, 8, 3);
+        digests(7, 2, 3, 8, 1, 3);
+
+        assertThat(roomMembershipService.verifyConsistency()).isTrue();
+        verify(roomParticipantRepository, times(1)).forEachMembership(any());
+    }
+
+    @Test
+    void verifyConsistency_ReloadsWhenRoomsDifferWithEqualTotals() {
+        load(7, 1, 7, 2, 8, 3);
+        // user 2 left room 7 and user 4 joined room 8 on another instance: same total, different rooms
+        digests(7, 1, 1, 8, 2, 7);
+
+        assertThat(roomMembershipService.verifyConsistency()).isFalse();
+        verify(roomParticipantRepository, times(2)).forEachMembership(any());
+    }
+
+    @Test
+    void verifyConsistency_ReloadsWhenIndexedRoomIsGone() {
+        load(7, 1, 8, 3);
+        digests(7, 1, 1);
+
+        assertThat(roomMembershipService.verifyConsistency()).isFalse();
+    }
+
+    private void load(long... pairs) {
+        doAnswer(invocation -> {
+            MembershipHandler handler = invocation.getArgument(0);
+            for (int i = 0; i < pairs.length; i += 2)
+                handler.accept(pairs[i], pairs[i + 1]);
+            return null;
+        }).when(roomParticipantRepository).forEachMembership(any());
+        roomMembershipService.reload();
+    }
+
+    private void digests(long... rows) {
+        doAnswer(invocation -> {
+            RoomDigestHandler handler = invocation.getArgument(0);
+            for (int i = 0; i < rows.length; i += 3)
+                handler.accept(rows[i], rows[i + 1], rows[i + 2]);
+            return null;
+        }).when(roomParticipantRepository).forEachRoomDigest(any());
+    }
+}
@@ -0,0 +1,231 @@
+package org.mafisher.togetherbackend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mafisher.togetherbackend.chat.ChatHistoryCache;
+import org.mafisher.togetherbackend.chat.ReadReceiptAggregator;
+import org.mafisher.togetherbackend.chat.RoomFanout;
+import org.mafisher.togetherbackend.chat.SseFanout;
+import org.mafisher.togetherbackend.dto.ParticipantChangeDto;
+import org.mafisher.togetherbackend.dto.RoomDto;
+import org.mafisher.togetherbackend.dto.request.ParticipantsRequest;
+import org.mafisher.togetherbackend.entity.Room;
+import org.mafisher.togetherbackend.entity.User;
+import org.mafisher.togetherbackend.handler.BusinessErrorCodes;
+import org.mafisher.togetherbackend.handler.CustomException;
+import org.mafisher.togetherbackend.mappers.Mapper;
+import org.mafisher.togetherbackend.repository.ChatMessageRepository;
+import org.mafisher.togetherbackend.repository.RoomParticipantRepository;
+import org.mafisher.togetherbackend.repository.RoomReadStateRepository;
+import org.mafisher.togetherbackend.repository.RoomRepository;
+import org.mafisher.togetherbackend.repository.UserRepository;
+import org.mafisher.togetherbackend.repository.UserRepository.UserNickname;
+import org.mafisher.togetherbackend.service.impl.RoomServiceImpl;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mafisher.togetherbackend.enums.ParticipantChangeStatus.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomServiceTest {
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private RoomParticipantRepository roomParticipantRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PrincipalService principalService;
+
+    @Mock
+    private Mapper<Room, RoomDto> roomMapper;
+
+    @Mock
+    private FriendGraphService friendGraphService;
+
+    @Mock
+    private ChatMessageRepository chatMessageRepository;
+
+    @Mock
+    private ChatHistoryCache chatHistoryCache;
+
+    @Mock
+    private RoomReadStateRepository roomReadStateRepository;
+
+    @Mock
+    private ReadReceiptAggregator readReceiptAggregator;
+
+    @Mock
+    private RoomMembershipService roomMembershipService;
+
+    @Mock
+    private RoomFanout roomFanout;
+
+    @Mock
+    private SseFanout sseFanout;
+
+    @InjectMocks
+    private RoomServiceImpl roomService;
+
+    @Mock
+    private Principal principal;
+
+    private final User owner = User.builder().id(1L).nickName("owner").build();
+
+    @BeforeEach
+    void setUp() {
+        Room room = Room.builder().id(7L).name("room").owner(owner).build();
+        lenient().when(principalService.checkUserPrincipal(principal)).thenReturn(owner);
+        lenient().when(roomRepository.findById(7L)).thenReturn(Optional.of(room));
+    }
+
+    @Test
+    void addParticipants_ReportsOutcomePerNickname() {
+        when(userRepository.findNicknamesIn(any())).thenReturn(List.of(
+                user(1, "owner"), user(3, "stranger"), user(4, "member"), user(5, "friend")));
+        when(friendGraphService.areFriends(1L, 3L)).thenReturn(false);
+        when(friendGraphService.areFriends(1L, 4L)).thenReturn(true);
+        when(friendGraphService.areFriends(1L, 5L)).thenReturn(true);
+        when(roomRepository.findParticipantIdsAmong(7L, List.of(4L, 5L))).thenReturn(List.of(4L));
+
+        List<ParticipantChangeDto> results = roomService.addParticipants(7L, request(
+                "ghost", "owner", "stranger", "member", "friend", "friend", " "), principal);
+
+        assertThat(results)
+                .extracting(ParticipantChangeDto::getNickName, ParticipantChangeDto::getStatus)
+                .containsExactly(
+                        tuple("ghost", USER_NOT_FOUND),
+                        tuple("owner", USERS_ARE_THE_SAME),
+                        tuple("stranger", USERS_NOT_FRIENDS),
+                        tuple("member", USER_ALREADY_IN_ROOM),
+                        tuple("friend", ADDED));
+        verify(roomParticipantRepository).insertAll(7L, List.of(5L));
+        verify(roomMembershipService).membersAdded(7L, Set.of(5L));
+    }
+
+    @Test
+    void addParticipants_ConcurrentJoin_FallsBackToSingleInserts() {
+        when(userRepository.findNicknamesIn(any())).thenReturn(List.of(user(5, "early"), user(6, "late")));
+        when(friendGraphService.areFriends(eq(1L), any())).thenReturn(true);
+        when(roomRepository.findParticipantIdsAmong(7L, List.of(5L, 6L))).thenReturn(List.of());
+        doThrow(new DuplicateKeyException("room_participants_pkey"))
+                .when(roomParticipantRepository).insertAll(7L, List.of(5L, 6L));
+        doNothing().when(roomParticipantRepository).insert(7L, 5L);
+        doThrow(new DuplicateKeyException("room_participants_pkey"))
+                .when(roomParticipantRepository).insert(7L, 6L);
+
+        List<ParticipantChangeDto> results = roomService.addParticipants(7L, request("early", "late"), principal);
+
+        assertThat(results)
+                .extracting(ParticipantChangeDto::getNickName, ParticipantChangeDto::getStatus)
+                .containsExactly(tuple("early", ADDED), tuple("late", USER_ALREADY_IN_ROOM));
+        verify(roomParticipantRepository).insert(7L, 5L);
+        verify(roomMembershipService).membersAdded(7L, Set.of(5L));
+    }
+
+    @Test
+    void addParticipants_NothingToInsert_SkipsWrites() {
+        when(userRepository.findNicknamesIn(any())).thenReturn(List.of(user(4, "member")));
+        when(friendGraphService.areFriends(1L, 4L)).thenReturn(true);
+        when(roomRepository.findParticipantIdsAmong(7L, List.of(4L))).thenReturn(List.of(4L));
+
+        List<ParticipantChangeDto> results = roomService.addParticipants(7L, request("member", "ghost"), principal);
+
+        assertThat(results)
+                .extracting(ParticipantChangeDto::getStatus)
+                .containsExactly(USER_ALREADY_IN_ROOM, USER_NOT_FOUND);
+        verify(roomParticipantRepository, never()).insertAll(any(), anyList());
+        verify(roomParticipantRepository, never()).insert(any(), any());
+    }
+
+    @Test
+    void addParticipants_ShouldThrow_WhenTooManyNicknames() {
+        String[] nicknames = IntStream.range(0, 101).mapToObj(i -> "user" + i).toArray(String[]::new);
+
+        assertThatThrownBy(() -> roomService.addParticipants(7L, request(nicknames), principal))
+                .isInstanceOf(CustomException.class)
+                .hasFieldOrPropertyWithValue("errorCode", BusinessErrorCodes.TOO_MANY_PARTICIPANTS);
+        verifyNoInteractions(userRepository, roomParticipantRepository);
+    }
+
+    @Test
+    void addParticipants_ShouldThrow_WhenRoomMissing() {
+        when(roomRepository.findById(8L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> roomService.addParticipants(8L, request("friend"), principal))
+                .isInstanceOf(CustomException.class)
+                .hasFieldOrPropertyWithValue("errorCode", BusinessErrorCodes.ROOM_NOT_FOUND);
+        verifyNoInteractions(userRepository, roomParticipantRepository);
+    }
+
+    @Test
+    void removeParticipants_ReportsOutcomePerNickname() {
+        when(userRepository.findNicknamesIn(any())).thenReturn(List.of(
+                user(1, "owner"), user(4, "member"), user(6, "outsider")));
+        when(roomRepository.findParticipantIdsAmong(7L, List.of(4L, 6L))).thenReturn(List.of(4L));
+
+        List<ParticipantChangeDto> results = roomService.removeParticipants(7L, request(
+                "owner", "member", "outsider", "ghost"), principal);
+
+        assertThat(results)
+                .extracting(ParticipantChangeDto::getNickName, ParticipantChangeDto::getStatus)
+                .containsExactly(
+                        tuple("owner", PARTICIPANT_IS_OWNER),
+                        tuple("member", REMOVED),
+                        tuple("outsider", USER_NOT_IN_ROOM),
+                        tuple("ghost", USER_NOT_FOUND));
+        verify(roomParticipantRepository).deleteAll(7L, List.of(4L));
+        verify(roomMembershipService).membersRemoved(7L, List.of(4L));
+        verify(roomFanout).unsubscribe(7L, List.of(4L));
+        verify(sseFanout).closeRoom(7L, List.of(4L));
+    }
+
+    @Test
+    void removeParticipants_NoMembers_SkipsDelete() {
+        when(userRepository.findNicknamesIn(any())).thenReturn(List.of(user(6, "outsider")));
+        when(roomRepository.findParticipantIdsAmong(7L, List.of(6L))).thenReturn(List.of());
+
+        List<ParticipantChangeDto> results = roomService.removeParticipants(7L, request("outsider"), principal);
+
+        assertThat(results).extracting(ParticipantChangeDto::getStatus).containsExactly(USER_NOT_IN_ROOM);
+        verify(roomParticipantRepository, never()).deleteAll(any(), anyList());
+        verifyNoInteractions(roomMembershipService, roomFanout, sseFanout);
+    }
+
+    private static ParticipantsRequest request(String... nicknames) {
+        return new ParticipantsRequest(List.of(nicknames));
+    }
+
+    private static UserNickname user(long id, String nickName) {
+        return new UserNickname() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getNickName() {
+                return nickName;
+            }
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package org.mafisher.togetherbackend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mafisher.togetherbackend.repository.UserRepository;
+import org.mafisher.togetherbackend.service.impl.TokenVersionServiceImpl;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PrincipalService principalService;
+
+    private TokenVersionService tokenVersionService;
+
+    @BeforeEach
+    void setUp() {
+        tokenVersionService = new TokenVersionServiceImpl(userRepository, principalService, 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void isCurrent_ShouldLoadVersionOnce() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0));
+
+        assertThat(tokenVersionService.isCurrent(1L, 0)).isTrue();
+        assertThat(tokenVersionService.isCurrent(1L, 0)).isTrue();
+
+        verify(userRepository, times(1)).findTokenVersionById(1L);
+    }
+
+    @Test
+    void isCurrent_ShouldRejectUnknownUser() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.empty());
+
+        assertThat(tokenVersionService.isCurrent(1L, 0)).isFalse();
+    }
+
+    @Test
+    void revokeTokens_ShouldRejectOlderVersions() {
+        when(userRepository.findTokenVersionById(1L))
+                .thenReturn(Optional.of(0))
+                .thenReturn(Optional.of(1));
+
+        assertThat(tokenVersionService.isCurrent(1L, 0)).isTrue();
+
+        tokenVersionService.revokeTokens(1L);
+
+        verify(userRepository).incrementTokenVersion(1L);
+        verify(principalService).invalidate(1L);
+        assertThat(tokenVersionService.isCurrent(1L, 0)).isFalse();
+        assertThat(tokenVersionService.isCurrent(1L, 1)).isTrue();
+    }
+}
@@ -0,0 +1,95 @@
+package org.mafisher.togetherbackend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mafisher.togetherbackend.dto.UserSuggestionDto;
+import org.mafisher.togetherbackend.repository.UserRepository;
+import org.mafisher.togetherbackend.repository.UserRepository.UserNickname;
+import org.mafisher.togetherbackend.service.impl.UserSuggestServiceImpl;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSuggestServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserSuggestServiceImpl userSuggestService;
+
+    @BeforeEach
+    void setUp() {
+        userSuggestService = new UserSuggestServiceImpl(userRepository, new SimpleMeterRegistry(), 2);
+    }
+
+    @Test
+    void suggest_BeforeLoad_FallsBackToEscapedRepositoryQuery() {
+        when(userRepository.findNicknamesLike(eq("a\\_b%"), any(Pageable.class)))
+                .thenReturn(List.of(user(1, "A_b"), user(2, "a_bc")));
+
+        assertThat(userSuggestService.isLoaded()).isFalse();
+        assertThat(userSuggestService.suggest("A_b", 5, 1L))
+                .containsExactly(new UserSuggestionDto(2L, "a_bc"));
+    }
+
+    @Test
+    void reload_LoadsAllBatchesAndAnswersInMemory() {
+        when(userRepository.findNicknamesAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(user(1, "mike"), user(2, "Mikaela")));
+        when(userRepository.findNicknamesAfter(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(user(5, "anna")));
+
+        userSuggestService.reload();
+
+        assertThat(userSuggestService.isLoaded()).isTrue();
+        assertThat(userSuggestService.suggest("mi", 5, null))
+                .extracting(UserSuggestionDto::getNickName)
+                .containsExactly("Mikaela", "mike");
+        verify(userRepository, never()).findNicknamesLike(any(), any());
+    }
+
+    @Test
+    void addUser_VisibleImmediatelyAndAfterCompaction() {
+        when(userRepository.findNicknamesAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(user(1, "tomek")));
+        userSuggestService.reload();
+
+        userSuggestService.addUser(7L, "Tomasz");
+        assertThat(userSuggestService.suggest("tom", 1, null))
+                .containsExactly(new UserSuggestionDto(7L, "Tomasz"));
+
+        userSuggestService.compact();
+        assertThat(userSuggestService.suggest("tom", 5, 1L))
+                .containsExactly(new UserSuggestionDto(7L, "Tomasz"));
+    }
+
+    @Test
+    void suggest_BlankPrefix_ReturnsEmpty() {
+        assertThat(userSuggestService.suggest(" ", 5, null)).isEmpty();
+        verifyNoInteractions(userRepository);
+    }
+
+    private static UserNickname user(long id, String nickName) {
+        return new UserNickname() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getNickName() {
+                return nickName;
+            }
+        };
+    }
+}